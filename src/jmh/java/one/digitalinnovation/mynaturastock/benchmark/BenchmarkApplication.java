@@ -0,0 +1,83 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.MyNaturastockApplication;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the application against the in-memory H2 database for the benchmarks, without a web server unless the
+ * benchmark measures the REST layer.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application with its embedded web server on a random port, see {@link #port}.
+     */
+    static ConfigurableApplicationContext startWebServer(String... properties) {
+        return start(WebApplicationType.SERVLET, properties);
+    }
+
+    /**
+     * Starts the reactive variant of the application, on Netty with a random port.
+     */
+    static ConfigurableApplicationContext startReactiveWebServer(String... properties) {
+        return start(WebApplicationType.REACTIVE, concat(properties, "spring.profiles.active=" + ReactiveConfig.REACTIVE_PROFILE));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * The properties are passed as command line arguments, so they override those of {@code application.properties}.
+     */
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(MyNaturastockApplication.class)
+                .web(webApplicationType)
+                .properties("server.port=0")
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static String[] concat(String[] properties, String property) {
+        String[] allProperties = Arrays.copyOf(properties, properties.length + 1);
+        allProperties[properties.length] = property;
+        return allProperties;
+    }
+
+    static List<ProductDTO> createProducts(ProductService productService, int count, int quantity) throws ProductAlreadyRegisteredException {
+        List<ProductDTO> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(productService.createProduct(product("Benchmark " + i, quantity)));
+        }
+        return products;
+    }
+
+    static ProductDTO product(String name, int quantity) {
+        return ProductDTO.builder()
+                .name(name)
+                .min(0)
+                .quantity(quantity)
+                .type(Category.values()[Math.floorMod(name.hashCode(), Category.values().length)])
+                .build();
+    }
+}
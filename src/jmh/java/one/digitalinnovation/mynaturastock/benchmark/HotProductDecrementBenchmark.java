@@ -0,0 +1,104 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.metrics.ProductServiceMetricsAspect;
+import one.digitalinnovation.mynaturastock.service.DecrementCoalescer;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrements a single product from many threads, one by one or through the {@link DecrementCoalescer}. The score is
+ * the number of decrements answered per second; the number of writes to the product row per second is printed after
+ * each iteration, from the decrement calls recorded on {@link ProductService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class HotProductDecrementBenchmark {
+
+    private static final int INITIAL_QUANTITY = Integer.MAX_VALUE / 2;
+
+    @Param({"false", "true"})
+    private boolean coalesce;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private DecrementCoalescer decrementCoalescer;
+
+    private MeterRegistry meterRegistry;
+
+    private Long productId;
+
+    private long iterationStartNanos;
+
+    private long iterationStartWrites;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start(
+                "mynaturastock.decrements.coalesce=" + coalesce,
+                "mynaturastock.events.enabled=false");
+        productService = context.getBean(ProductService.class);
+        decrementCoalescer = context.getBeanProvider(DecrementCoalescer.class).getIfAvailable();
+        meterRegistry = context.getBean(MeterRegistry.class);
+        productId = productService.createProduct(BenchmarkApplication.product("Hot product", INITIAL_QUANTITY)).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStartNanos = System.nanoTime();
+        iterationStartWrites = writes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        double seconds = (System.nanoTime() - iterationStartNanos) / 1e9;
+        System.out.printf(" [%.0f writes/s]", (writes() - iterationStartWrites) / seconds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO decrement() throws Exception {
+        if (coalesce) {
+            return decrementCoalescer.decrement(productId, 1).get();
+        }
+        return productService.decrement(productId, 1);
+    }
+
+    private long writes() {
+        return meterRegistry.find(ProductServiceMetricsAspect.TIMER_NAME)
+                .tag("method", "decrement")
+                .timers()
+                .stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
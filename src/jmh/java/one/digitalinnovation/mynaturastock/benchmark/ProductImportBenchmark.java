@@ -0,0 +1,102 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import one.digitalinnovation.mynaturastock.service.ProductImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a catalogue of a million products into an empty table, from CSV or NDJSON, and reports the time of the whole
+ * import. The table is emptied after each import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductImportBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+
+    @Param({"CSV", "NDJSON"})
+    private ProductImportFormat format;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductImportService productImportService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private byte[] catalogue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("mynaturastock.events.enabled=false");
+        productImportService = context.getBean(ProductImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        catalogue = catalogue(format);
+    }
+
+    @TearDown(Level.Iteration)
+    public void emptyTable() {
+        jdbcTemplate.update("DELETE FROM product");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductImportResultDTO importCatalogue() throws Exception {
+        ProductImportResultDTO result = productImportService.importProducts(new ByteArrayInputStream(catalogue), format);
+        if (result.getImported() != PRODUCTS) {
+            throw new IllegalStateException("Imported " + result.getImported() + " products: " + result.getErrors());
+        }
+        return result;
+    }
+
+    private static byte[] catalogue(ProductImportFormat format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(PRODUCTS * 64);
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            if (format == ProductImportFormat.CSV) {
+                writer.write("name,min,quantity,type\n");
+            }
+            Category[] categories = Category.values();
+            for (int i = 0; i < PRODUCTS; i++) {
+                String name = "Produto " + i;
+                int min = i % 10;
+                int quantity = 10 + i % 90;
+                Category type = categories[i % categories.length];
+                writer.write(format == ProductImportFormat.CSV
+                        ? String.format("%s,%d,%d,%s%n", name, min, quantity, type)
+                        : String.format("{\"name\":\"%s\",\"min\":%d,\"quantity\":%d,\"type\":\"%s\"}%n", name, min, quantity, type));
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up products by category and at or below their min in catalogues of different sizes. The number of matching
+ * products is the same for every catalogue size, so with the indexes in place the scores should not depend on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductIndexBenchmark {
+
+    private static final int MATCHING_PRODUCTS = 100;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final Category[] OTHER_CATEGORIES = {Category.PERFUMARIA, Category.PELE, Category.BANHO, Category.ROSTO};
+
+    @Param({"10000", "1000000"})
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        productService = context.getBean(ProductService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < catalogueSize; i++) {
+            boolean matching = i % (catalogueSize / MATCHING_PRODUCTS) == 0;
+            Category type = matching ? Category.CABELOS : OTHER_CATEGORIES[i % OTHER_CATEGORIES.length];
+            int quantity = matching ? 5 : 100;
+            rows.add(new Object[]{"Benchmark " + i, 10, quantity, type.name()});
+            if (rows.size() == INSERT_BATCH_SIZE || i == catalogueSize - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO product (name, min, quantity, type, version) VALUES (?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> listByCategory() {
+        return productService.listByCategory(Category.CABELOS);
+    }
+
+    @Benchmark
+    public List<ProductDTO> listAtOrBelowMin() {
+        return productService.listAtOrBelowMin();
+    }
+}
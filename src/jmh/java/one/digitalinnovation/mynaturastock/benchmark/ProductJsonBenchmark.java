@@ -0,0 +1,65 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialises products with an {@link ObjectMapper} configured the way Spring MVC configures the one behind the
+ * REST endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"100", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private ProductDTO product;
+
+    private List<ProductDTO> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        products = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            ProductDTO productDTO = BenchmarkApplication.product("Benchmark " + i, 50);
+            productDTO.setId((long) i + 1);
+            products.add(productDTO);
+        }
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeProductList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,66 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the latency distribution (p50, p99, p99.9) of {@link ProductService#findByName(String)} with and without
+ * the products-by-name cache, under concurrent readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    @Param({"caffeine", "none"})
+    private String cacheType;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private List<ProductDTO> products;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start("spring.cache.type=" + cacheType);
+        productService = context.getBean(ProductService.class);
+        products = BenchmarkApplication.createProducts(productService, PRODUCTS, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO findByName() throws ProductNotFoundException {
+        return productService.findByName(products.get(ThreadLocalRandom.current().nextInt(PRODUCTS)).getName());
+    }
+}
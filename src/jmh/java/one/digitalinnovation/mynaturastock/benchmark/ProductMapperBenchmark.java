@@ -0,0 +1,42 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private final Product product = new Product(1L, "Homem", 2, 12, Category.PERFUMARIA, 3L);
+
+    private final ProductDTO productDTO = productMapper.toDTO(product);
+
+    @Benchmark
+    public ProductDTO toDTO() {
+        return productMapper.toDTO(product);
+    }
+
+    @Benchmark
+    public Product toModel() {
+        return productMapper.toModel(productDTO);
+    }
+}
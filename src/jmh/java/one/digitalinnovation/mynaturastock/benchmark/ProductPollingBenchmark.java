@@ -0,0 +1,147 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clients polling the catalogue and single products that did not change, sending back the ETag of their previous
+ * response ({@code conditional}) or not. Besides the requests per second, it counts the response body bytes and the
+ * CPU time of the process per second, client included, from which the bandwidth and CPU per request follow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ProductPollingBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    @Param({"false", "true"})
+    private boolean conditional;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String productsUrl;
+
+    private List<ProductDTO> products;
+
+    private String[] productETags;
+
+    private String catalogueETag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.startWebServer();
+        products = BenchmarkApplication.createProducts(context.getBean(ProductService.class), PRODUCTS, 100);
+        productsUrl = "http://localhost:" + BenchmarkApplication.port(context) + "/api/v1/products";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        productETags = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            productETags[i] = send(productRequest(i), null).headers().firstValue("ETag").orElseThrow();
+        }
+        catalogueETag = send(URI.create(productsUrl), null).headers().firstValue("ETag").orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int pollCatalogue(Traffic traffic) throws IOException, InterruptedException {
+        return traffic.count(send(URI.create(productsUrl), catalogueETag));
+    }
+
+    @Benchmark
+    public int pollProduct(Traffic traffic) throws IOException, InterruptedException {
+        int product = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        return traffic.count(send(productRequest(product), productETags[product]));
+    }
+
+    private URI productRequest(int product) {
+        return URI.create(productsUrl + "/" + products.get(product).getName().replace(" ", "%20"));
+    }
+
+    private HttpResponse<byte[]> send(URI uri, String eTag) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET();
+        if (conditional && eTag != null) {
+            request.header("If-None-Match", eTag);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Traffic {
+
+        private static final OperatingSystemMXBean OPERATING_SYSTEM =
+                (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        public long bodyBytes;
+
+        public long notModified;
+
+        public long cpuMicros;
+
+        private long iterationCpuTime;
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            bodyBytes = 0;
+            notModified = 0;
+            cpuMicros = 0;
+            iterationCpuTime = OPERATING_SYSTEM.getProcessCpuTime();
+        }
+
+        /**
+         * Every thread measures the CPU time of the whole process, so the count is shared among them to be summed
+         * back by JMH.
+         */
+        @TearDown(Level.Iteration)
+        public void endIteration() {
+            cpuMicros = (OPERATING_SYSTEM.getProcessCpuTime() - iterationCpuTime) / 1000 / 16;
+        }
+
+        private int count(HttpResponse<byte[]> response) {
+            bodyBytes += response.body().length;
+            if (response.statusCode() == 304) {
+                notModified++;
+            }
+            return response.statusCode();
+        }
+    }
+}
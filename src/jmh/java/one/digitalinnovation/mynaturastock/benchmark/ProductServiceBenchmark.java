@@ -0,0 +1,88 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ProductService} against H2 with each stock engine: {@code database} writes every change to the
+ * product row, {@code ledger} applies it in memory and appends it to the write-ahead log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final int INITIAL_QUANTITY = Integer.MAX_VALUE / 2;
+
+    @Param({"database", "ledger"})
+    private String stockMode;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private List<ProductDTO> products;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start(
+                "mynaturastock.stock.mode=" + stockMode,
+                "mynaturastock.stock.ledger.directory=" + Files.createTempDirectory("ledger"));
+        productService = context.getBean(ProductService.class);
+        products = BenchmarkApplication.createProducts(productService, PRODUCTS, INITIAL_QUANTITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO increment() throws ProductNotFoundException {
+        return productService.increment(randomProduct().getId(), 1);
+    }
+
+    @Benchmark
+    public ProductDTO decrement() throws ProductNotFoundException, ProductStockExceededException {
+        return productService.decrement(randomProduct().getId(), 1);
+    }
+
+    @Benchmark
+    public ProductDTO findByName() throws ProductNotFoundException {
+        return productService.findByName(randomProduct().getName());
+    }
+
+    @Benchmark
+    public List<ProductDTO> listAll() {
+        return productService.listAll();
+    }
+
+    private ProductDTO randomProduct() {
+        return products.get(ThreadLocalRandom.current().nextInt(PRODUCTS));
+    }
+}
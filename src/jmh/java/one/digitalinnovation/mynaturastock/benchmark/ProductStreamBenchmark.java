@@ -0,0 +1,124 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.SlowConsumerPolicy;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.service.ProductChangeBroadcaster;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cost of publishing a product change to the {@link ProductChangeBroadcaster} on the write path, with no subscriber and
+ * with ten thousand, each following one category. The subscribers only count what they are sent; how many events
+ * they got per second is printed after each iteration. Writers publish far faster than the dispatchers can fan out
+ * here, so subscribers keep falling behind and catching up from snapshots, of an empty catalogue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ProductStreamBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    @Param({"0", "10000"})
+    private int subscribers;
+
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    private ProductChangedEvent[] changes;
+
+    private final LongAdder sent = new LongAdder();
+
+    private long iterationStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productChangeBroadcaster = new ProductChangeBroadcaster(new EmptyCatalogue(), new ObjectMapper().writer(), 65_536, 2,
+                8, 1024, Duration.ofMillis(1), SlowConsumerPolicy.SNAPSHOT);
+        Category[] categories = Category.values();
+        for (int i = 0; i < subscribers; i++) {
+            productChangeBroadcaster.subscribe(new CountingEmitter(sent),
+                    ProductChangeBroadcaster.filter(categories[i % categories.length], null), null);
+        }
+        changes = new ProductChangedEvent[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductDTO product = BenchmarkApplication.product("Benchmark " + i, 50);
+            product.setId((long) i + 1);
+            changes[i] = new ProductChangedEvent(ProductChangeType.DECREMENTED, product, -1);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        sent.reset();
+        iterationStart = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        System.out.printf(" [%.0f events sent/s, %d subscribers]", sent.sum() / seconds, productChangeBroadcaster.subscriberCount());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        productChangeBroadcaster.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        productChangeBroadcaster.onProductChanged(changes[ThreadLocalRandom.current().nextInt(PRODUCTS)]);
+    }
+
+    private static final class EmptyCatalogue extends ProductService {
+
+        private EmptyCatalogue() {
+            super(null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public void streamAll(Consumer<ProductDTO> productConsumer) {
+        }
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+
+        private final LongAdder sent;
+
+        private CountingEmitter(LongAdder sent) {
+            this.sent = sent;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.increment();
+        }
+    }
+}
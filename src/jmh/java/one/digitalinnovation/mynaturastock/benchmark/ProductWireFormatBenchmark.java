@@ -0,0 +1,78 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.mapper.ProductCborModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a list of products as JSON, as CBOR with Jackson's default bean serializer and as CBOR with the
+ * {@link ProductCborModule} the REST endpoints use, and reads it back. The payload size of each format is printed
+ * before the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductWireFormatBenchmark {
+
+    @Param({"json", "cbor-bean", "cbor"})
+    private String format;
+
+    @Param({"1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<ProductDTO> products;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        if ("json".equals(format)) {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        } else if ("cbor-bean".equals(format)) {
+            objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        } else {
+            objectMapper = Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new ProductCborModule()).build();
+        }
+        products = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            ProductDTO productDTO = BenchmarkApplication.product("Benchmark " + i, 50);
+            productDTO.setId((long) i + 1);
+            products.add(productDTO);
+        }
+        payload = writeProductList();
+        System.out.printf(" [%d bytes]", payload.length);
+    }
+
+    @Benchmark
+    public byte[] writeProductList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<ProductDTO> readProductList() throws IOException {
+        return objectMapper.readerForListOf(ProductDTO.class).readValue(payload);
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.controller.RateLimitInterceptor;
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import one.digitalinnovation.mynaturastock.service.LoadShedder;
+import one.digitalinnovation.mynaturastock.service.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the {@link RateLimitInterceptor} adds to each products API request from a single client, with the limits never
+ * reached, taking a token from the bucket of the client alone or from the bucket of its address as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class RateLimitInterceptorBenchmark {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    @Param({"false", "true"})
+    private boolean addressLimits;
+
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        RateLimiter rateLimiter = new RateLimiter(Clock.systemUTC(), 100)
+                .limit(EndpointClass.READ, Integer.MAX_VALUE, 1e9);
+        if (addressLimits) {
+            rateLimiter.limitAddresses(EndpointClass.READ, Integer.MAX_VALUE, 1e9);
+        }
+        rateLimitInterceptor = new RateLimitInterceptor(rateLimiter, new LoadShedder(Duration.ofMillis(500), 0.9),
+                API_KEY_HEADER);
+        request = new MockHttpServletRequest("GET", "/api/v1/products/by-category/ROSTO");
+        request.addHeader(API_KEY_HEADER, "integration-a");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        return rateLimitInterceptor.preHandle(request, response, this);
+    }
+}
@@ -0,0 +1,103 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the REST layer: 64 concurrent clients against a Tomcat limited to 16 threads, with product requests
+ * run on the servlet threads ({@code blocking}) or on the bounded request pool ({@code async}), side by side with the
+ * WebFlux and R2DBC variant on Netty ({@code reactive}). The score includes the 503 responses of requests rejected by
+ * the pool, which are returned as fast as the server can answer them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final String REACTIVE_MODE = "reactive";
+
+    @Param({"blocking", "async", "reactive"})
+    private String requestMode;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String productsUrl;
+
+    private List<ProductDTO> products;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (REACTIVE_MODE.equals(requestMode)) {
+            context = BenchmarkApplication.startReactiveWebServer("spring.cache.type=none");
+        } else {
+            context = BenchmarkApplication.startWebServer(
+                    "mynaturastock.requests.mode=" + requestMode,
+                    "server.tomcat.threads.max=16",
+                    "spring.cache.type=none");
+        }
+        products = BenchmarkApplication.createProducts(context.getBean(ProductService.class), PRODUCTS, Integer.MAX_VALUE / 2);
+        productsUrl = "http://localhost:" + BenchmarkApplication.port(context) + "/api/v1/products/";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByName() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(productsUrl + randomProduct().getName().replace(" ", "%20")))
+                .GET()
+                .build());
+    }
+
+    @Benchmark
+    public int decrement() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(productsUrl + randomProduct().getId() + "/decrement"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                .build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private ProductDTO randomProduct() {
+        return products.get(ThreadLocalRandom.current().nextInt(PRODUCTS));
+    }
+}
@@ -0,0 +1,91 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.service.StockHistoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.SortedMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends stock movement events to the memory-mapped event log and rebuilds the stock from it. The rebuild replays
+ * the whole log from the startup snapshot, so its score is the replay throughput in events per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StockHistoryBenchmark {
+
+    private static final int PRODUCTS = 1000;
+    private static final int REPLAYED_EVENTS = 1_000_000;
+
+    private Path eventsDirectory;
+
+    private ConfigurableApplicationContext context;
+
+    private StockHistoryService stockHistoryService;
+
+    private Instant replayUntil;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        eventsDirectory = Files.createTempDirectory("stock-events");
+        context = BenchmarkApplication.start(
+                "mynaturastock.events.directory=" + eventsDirectory,
+                "mynaturastock.events.snapshot-interval-ms=" + Long.MAX_VALUE);
+        stockHistoryService = context.getBean(StockHistoryService.class);
+        for (int i = 0; i < REPLAYED_EVENTS; i++) {
+            stockHistoryService.onProductChanged(randomEvent());
+        }
+        replayUntil = Instant.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(eventsDirectory);
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        stockHistoryService.onProductChanged(randomEvent());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPLAYED_EVENTS)
+    public SortedMap<Long, Integer> replay() throws IOException {
+        return stockHistoryService.stockAt(replayUntil);
+    }
+
+    private static ProductChangedEvent randomEvent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ProductDTO product = ProductDTO.builder().id((long) random.nextInt(PRODUCTS)).build();
+        return random.nextBoolean()
+                ? new ProductChangedEvent(ProductChangeType.INCREMENTED, product, 1)
+                : new ProductChangedEvent(ProductChangeType.DECREMENTED, product, -1);
+    }
+}
@@ -0,0 +1,80 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.StockMovementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the same wave of stock movements one call at a time and as one bulk call. Scores are movements per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockMovementBenchmark {
+
+    private static final int MOVEMENTS = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private StockMovementService stockMovementService;
+
+    private List<StockMovementDTO> movements;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        productService = context.getBean(ProductService.class);
+        stockMovementService = context.getBean(StockMovementService.class);
+        List<ProductDTO> products = BenchmarkApplication.createProducts(productService, MOVEMENTS, Integer.MAX_VALUE / 2);
+        movements = new ArrayList<>(MOVEMENTS);
+        for (ProductDTO product : products) {
+            movements.add(StockMovementDTO.builder().id(product.getId()).delta(1).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVEMENTS)
+    public void singleCalls(Blackhole blackhole) throws ProductNotFoundException {
+        for (StockMovementDTO movement : movements) {
+            blackhole.consume(productService.increment(movement.getId(), movement.getDelta()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVEMENTS)
+    public List<StockMovementResultDTO> bulkCall() {
+        return stockMovementService.applyAll(movements);
+    }
+}
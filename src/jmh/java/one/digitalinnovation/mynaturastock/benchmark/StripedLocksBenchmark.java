@@ -0,0 +1,86 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.service.StripedLocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Contention on {@link StripedLocks} when many threads change products, with ids drawn uniformly or from a Zipfian
+ * distribution where a few products take most of the changes. The work done under the lock stands for a stock change;
+ * a single stripe is the same as one global lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class StripedLocksBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int SAMPLES = 1 << 20;
+    private static final double ZIPFIAN_EXPONENT = 0.99;
+    private static final long WORK_TOKENS = 50;
+
+    @Param({"1", "64", "1024"})
+    private int stripes;
+
+    @Param({"uniform", "zipfian"})
+    private String distribution;
+
+    private StripedLocks stripedLocks;
+
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        stripedLocks = new StripedLocks(stripes);
+        Random random = new Random(42);
+        ids = new long[SAMPLES];
+        if ("uniform".equals(distribution)) {
+            for (int i = 0; i < SAMPLES; i++) {
+                ids[i] = 1 + random.nextInt(PRODUCTS);
+            }
+            return;
+        }
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int rank = 0; rank < PRODUCTS; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPFIAN_EXPONENT);
+            cumulative[rank] = sum;
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ids[i] = 1 + (rank < 0 ? -rank - 1 : rank);
+        }
+    }
+
+    @Benchmark
+    public void change() {
+        Lock lock = stripedLocks.forId(ids[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+        lock.lock();
+        try {
+            Blackhole.consumeCPU(WORK_TOKENS);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
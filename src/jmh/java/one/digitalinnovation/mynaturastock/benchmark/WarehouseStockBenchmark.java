@@ -0,0 +1,69 @@
+package one.digitalinnovation.mynaturastock.benchmark;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.WarehouseStockEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrements a single hot product from many threads straight through the {@link WarehouseStockEngine}, without the
+ * product lock of {@link ProductService}, as several instances sharing the database would. With one slot every
+ * decrement waits on the same row; with more, concurrent decrements mostly land on different rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WarehouseStockBenchmark {
+
+    private static final int INITIAL_QUANTITY = Integer.MAX_VALUE / 2;
+
+    @Param({"1", "16"})
+    private int slots;
+
+    private ConfigurableApplicationContext context;
+
+    private WarehouseStockEngine warehouseStockEngine;
+
+    private Long productId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start(
+                "mynaturastock.stock.mode=warehouse",
+                "mynaturastock.stock.warehouses.slots=" + slots,
+                "mynaturastock.events.enabled=false");
+        warehouseStockEngine = context.getBean(WarehouseStockEngine.class);
+        productId = context.getBean(ProductService.class)
+                .createProduct(BenchmarkApplication.product("Hot product", INITIAL_QUANTITY)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product decrement() throws Exception {
+        return warehouseStockEngine.decrement(productId, 1);
+    }
+}
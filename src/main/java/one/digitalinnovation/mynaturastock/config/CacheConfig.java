@@ -0,0 +1,11 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS_BY_NAME_CACHE = "productsByName";
+}
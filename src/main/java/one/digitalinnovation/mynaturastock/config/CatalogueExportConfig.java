@@ -0,0 +1,24 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(CatalogueExportProperties.class)
+@ConditionalOnProperty(prefix = CatalogueExportConfig.EXPORT_PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogueExportConfig {
+
+    public static final String EXPORT_PREFIX = "mynaturastock.export";
+
+    @Bean
+    public CatalogueExportService catalogueExportService(ProductService productService,
+                                                         CatalogueExportProperties catalogueExportProperties) {
+        return new CatalogueExportService(productService, Paths.get(catalogueExportProperties.getDirectory()));
+    }
+}
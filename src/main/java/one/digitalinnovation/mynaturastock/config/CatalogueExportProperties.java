@@ -0,0 +1,21 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.export")
+public class CatalogueExportProperties {
+
+    /**
+     * Whether the catalogue is exported to files in the background and served from them.
+     */
+    private boolean enabled = true;
+
+    private String directory = "data/exports";
+
+    /**
+     * How long to wait after an export before the next one; no export is written while no product changes.
+     */
+    private long intervalMs = 300_000;
+}
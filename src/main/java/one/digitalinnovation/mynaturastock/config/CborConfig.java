@@ -0,0 +1,22 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import one.digitalinnovation.mynaturastock.mapper.ProductCborModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves the REST endpoints as CBOR too, to clients asking for {@code application/cbor}, with products encoded by the
+ * {@link ProductCborModule}. JSON stays the default and is not affected.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(new ProductCborModule())
+                .build());
+    }
+}
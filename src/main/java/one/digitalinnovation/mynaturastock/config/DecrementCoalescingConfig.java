@@ -0,0 +1,36 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.service.DecrementCoalescer;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.StockEngine;
+import one.digitalinnovation.mynaturastock.service.StockHolds;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DecrementCoalescingProperties.class)
+public class DecrementCoalescingConfig {
+
+    public static final String COALESCED_WRITES_COUNTER = "product.decrements.coalesced.writes";
+    public static final String COALESCED_PENDING_GAUGE = "product.decrements.coalesced.pending";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mynaturastock.decrements", name = "coalesce", havingValue = "true")
+    public DecrementCoalescer decrementCoalescer(ProductService productService, ProductRepository productRepository,
+                                                 StockEngine stockEngine, StockHolds stockHolds,
+                                                 DecrementCoalescingProperties decrementCoalescingProperties,
+                                                 MeterRegistry meterRegistry) {
+        DecrementCoalescer decrementCoalescer = new DecrementCoalescer(productService, productRepository, stockEngine, stockHolds,
+                decrementCoalescingProperties.getWindow(), decrementCoalescingProperties.getMaxBatch(),
+                decrementCoalescingProperties.getMaxPending(), decrementCoalescingProperties.getFlushThreads());
+        FunctionCounter.builder(COALESCED_WRITES_COUNTER, decrementCoalescer, DecrementCoalescer::writeCount)
+                .register(meterRegistry);
+        meterRegistry.gauge(COALESCED_PENDING_GAUGE, decrementCoalescer, DecrementCoalescer::pendingCount);
+        return decrementCoalescer;
+    }
+}
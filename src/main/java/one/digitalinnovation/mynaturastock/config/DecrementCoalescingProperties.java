@@ -0,0 +1,33 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.decrements")
+public class DecrementCoalescingProperties {
+
+    /**
+     * Whether decrements of the same product are collected and written together instead of one by one.
+     */
+    private boolean coalesce = false;
+
+    /**
+     * How long the first decrement of a batch waits for others before the batch is written.
+     */
+    private Duration window = Duration.ofMillis(2);
+
+    /**
+     * How many decrements make a batch full; a full batch is written without waiting for the window to end.
+     */
+    private int maxBatch = 64;
+
+    /**
+     * How many decrements may wait to be written; past it, new decrements are refused with 503.
+     */
+    private int maxPending = 10_000;
+
+    private int flushThreads = 4;
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.mapper.ProductCborModule;
+import one.digitalinnovation.mynaturastock.repository.IdempotencyRecordRepository;
+import one.digitalinnovation.mynaturastock.service.IdempotencyStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    public static final String IDEMPOTENCY_KEYS_GAUGE = "product.idempotency.keys";
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                                             TransactionTemplate transactionTemplate, IdempotencyProperties idempotencyProperties,
+                                             MeterRegistry meterRegistry) {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(
+                Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new ProductCborModule()).build(),
+                idempotencyProperties.isPersistent() ? idempotencyRecordRepository : null,
+                transactionTemplate, Clock.systemUTC(), idempotencyProperties.getTtl(), idempotencyProperties.getBuckets(),
+                idempotencyProperties.getMaxKeys());
+        meterRegistry.gauge(IDEMPOTENCY_KEYS_GAUGE, idempotencyStore, IdempotencyStore::size);
+        return idempotencyStore;
+    }
+}
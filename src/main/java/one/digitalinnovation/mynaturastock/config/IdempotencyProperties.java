@@ -0,0 +1,34 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a key is remembered after its first request.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How many time buckets the ttl is split into; keys are evicted one bucket at a time.
+     */
+    private int buckets = 24;
+
+    /**
+     * How many keys are held at most, see {@link one.digitalinnovation.mynaturastock.service.IdempotencyStore} for
+     * their heap cost; past it the oldest buckets are dropped before their ttl.
+     */
+    private int maxKeys = 1_000_000;
+
+    /**
+     * Whether keys are also stored in the database, so that retries are still recognised after a restart.
+     */
+    private boolean persistent = false;
+
+    private long evictionIntervalMs = 60_000;
+}
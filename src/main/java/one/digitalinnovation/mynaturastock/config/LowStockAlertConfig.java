@@ -0,0 +1,53 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.service.FileLowStockAlertSink;
+import one.digitalinnovation.mynaturastock.service.LowStockAlertSink;
+import one.digitalinnovation.mynaturastock.service.LowStockTracker;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.SseLowStockAlertSink;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.stream.Collectors;
+
+/**
+ * Wires the {@link LowStockTracker} to its sinks: alerts are always published as application events for in-process
+ * listeners and pushed to the Server-Sent Events subscribers, and appended to a file when one is configured. Any other
+ * {@link LowStockAlertSink} bean receives them as well.
+ */
+@Configuration
+@EnableConfigurationProperties(LowStockAlertProperties.class)
+public class LowStockAlertConfig {
+
+    public static final String ALERTS_PREFIX = "mynaturastock.alerts";
+
+    @Bean
+    public LowStockTracker lowStockTracker(ProductService productService, ObjectProvider<LowStockAlertSink> sinks) {
+        return new LowStockTracker(productService, sinks.orderedStream().collect(Collectors.toList()), Clock.systemUTC());
+    }
+
+    @Bean
+    public LowStockAlertSink applicationEventLowStockAlertSink(ApplicationEventPublisher eventPublisher) {
+        return eventPublisher::publishEvent;
+    }
+
+    @Bean
+    public SseLowStockAlertSink sseLowStockAlertSink(LowStockAlertProperties lowStockAlertProperties) {
+        return new SseLowStockAlertSink(lowStockAlertProperties.getSseTimeoutMs());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = ALERTS_PREFIX, name = "file")
+    public FileLowStockAlertSink fileLowStockAlertSink(LowStockAlertProperties lowStockAlertProperties,
+                                                       ObjectMapper objectMapper) throws IOException {
+        return new FileLowStockAlertSink(Paths.get(lowStockAlertProperties.getFile()), objectMapper.writer());
+    }
+}
@@ -0,0 +1,19 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.alerts")
+public class LowStockAlertProperties {
+
+    /**
+     * File the low stock alerts are appended to as newline delimited JSON; no file is written when it is not set.
+     */
+    private String file;
+
+    /**
+     * How long a Server-Sent Events subscription to the alerts stays open before the client has to reconnect.
+     */
+    private long sseTimeoutMs = 1_800_000;
+}
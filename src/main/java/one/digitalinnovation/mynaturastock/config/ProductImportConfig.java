@@ -0,0 +1,36 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.service.ProductImportRunner;
+import one.digitalinnovation.mynaturastock.service.ProductImportService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(ProductImportProperties.class)
+public class ProductImportConfig {
+
+    @Bean
+    public ProductImportService productImportService(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                                                     Validator validator, ObjectMapper objectMapper,
+                                                     ApplicationEventPublisher eventPublisher,
+                                                     ProductImportProperties productImportProperties) {
+        return new ProductImportService(productRepository, transactionTemplate, validator, objectMapper, eventPublisher,
+                productImportProperties.getBatchSize(), productImportProperties.getMaxErrors());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mynaturastock.import", name = "file")
+    public ProductImportRunner productImportRunner(ProductImportService productImportService,
+                                                   ProductImportProperties productImportProperties) {
+        return new ProductImportRunner(productImportService, Paths.get(productImportProperties.getFile()));
+    }
+}
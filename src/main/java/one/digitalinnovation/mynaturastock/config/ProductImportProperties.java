@@ -0,0 +1,24 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.import")
+public class ProductImportProperties {
+
+    /**
+     * How many products are inserted per JDBC batch, each batch in its own transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * How many rejected lines are described in the import result; the others are only counted.
+     */
+    private int maxErrors = 100;
+
+    /**
+     * A .csv or .ndjson file to import on startup, for imports run from the command line.
+     */
+    private String file;
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.service.ProductChangeBroadcaster;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProductStreamProperties.class)
+public class ProductStreamConfig {
+
+    public static final String STREAM_SUBSCRIBERS_GAUGE = "product.stream.subscribers";
+
+    @Bean
+    public ProductChangeBroadcaster productChangeBroadcaster(ProductService productService, ObjectMapper objectMapper,
+                                                             ProductStreamProperties productStreamProperties,
+                                                             MeterRegistry meterRegistry) {
+        ProductChangeBroadcaster productChangeBroadcaster = new ProductChangeBroadcaster(productService, objectMapper.writer(),
+                productStreamProperties.getRingCapacity(), productStreamProperties.getDispatchThreads(),
+                productStreamProperties.getSendThreads(), productStreamProperties.getOutboxCapacity(),
+                productStreamProperties.getIdlePark(), productStreamProperties.getSlowConsumerPolicy());
+        meterRegistry.gauge(STREAM_SUBSCRIBERS_GAUGE, productChangeBroadcaster, ProductChangeBroadcaster::subscriberCount);
+        return productChangeBroadcaster;
+    }
+}
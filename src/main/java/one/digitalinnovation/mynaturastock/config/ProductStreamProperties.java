@@ -0,0 +1,44 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import one.digitalinnovation.mynaturastock.enums.SlowConsumerPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.stream")
+public class ProductStreamProperties {
+
+    /**
+     * How many of the latest product changes are kept for the subscribers to catch up with, a power of two.
+     */
+    private int ringCapacity = 65_536;
+
+    private int dispatchThreads = 2;
+
+    /**
+     * How many threads write the events to the subscribers; a client that stops reading holds one of them until its
+     * connection times out.
+     */
+    private int sendThreads = 8;
+
+    /**
+     * How many events may wait to be written to a subscriber; past that it stops following the ring until they are
+     * written or the ring laps it.
+     */
+    private int outboxCapacity = 1024;
+
+    /**
+     * How long a dispatcher with no subscriber behind waits before looking for new changes again, which bounds the
+     * delay between a change and its event.
+     */
+    private Duration idlePark = Duration.ofMillis(1);
+
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.SNAPSHOT;
+
+    /**
+     * How long a subscription stays open before the client has to reconnect.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
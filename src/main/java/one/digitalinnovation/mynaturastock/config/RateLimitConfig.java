@@ -0,0 +1,64 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.controller.RateLimitInterceptor;
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import one.digitalinnovation.mynaturastock.service.LoadShedder;
+import one.digitalinnovation.mynaturastock.service.RateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+
+/**
+ * Puts the rate limiter and the load shedder in front of the servlet products API.
+ */
+@Configuration
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@ConditionalOnProperty(prefix = "mynaturastock.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    public static final String RATE_LIMIT_CLIENTS_GAUGE = "product.rate-limit.clients";
+    public static final String SERVICE_LATENCY_GAUGE = "product.load-shedding.latency";
+
+    private static final String PRODUCTS_PATH = "/api/v1/products/**";
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        RateLimiter rateLimiter = new RateLimiter(Clock.systemUTC(), rateLimitProperties.getMaxClients())
+                .limit(EndpointClass.READ, rateLimitProperties.getReads().getCapacity(), rateLimitProperties.getReads().getPerSecond())
+                .limit(EndpointClass.MUTATION, rateLimitProperties.getMutations().getCapacity(), rateLimitProperties.getMutations().getPerSecond())
+                .limitAddresses(EndpointClass.READ, rateLimitProperties.getAddressReads().getCapacity(),
+                        rateLimitProperties.getAddressReads().getPerSecond())
+                .limitAddresses(EndpointClass.MUTATION, rateLimitProperties.getAddressMutations().getCapacity(),
+                        rateLimitProperties.getAddressMutations().getPerSecond());
+        meterRegistry.gauge(RATE_LIMIT_CLIENTS_GAUGE, rateLimiter, RateLimiter::size);
+        return rateLimiter;
+    }
+
+    @Bean
+    public LoadShedder loadShedder(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        LoadShedder loadShedder = new LoadShedder(rateLimitProperties.getLatencyTarget(), rateLimitProperties.getMaxShedRatio());
+        meterRegistry.gauge(SERVICE_LATENCY_GAUGE, loadShedder, LoadShedder::averageNanos);
+        return loadShedder;
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimiter rateLimiter, LoadShedder loadShedder,
+                                                      RateLimitProperties rateLimitProperties) {
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(rateLimiter, loadShedder,
+                rateLimitProperties.getApiKeyHeader());
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).addPathPatterns(PRODUCTS_PATH);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * The header clients identify themselves with; clients sending none are told apart by their address. The header
+     * is not authenticated, so the address limits also apply to every request.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    private Bucket reads = new Bucket(200, 100);
+
+    private Bucket mutations = new Bucket(100, 50);
+
+    /**
+     * The reads of all the clients behind one address, whatever API keys they send; high enough for the clients sharing
+     * an address, such as behind a NAT. The address is the one the container reports: behind a load balancer or an
+     * ingress it must come from X-Forwarded-For, which {@code server.forward-headers-strategy=native} takes only from
+     * the proxies in {@code server.tomcat.remoteip.internal-proxies}, otherwise every client shares the proxy's bucket.
+     */
+    private Bucket addressReads = new Bucket(2_000, 1_000);
+
+    /**
+     * The mutations of all the clients behind one address, whatever API keys they send.
+     */
+    private Bucket addressMutations = new Bucket(1_000, 500);
+
+    /**
+     * How many clients get a bucket of their own; past it, new clients are only limited by their address until idle
+     * buckets are evicted.
+     */
+    private int maxClients = 100_000;
+
+    private long evictionIntervalMs = 60_000;
+
+    /**
+     * The average latency of the product service over which requests start being shed with 503.
+     */
+    private Duration latencyTarget = Duration.ofMillis(500);
+
+    /**
+     * The largest share of requests shed while the service is over its latency target.
+     */
+    private double maxShedRatio = 0.9;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        /**
+         * How many requests a client can send at once after being idle.
+         */
+        private int capacity;
+
+        /**
+         * How many requests a client can send per second in the long run.
+         */
+        private double perSecond;
+    }
+}
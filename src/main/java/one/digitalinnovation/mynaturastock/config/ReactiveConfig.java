@@ -0,0 +1,79 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import one.digitalinnovation.mynaturastock.controller.ProductController;
+import one.digitalinnovation.mynaturastock.repository.ReactiveProductRepository;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.autoconfigure.r2dbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Beans of the reactive variant of the products API, enabled by the {@code reactive} profile.
+ */
+@Configuration
+@Profile(ReactiveConfig.REACTIVE_PROFILE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig {
+
+    public static final String REACTIVE_PROFILE = "reactive";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(ProductController.APPLICATION_NDJSON_VALUE);
+
+    /**
+     * The connection pool is kept out of the context: Spring Boot stops configuring the JDBC DataSource as soon as a
+     * {@code ConnectionFactory} bean exists, and JPA still creates the schema and feeds the stock metrics.
+     */
+    @Bean
+    public ReactiveProductRepository reactiveProductRepository(R2dbcProperties r2dbcProperties, StockProperties stockProperties) {
+        if (!"database".equals(stockProperties.getMode())) {
+            throw new IllegalStateException("The reactive profile changes stock in the database only, "
+                    + "mynaturastock.stock.mode must be database");
+        }
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        ConnectionPoolConfiguration poolConfiguration = ConnectionPoolConfiguration
+                .builder(ConnectionFactoryBuilder.of(r2dbcProperties, () -> EmbeddedDatabaseConnection.NONE).build())
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build();
+        return new ReactiveProductRepository(new ConnectionPool(poolConfiguration));
+    }
+
+    /**
+     * Tomcat is on the classpath for the servlet API and would otherwise be picked to run WebFlux too.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Lets {@code Flux} responses be written as newline delimited JSON, one product per line as it is read, and read
+     * back the same way by reactive clients.
+     */
+    @Bean
+    public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+        MediaType[] jsonMediaTypes = {MediaType.APPLICATION_JSON, new MediaType("application", "*+json"),
+                MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON};
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, jsonMediaTypes);
+        encoder.setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON));
+        Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(objectMapper, jsonMediaTypes);
+        return configurer -> {
+            configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+            configurer.defaultCodecs().jackson2JsonDecoder(decoder);
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.controller.ReadYourWritesInterceptor;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
+import one.digitalinnovation.mynaturastock.repository.ReplicationStub;
+import one.digitalinnovation.mynaturastock.service.ReadYourWritesTracker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+
+/**
+ * Splits the database between a primary and a read replica, see {@link ReplicaRoutingDataSource}. Spring Boot stops
+ * configuring the DataSource once one is defined here, so the primary is built from {@code spring.datasource} the way
+ * it would have been, and both pools take the {@code spring.datasource.hikari} settings.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mynaturastock.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfig {
+
+    public static final String READ_YOUR_WRITES_CLIENTS_GAUGE = "product.replica.read-your-writes.clients";
+
+    private static final String PRODUCTS_PATH = "/api/v1/products/**";
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+    private static final String REPLICA_POOL_NAME = "replica";
+
+    /**
+     * The pools are kept out of the context: Spring Boot initialises the main DataSource as soon as any DataSource
+     * bean is created, which would need this one while it is being made.
+     */
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                               Environment environment) {
+        HikariDataSource primaryDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(primaryDataSource));
+        HikariDataSource replicaDataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(replicaDataSource));
+        replicaDataSource.setPoolName(REPLICA_POOL_NAME);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, !replicaProperties.isLocalReplication());
+    }
+
+    /**
+     * Created once JPA has made the schema of the primary, which it copies; until its first copy the replica gets no
+     * reads.
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    @ConditionalOnProperty(prefix = "mynaturastock.replica", name = "local-replication", havingValue = "true")
+    public ReplicationStub replicationStub(ReplicaRoutingDataSource dataSource) {
+        return new ReplicationStub(dataSource);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties replicaProperties, MeterRegistry meterRegistry) {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Clock.systemUTC(), replicaProperties.getReadYourWritesWindow());
+        meterRegistry.gauge(READ_YOUR_WRITES_CLIENTS_GAUGE, tracker, ReadYourWritesTracker::size);
+        return tracker;
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesWebMvcConfigurer(ReadYourWritesTracker tracker, ReplicaProperties replicaProperties) {
+        ReadYourWritesInterceptor readYourWritesInterceptor = new ReadYourWritesInterceptor(tracker,
+                replicaProperties.getApiKeyHeader());
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(readYourWritesInterceptor).addPathPatterns(PRODUCTS_PATH);
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.replica")
+public class ReplicaProperties {
+
+    /**
+     * Whether the read-only transactions of the services go to the replica below; the primary is the one configured
+     * under {@code spring.datasource}.
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * How long the reads of a client go to the primary after it changed products; it should cover the replication
+     * delay.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * The header clients identify themselves with; clients sending none are told apart by their address.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * Whether the replica is an H2 database kept in step by copying the primary, for local runs without replication.
+     */
+    private boolean localReplication = false;
+
+    private long replicationIntervalMs = 1000;
+
+    private long evictionIntervalMs = 60_000;
+}
@@ -0,0 +1,46 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import one.digitalinnovation.mynaturastock.controller.ProductRequestExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(RequestExecutionProperties.class)
+public class RequestExecutionConfig {
+
+    private static final String REQUESTS_PREFIX = "mynaturastock.requests";
+
+    @Bean
+    @ConditionalOnProperty(prefix = REQUESTS_PREFIX, name = "mode", havingValue = "blocking", matchIfMissing = true)
+    public ProductRequestExecutor blockingProductRequestExecutor() {
+        return ProductRequestExecutor.blocking();
+    }
+
+    /**
+     * The pool is kept out of the context so it is not mistaken for the application task executor.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = REQUESTS_PREFIX, name = "mode", havingValue = "async")
+    public ProductRequestExecutor asyncProductRequestExecutor(RequestExecutionProperties requestExecutionProperties,
+                                                              MeterRegistry meterRegistry) {
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+                requestExecutionProperties.getPoolSize(),
+                requestExecutionProperties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(requestExecutionProperties.getQueueCapacity()),
+                new CustomizableThreadFactory("product-request-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(threadPool, "product.requests", Collections.emptyList()).bindTo(meterRegistry);
+        return new ProductRequestExecutor(threadPool);
+    }
+}
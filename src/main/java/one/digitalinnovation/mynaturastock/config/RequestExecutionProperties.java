@@ -0,0 +1,19 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.requests")
+public class RequestExecutionProperties {
+
+    /**
+     * Where product requests run: {@code blocking} runs them on the servlet thread, {@code async} hands them over to
+     * a bounded pool and frees the servlet thread while they wait.
+     */
+    private String mode = "blocking";
+
+    private int poolSize = 32;
+
+    private int queueCapacity = 1000;
+}
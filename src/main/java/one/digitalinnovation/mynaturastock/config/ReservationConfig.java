@@ -0,0 +1,29 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.StockHolds;
+import one.digitalinnovation.mynaturastock.service.StockReservationService;
+import one.digitalinnovation.mynaturastock.service.StripedLocks;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(ReservationProperties.class)
+public class ReservationConfig {
+
+    public static final String ACTIVE_RESERVATIONS_GAUGE = "product.reservations.active";
+
+    @Bean
+    public StockReservationService stockReservationService(ProductService productService, StockHolds stockHolds,
+                                                           StripedLocks stockLocks, ReservationProperties reservationProperties,
+                                                           MeterRegistry meterRegistry) {
+        StockReservationService stockReservationService = new StockReservationService(productService, stockHolds,
+                stockLocks, Clock.systemUTC(), reservationProperties.getMaxActive());
+        meterRegistry.gauge(ACTIVE_RESERVATIONS_GAUGE, stockReservationService, StockReservationService::activeCount);
+        return stockReservationService;
+    }
+}
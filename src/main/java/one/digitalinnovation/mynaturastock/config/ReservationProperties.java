@@ -0,0 +1,23 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.reservations")
+public class ReservationProperties {
+
+    /**
+     * How long a hold lasts when the client does not ask for a given time to live.
+     */
+    private Duration defaultTtl = Duration.ofMinutes(10);
+
+    private Duration maxTtl = Duration.ofHours(1);
+
+    /**
+     * How many holds may be active at the same time; new holds are refused beyond it.
+     */
+    private int maxActive = 100_000;
+}
@@ -0,0 +1,78 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import one.digitalinnovation.mynaturastock.entity.Warehouse;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.repository.WarehouseRepository;
+import one.digitalinnovation.mynaturastock.repository.WarehouseStockRepository;
+import one.digitalinnovation.mynaturastock.service.DatabaseStockEngine;
+import one.digitalinnovation.mynaturastock.service.LedgerStockEngine;
+import one.digitalinnovation.mynaturastock.service.StockEngine;
+import one.digitalinnovation.mynaturastock.service.StockHolds;
+import one.digitalinnovation.mynaturastock.service.StripedLocks;
+import one.digitalinnovation.mynaturastock.service.WarehouseStockEngine;
+import one.digitalinnovation.mynaturastock.service.WarehouseStockService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StockProperties.class)
+public class StockEngineConfig {
+
+    public static final String WAREHOUSE_MODE = "warehouse";
+
+    private static final String STOCK_PREFIX = "mynaturastock.stock";
+
+    @Bean
+    public StripedLocks stockLocks(StockProperties stockProperties) {
+        return new StripedLocks(stockProperties.getLockStripes());
+    }
+
+    @Bean
+    public StockHolds stockHolds(ProductRepository productRepository, StockEngine stockEngine, StripedLocks stockLocks) {
+        return new StockHolds(productRepository, stockEngine, stockLocks);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = STOCK_PREFIX, name = "mode", havingValue = "database", matchIfMissing = true)
+    public StockEngine databaseStockEngine(ProductRepository productRepository) {
+        return new DatabaseStockEngine(productRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = STOCK_PREFIX, name = "mode", havingValue = "ledger")
+    public LedgerStockEngine ledgerStockEngine(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                                               StockProperties stockProperties) {
+        StockProperties.Ledger ledger = stockProperties.getLedger();
+        return new LedgerStockEngine(productRepository, transactionTemplate, Paths.get(ledger.getDirectory()), ledger.isFsync());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = STOCK_PREFIX, name = "mode", havingValue = WAREHOUSE_MODE)
+    public WarehouseStockEngine warehouseStockEngine(ProductRepository productRepository, WarehouseRepository warehouseRepository,
+                                                     WarehouseStockRepository warehouseStockRepository,
+                                                     TransactionTemplate transactionTemplate, StockProperties stockProperties) {
+        StockProperties.Warehouses warehouses = stockProperties.getWarehouses();
+        List<Warehouse> configuredWarehouses = warehouses.getLocations().stream()
+                .map(location -> new Warehouse(null, location.getCode(), location.getName(), location.getLatitude(), location.getLongitude()))
+                .collect(Collectors.toList());
+        return new WarehouseStockEngine(productRepository, warehouseRepository, warehouseStockRepository, transactionTemplate,
+                configuredWarehouses, warehouses.getSlots());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = STOCK_PREFIX, name = "mode", havingValue = WAREHOUSE_MODE)
+    public WarehouseStockService warehouseStockService(WarehouseStockEngine warehouseStockEngine, StripedLocks stockLocks,
+                                                       StockHolds stockHolds, ApplicationEventPublisher eventPublisher) {
+        return new WarehouseStockService(warehouseStockEngine, stockLocks, stockHolds, eventPublisher);
+    }
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.service.StockHistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(StockHistoryProperties.class)
+@ConditionalOnProperty(prefix = StockHistoryConfig.EVENTS_PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StockHistoryConfig {
+
+    public static final String EVENTS_PREFIX = "mynaturastock.events";
+
+    private static final int RECORD_SIZE = 24;
+
+    @Bean
+    public StockHistoryService stockHistoryService(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                                                   StockHistoryProperties stockHistoryProperties) {
+        int segmentRecords = (int) Math.min(stockHistoryProperties.getSegmentSize().toBytes() / RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE);
+        return new StockHistoryService(productRepository, transactionTemplate, Paths.get(stockHistoryProperties.getDirectory()),
+                segmentRecords, stockHistoryProperties.getRetainedSnapshots(), stockHistoryProperties.getThinnedSnapshotInterval(),
+                stockHistoryProperties.getRetainedThinnedSnapshots(), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,39 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.events")
+public class StockHistoryProperties {
+
+    /**
+     * Whether every product change is appended to the stock event log, which the stock history is rebuilt from.
+     */
+    private boolean enabled = true;
+
+    private String directory = "data/events";
+
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    private long snapshotIntervalMs = 60_000;
+
+    /**
+     * How many of the latest snapshots are all kept, an hour of them at the default snapshot interval.
+     */
+    private int retainedSnapshots = 60;
+
+    /**
+     * Snapshots older than the retained ones are thinned to the first of each interval.
+     */
+    private Duration thinnedSnapshotInterval = Duration.ofHours(1);
+
+    /**
+     * How many thinned snapshots are kept, a week of them by default. The stock history goes back to the oldest kept
+     * snapshot: older snapshots and the log segments before it are deleted.
+     */
+    private int retainedThinnedSnapshots = 168;
+}
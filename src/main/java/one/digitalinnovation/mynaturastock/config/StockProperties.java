@@ -0,0 +1,73 @@
+package one.digitalinnovation.mynaturastock.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "mynaturastock.stock")
+public class StockProperties {
+
+    /**
+     * Where stock is kept: {@code database} applies every change to the product row, {@code ledger} applies changes
+     * in memory and writes them back to the database in batches, {@code warehouse} keeps stock per warehouse in
+     * counter slots and writes their sums back to the products in batches.
+     */
+    private String mode = "database";
+
+    /**
+     * How many locks serialise the changes of the products; rounded up to a power of two.
+     */
+    private int lockStripes = 1024;
+
+    private Ledger ledger = new Ledger();
+
+    private Warehouses warehouses = new Warehouses();
+
+    @Data
+    public static class Ledger {
+
+        private String directory = "data/ledger";
+
+        private boolean fsync = false;
+
+        private long flushIntervalMs = 1000;
+    }
+
+    @Data
+    public static class Warehouses {
+
+        /**
+         * How many counter rows hold the stock of a product at each warehouse; more slots let more concurrent changes
+         * to a hot product proceed without waiting on each other. Applies to the slots created from then on.
+         */
+        private int slots = 1;
+
+        private long flushIntervalMs = 1000;
+
+        /**
+         * The warehouses, in the order decrements without a warehouse try them; the first one receives the stock of
+         * new products.
+         */
+        private List<Location> locations = new ArrayList<>(List.of(
+                new Location("CD01", "Centro de distribuição Cajamar", -23.356, -46.877)));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Location {
+
+        private String code;
+
+        private String name;
+
+        private double latitude;
+
+        private double longitude;
+    }
+}
@@ -2,6 +2,7 @@ package one.digitalinnovation.mynaturastock.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.ServletWebRequest;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -10,6 +11,8 @@ import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.util.concurrent.CompletableFuture;
+
 import static springfox.documentation.builders.RequestHandlerSelectors.*;
 
 @Configuration
@@ -30,6 +33,8 @@ public class SwaggerConfig {
                 .apis(basePackage(BASE_PACKAGE))
                 .paths(PathSelectors.any())
                 .build()
+                .genericModelSubstitutes(CompletableFuture.class)
+                .ignoredParameterTypes(ServletWebRequest.class)
                 .apiInfo(buildApiInfo());
     }
 
@@ -0,0 +1,26 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import org.springframework.http.HttpMethod;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * How the interceptors of the products API tell clients and requests apart: a client by its API key header, or by its
+ * address when it sends none; a request as a read when it is a GET or a HEAD and as a mutation otherwise.
+ */
+final class ApiClients {
+
+    private ApiClients() {
+    }
+
+    static String identify(HttpServletRequest request, String apiKeyHeader) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        return apiKey != null ? apiKey : request.getRemoteAddr();
+    }
+
+    static EndpointClass endpointClass(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? EndpointClass.READ : EndpointClass.MUTATION;
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.CatalogueExportConfig;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.enums.CatalogueExportFormat;
+import one.digitalinnovation.mynaturastock.exception.CatalogueExportNotReadyException;
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService;
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService.CatalogueExport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves the catalogue exports straight from their files. On Tomcat the file is handed over to the connector, which
+ * sends it with {@code sendfile} once the request returns; elsewhere it is copied with {@link FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping("/api/v1/products/export")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@ConditionalOnProperty(prefix = CatalogueExportConfig.EXPORT_PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CatalogueExportController implements CatalogueExportControllerDocs {
+
+    public static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
+    static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private final CatalogueExportService catalogueExportService;
+
+    @GetMapping
+    public void download(@RequestParam(defaultValue = "CSV") CatalogueExportFormat format, ServletWebRequest webRequest)
+            throws IOException, CatalogueExportNotReadyException {
+        CatalogueExport export = catalogueExportService.latest(format);
+        if (webRequest.checkNotModified(export.getEtag())) {
+            return;
+        }
+        HttpServletRequest request = webRequest.getRequest();
+        HttpServletResponse response = webRequest.getResponse();
+        response.setContentType(APPLICATION_GZIP_VALUE);
+        response.setContentLengthLong(export.getSize());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+                .filename(format.getFileName())
+                .build()
+                .toString());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, export.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, export.getSize());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(export.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel body = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < export.getSize(); ) {
+                position += file.transferTo(position, export.getSize() - position, body);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.enums.CatalogueExportFormat;
+import one.digitalinnovation.mynaturastock.exception.CatalogueExportNotReadyException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+
+@Api("Downloads the whole product catalogue")
+public interface CatalogueExportControllerDocs {
+
+    @ApiOperation(value = "Downloads the latest gzipped export of the catalogue, as CSV or in the columnar binary format")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Latest export of the catalogue, with its ETag"),
+            @ApiResponse(code = 304, message = "The export named by If-None-Match is still the latest"),
+            @ApiResponse(code = 503, message = "The first export is still being written.")
+    })
+    void download(CatalogueExportFormat format, ServletWebRequest webRequest) throws IOException, CatalogueExportNotReadyException;
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.service.LowStockTracker;
+import one.digitalinnovation.mynaturastock.service.SseLowStockAlertSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/alerts/low-stock")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class LowStockAlertController implements LowStockAlertControllerDocs {
+
+    private final LowStockTracker lowStockTracker;
+    private final SseLowStockAlertSink sseLowStockAlertSink;
+
+    @GetMapping
+    public List<ProductDTO> listLowStock() {
+        return lowStockTracker.belowMin();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts() {
+        return sseLowStockAlertSink.subscribe();
+    }
+}
@@ -0,0 +1,26 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@Api("Alerts on products at or below their minimum stock")
+public interface LowStockAlertControllerDocs {
+
+    @ApiOperation(value = "Returns the products at or below their minimum stock, lowest margin first, from memory")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of products at or below their minimum stock"),
+    })
+    List<ProductDTO> listLowStock();
+
+    @ApiOperation(value = "Streams an alert as Server-Sent Events whenever a product drops to or below its minimum stock or recovers")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of low-stock events, each holding the alert type, the product and the time"),
+    })
+    SseEmitter streamLowStockAlerts();
+}
@@ -1,63 +1,247 @@
 package one.digitalinnovation.mynaturastock.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
 import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
-import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
-import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
-import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementsDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.config.ProductStreamProperties;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
+import one.digitalinnovation.mynaturastock.service.DecrementCoalescer;
+import one.digitalinnovation.mynaturastock.service.IdempotencyStore;
+import one.digitalinnovation.mynaturastock.service.ProductChangeBroadcaster;
 import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.ProductVersionRegistry;
+import one.digitalinnovation.mynaturastock.service.StockMovementService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/products")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class ProductController implements ProductControllerDocs {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 1000;
+
     private final ProductService productService;
+    private final StockMovementService stockMovementService;
+    private final ObjectMapper objectMapper;
+    private final ProductRequestExecutor requestExecutor;
+    private final ObjectProvider<DecrementCoalescer> decrementCoalescer;
+    private final ProductVersionRegistry productVersions;
+    private final ProductChangeBroadcaster productChangeBroadcaster;
+    private final ProductStreamProperties productStreamProperties;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ProductDTO createProduct(@RequestBody @Valid ProductDTO productDTO) throws ProductAlreadyRegisteredException {
-        return productService.createProduct(productDTO);
+    public CompletableFuture<ProductDTO> createProduct(@RequestBody @Valid ProductDTO productDTO) {
+        return requestExecutor.submit(() -> productService.createProduct(productDTO));
     }
 
+    /**
+     * Answers 304 without reading the product when If-None-Match holds its current ETag, see {@link ProductVersionRegistry}.
+     */
     @GetMapping("/{name}")
-    public ProductDTO findByName(@PathVariable String name) throws ProductNotFoundException {
-        return productService.findByName(name);
+    public CompletableFuture<ResponseEntity<ProductDTO>> findByName(@PathVariable String name, ServletWebRequest webRequest) {
+        String eTag = productVersions.productETag(name);
+        if (notModified(webRequest, eTag)) {
+            return null;
+        }
+        return requestExecutor.submit(() -> {
+            ProductDTO product = productService.findByName(name);
+            return versioned(eTag).body(product);
+        });
     }
 
+    /**
+     * Tagged with the catalogue version, which every product change bumps, so polling an unchanged catalogue is
+     * answered with 304 without reading it.
+     */
     @GetMapping
-    public List<ProductDTO> listProducts() {
-        return productService.listAll();
+    public CompletableFuture<ResponseEntity<List<ProductDTO>>> listProducts(@RequestParam(required = false) Integer limit,
+                                                                            @RequestParam(required = false) Long after,
+                                                                            ServletWebRequest webRequest) {
+        String eTag = productVersions.catalogueETag();
+        if (notModified(webRequest, eTag)) {
+            return null;
+        }
+        if (limit == null && after == null) {
+            return requestExecutor.submit(() -> {
+                List<ProductDTO> products = productService.listAll();
+                return versioned(eTag).body(products);
+            });
+        }
+        int pageLimit = Math.min(Math.max(limit == null ? DEFAULT_PAGE_LIMIT : limit, 1), MAX_PAGE_LIMIT);
+        UriComponentsBuilder currentRequest = ServletUriComponentsBuilder.fromCurrentRequest();
+        return requestExecutor.submit(() -> {
+            List<ProductDTO> page = productService.listAfter(after == null ? 0L : after, pageLimit);
+            if (page.size() < pageLimit) {
+                return versioned(eTag).body(page);
+            }
+            String nextCursor = String.valueOf(page.get(page.size() - 1).getId());
+            String nextPage = currentRequest
+                    .replaceQueryParam("after", nextCursor)
+                    .replaceQueryParam("limit", pageLimit)
+                    .toUriString();
+            return versioned(eTag)
+                    .header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", nextPage))
+                    .header(NEXT_CURSOR_HEADER, nextCursor)
+                    .body(page);
+        });
+    }
+
+    @GetMapping("/by-category/{type}")
+    public CompletableFuture<List<ProductDTO>> listByCategory(@PathVariable Category type) {
+        return requestExecutor.submit(() -> productService.listByCategory(type));
+    }
+
+    @GetMapping("/below-min")
+    public CompletableFuture<List<ProductDTO>> listBelowMin() {
+        return requestExecutor.submit(productService::listAtOrBelowMin);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamProducts() {
+        return this::writeProductsAsNdjson;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Category type,
+                                    @RequestParam(required = false) List<Long> ids,
+                                    @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        return productChangeBroadcaster.subscribe(new SseEmitter(productStreamProperties.getTimeout().toMillis()),
+                ProductChangeBroadcaster.filter(type, ids), lastEventId);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteById(@PathVariable Long id) throws ProductNotFoundException {
-        productService.deleteById(id);
+    public CompletableFuture<Void> deleteById(@PathVariable Long id) {
+        return requestExecutor.submit(() -> {
+            productService.deleteById(id);
+            return null;
+        });
     }
 
+    /**
+     * A retry sent with the Idempotency-Key of a decrement already made is answered with its product, see
+     * {@link IdempotencyStore}.
+     */
     @PatchMapping("/{id}/decrement")
-    public ProductDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws ProductNotFoundException, ProductStockExceededException {
-        return productService.decrement(id, quantityDTO.getQuantity());
+    public CompletableFuture<ProductDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotencyStore.execute(idempotencyKey, ProductChangeType.DECREMENTED, id, quantityDTO.getQuantity(),
+                    () -> submitDecrement(id, quantityDTO.getQuantity()));
+        }
+        return submitDecrement(id, quantityDTO.getQuantity());
     }
 
     @PatchMapping("/{id}/increment")
-    public ProductDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws ProductNotFoundException {
-        return productService.increment(id, quantityDTO.getQuantity());
+    public CompletableFuture<ProductDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotencyStore.execute(idempotencyKey, ProductChangeType.INCREMENTED, id, quantityDTO.getQuantity(),
+                    () -> requestExecutor.submit(() -> productService.increment(id, quantityDTO.getQuantity())));
+        }
+        return requestExecutor.submit(() -> productService.increment(id, quantityDTO.getQuantity()));
+    }
+
+    private CompletableFuture<ProductDTO> submitDecrement(Long id, int quantity) {
+        DecrementCoalescer coalescer = decrementCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            return coalescer.decrement(id, quantity);
+        }
+        return requestExecutor.submit(() -> productService.decrement(id, quantity));
+    }
+
+    /**
+     * Sets up a 304 when If-None-Match holds the given ETag. Unlike {@link ServletWebRequest#checkNotModified(String)},
+     * it leaves the ETag off a full response, which only {@link #versioned(String)} can tell is recent enough for it.
+     */
+    private static boolean notModified(ServletWebRequest webRequest, String eTag) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String clientETag : ifNoneMatch.split(",")) {
+            String trimmed = clientETag.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+                return webRequest.checkNotModified(eTag);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A 200 tagged with the version read before the products, unless they came from the replica, which may not have
+     * caught up with that version yet, see {@link ReplicaRoutingDataSource}.
+     */
+    private static ResponseEntity.BodyBuilder versioned(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        return ReplicaRoutingDataSource.readFromReplica() ? response : response.eTag(eTag);
+    }
+
+    @PostMapping("/stock-movements")
+    public CompletableFuture<List<StockMovementResultDTO>> applyStockMovements(@RequestBody @Valid StockMovementsDTO stockMovementsDTO) {
+        return requestExecutor.submit(() -> stockMovementService.applyAll(stockMovementsDTO.getMovements()));
+    }
+
+    private void writeProductsAsNdjson(OutputStream outputStream) throws IOException {
+        ObjectWriter productWriter = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            productService.streamAll(productDTO -> {
+                try {
+                    productWriter.writeValue(generator, productDTO);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 }
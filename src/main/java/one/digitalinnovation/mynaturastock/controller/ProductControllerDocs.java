@@ -5,11 +5,17 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
-import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
-import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementsDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Api("Manages product stock")
 public interface ProductControllerDocs {
@@ -19,25 +25,60 @@ public interface ProductControllerDocs {
             @ApiResponse(code = 201, message = "Success product creation"),
             @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
     })
-    ProductDTO createProduct(ProductDTO productDTO) throws ProductAlreadyRegisteredException;
+    CompletableFuture<ProductDTO> createProduct(ProductDTO productDTO);
 
     @ApiOperation(value = "Returns product found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success product found in the system"),
+            @ApiResponse(code = 304, message = "Product unchanged since the ETag given in If-None-Match"),
             @ApiResponse(code = 404, message = "Product with given name not found.")
     })
-    ProductDTO findByName(@PathVariable String name) throws ProductNotFoundException;
+    CompletableFuture<ResponseEntity<ProductDTO>> findByName(@PathVariable String name, ServletWebRequest webRequest);
 
-    @ApiOperation(value = "Returns a list of all products registered in the system")
+    @ApiOperation(value = "Returns a list of all products registered in the system, or one page of it when limit or after are given")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all products registered in the system"),
+            @ApiResponse(code = 200, message = "List of products; a Link header points to the next page when there may be more"),
+            @ApiResponse(code = 304, message = "No product changed since the ETag given in If-None-Match"),
     })
-    List<ProductDTO> listProducts();
+    CompletableFuture<ResponseEntity<List<ProductDTO>>> listProducts(Integer limit, Long after, ServletWebRequest webRequest);
+
+    @ApiOperation(value = "Returns the products of a given category")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of products of the category"),
+            @ApiResponse(code = 400, message = "Unknown category.")
+    })
+    CompletableFuture<List<ProductDTO>> listByCategory(@PathVariable Category type);
+
+    @ApiOperation(value = "Returns the products whose quantity is at or below their minimum stock, lowest margin first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of products at or below their minimum stock"),
+    })
+    CompletableFuture<List<ProductDTO>> listBelowMin();
+
+    @ApiOperation(value = "Streams every product registered in the system as newline delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of all products registered in the system"),
+    })
+    StreamingResponseBody streamProducts();
+
+    @ApiOperation(value = "Streams every product change as Server-Sent Events, optionally only those of a category or of some ids")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of product-changed events, with a snapshot event after falling behind or resuming from an old Last-Event-ID"),
+            @ApiResponse(code = 400, message = "Unknown category or invalid id.")
+    })
+    SseEmitter streamChanges(Category type, List<Long> ids, Long lastEventId);
 
     @ApiOperation(value = "Delete a product found by a given valid Id")
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "Success product deleted in the system"),
             @ApiResponse(code = 404, message = "Product with given id not found.")
     })
-    void deleteById(@PathVariable Long id) throws ProductNotFoundException;
+    CompletableFuture<Void> deleteById(@PathVariable Long id);
+
+    @ApiOperation(value = "Applies a list of stock movements in a single transaction, returning the outcome of each movement")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock movements processed, each one applied or rejected on its own"),
+            @ApiResponse(code = 400, message = "Missing required fields or too many movements.")
+    })
+    CompletableFuture<List<StockMovementResultDTO>> applyStockMovements(StockMovementsDTO stockMovementsDTO);
 }
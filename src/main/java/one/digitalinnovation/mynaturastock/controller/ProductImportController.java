@@ -0,0 +1,37 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import one.digitalinnovation.mynaturastock.service.ProductImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/products/import")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductImportController implements ProductImportControllerDocs {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductImportService productImportService;
+    private final ProductRequestExecutor requestExecutor;
+
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public CompletableFuture<ProductImportResultDTO> importCsv(InputStream inputStream) {
+        return requestExecutor.submit(() -> productImportService.importProducts(inputStream, ProductImportFormat.CSV));
+    }
+
+    @PostMapping(consumes = ProductController.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ProductImportResultDTO> importNdjson(InputStream inputStream) {
+        return requestExecutor.submit(() -> productImportService.importProducts(inputStream, ProductImportFormat.NDJSON));
+    }
+}
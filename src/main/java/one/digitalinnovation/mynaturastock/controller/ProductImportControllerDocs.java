@@ -0,0 +1,27 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+@Api("Imports product catalogues")
+public interface ProductImportControllerDocs {
+
+    @ApiOperation(value = "Imports products from a CSV file with a name, min, quantity and type header, one product per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "How many lines were read and imported, and why the others were not"),
+            @ApiResponse(code = 400, message = "Empty file or header without one of the required columns.")
+    })
+    CompletableFuture<ProductImportResultDTO> importCsv(InputStream inputStream);
+
+    @ApiOperation(value = "Imports products from newline-delimited JSON, one product per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "How many lines were read and imported, and why the others were not")
+    })
+    CompletableFuture<ProductImportResultDTO> importNdjson(InputStream inputStream);
+}
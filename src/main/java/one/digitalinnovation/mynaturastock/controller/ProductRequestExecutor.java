@@ -0,0 +1,60 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the blocking work of a request and exposes its result as a {@link CompletableFuture}, so that controllers do
+ * not depend on where the work runs. In blocking mode the work runs on the servlet thread; in async mode it runs on
+ * a bounded pool, and a request that does not fit in the pool queue fails right away with
+ * {@link ServiceOverloadedException} instead of waiting. Whether the request must read from the primary database is
+ * carried over to the thread running it, see {@link ReplicaRoutingDataSource}.
+ */
+public class ProductRequestExecutor {
+
+    private final Executor executor;
+
+    public ProductRequestExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public static ProductRequestExecutor blocking() {
+        return new ProductRequestExecutor(Runnable::run);
+    }
+
+    public <T> CompletableFuture<T> submit(ProductCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(ReplicaRoutingDataSource.propagate(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new ServiceOverloadedException());
+        }
+        return result;
+    }
+
+    /**
+     * Stops the pool once the requests already accepted are done; nothing to do in blocking mode.
+     */
+    public void close() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProductCall<T> {
+
+        T call() throws Exception;
+    }
+}
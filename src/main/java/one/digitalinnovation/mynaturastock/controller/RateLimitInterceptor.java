@@ -0,0 +1,57 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import one.digitalinnovation.mynaturastock.exception.RateLimitExceededException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.service.LoadShedder;
+import one.digitalinnovation.mynaturastock.service.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the products API requests against the {@link RateLimiter}, answering 429 to a client out of tokens, then
+ * against the {@link LoadShedder}, answering 503 while the service is over its latency target. Both answers carry
+ * Retry-After. Clients and endpoint classes are told apart as {@link ApiClients} does, and every request is also
+ * limited by its remote address, since the API key is not authenticated; behind a proxy that address is only the
+ * client's when the container resolves X-Forwarded-For. The async dispatch that writes the result of a request is not
+ * checked again.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String SHED_RETRY_AFTER_SECONDS = "1";
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final String apiKeyHeader;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, LoadShedder loadShedder, String apiKeyHeader) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws RateLimitExceededException, ServiceOverloadedException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        EndpointClass endpointClass = ApiClients.endpointClass(request);
+        long waitNanos = rateLimiter.tryAcquire(endpointClass, ApiClients.identify(request, apiKeyHeader), request.getRemoteAddr());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            throw new RateLimitExceededException(endpointClass, retryAfterSeconds);
+        }
+        if (loadShedder.shouldShed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, SHED_RETRY_AFTER_SECONDS);
+            throw new ServiceOverloadedException("The service is answering slower than its latency target, try again later");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementsDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.service.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+import static one.digitalinnovation.mynaturastock.controller.ProductController.APPLICATION_NDJSON_VALUE;
+import static one.digitalinnovation.mynaturastock.controller.ProductController.NEXT_CURSOR_HEADER;
+
+/**
+ * The contract of {@link ProductControllerDocs} on WebFlux, enabled by the {@code reactive} profile. Lists are written
+ * as the products are read from the database, so a slow client slows down the read instead of buffering the table.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@Profile(ReactiveConfig.REACTIVE_PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveProductController {
+
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 1000;
+
+    private final ReactiveProductService productService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ProductDTO> createProduct(@RequestBody @Valid ProductDTO productDTO) {
+        return productService.createProduct(productDTO);
+    }
+
+    @GetMapping("/{name}")
+    public Mono<ProductDTO> findByName(@PathVariable String name) {
+        return productService.findByName(name);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<ProductDTO>>> listProducts(@RequestParam(required = false) Integer limit,
+                                                               @RequestParam(required = false) Long after,
+                                                               ServerHttpRequest request) {
+        if (limit == null && after == null) {
+            return Mono.just(ResponseEntity.ok(productService.listAll()));
+        }
+        int pageLimit = Math.min(Math.max(limit == null ? DEFAULT_PAGE_LIMIT : limit, 1), MAX_PAGE_LIMIT);
+        return productService.listAfter(after == null ? 0L : after, pageLimit)
+                .collectList()
+                .map(page -> {
+                    if (page.size() < pageLimit) {
+                        return ResponseEntity.ok(Flux.fromIterable(page));
+                    }
+                    String nextCursor = String.valueOf(page.get(page.size() - 1).getId());
+                    String nextPage = UriComponentsBuilder.fromHttpRequest(request)
+                            .replaceQueryParam("after", nextCursor)
+                            .replaceQueryParam("limit", pageLimit)
+                            .toUriString();
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", nextPage))
+                            .header(NEXT_CURSOR_HEADER, nextCursor)
+                            .body(Flux.fromIterable(page));
+                });
+    }
+
+    @GetMapping("/by-category/{type}")
+    public Flux<ProductDTO> listByCategory(@PathVariable Category type) {
+        return productService.listByCategory(type);
+    }
+
+    @GetMapping("/below-min")
+    public Flux<ProductDTO> listBelowMin() {
+        return productService.listAtOrBelowMin();
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDTO> streamProducts() {
+        return productService.listAll();
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteById(@PathVariable Long id) {
+        return productService.deleteById(id);
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public Mono<ProductDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return productService.decrement(id, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{id}/increment")
+    public Mono<ProductDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return productService.increment(id, quantityDTO.getQuantity());
+    }
+
+    @PostMapping("/stock-movements")
+    public Flux<StockMovementResultDTO> applyStockMovements(@RequestBody @Valid StockMovementsDTO stockMovementsDTO) {
+        return productService.applyAll(stockMovementsDTO.getMovements());
+    }
+}
@@ -0,0 +1,54 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
+import one.digitalinnovation.mynaturastock.service.ReadYourWritesTracker;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sends the reads of a client to the primary while it is within the read-your-writes window of its last change, see
+ * {@link ReadYourWritesTracker}. A change is recorded when it starts and again when it completes, so the window runs
+ * from the commit however long the change takes. The choice holds for the thread handling the request and is carried
+ * over to the thread running the request by {@link ProductRequestExecutor}.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReadYourWritesTracker tracker;
+    private final String apiKeyHeader;
+
+    public ReadYourWritesInterceptor(ReadYourWritesTracker tracker, String apiKeyHeader) {
+        this.tracker = tracker;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String client = ApiClients.identify(request, apiKeyHeader);
+        if (ApiClients.endpointClass(request) == EndpointClass.MUTATION) {
+            tracker.recordWrite(client);
+        } else {
+            ReplicaRoutingDataSource.requirePrimary(tracker.wroteRecently(client));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.requirePrimary(false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ApiClients.endpointClass(request) == EndpointClass.MUTATION) {
+            tracker.recordWrite(ApiClients.identify(request, apiKeyHeader));
+        }
+        ReplicaRoutingDataSource.requirePrimary(false);
+    }
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.config.StockHistoryConfig;
+import one.digitalinnovation.mynaturastock.dto.StockLevelDTO;
+import one.digitalinnovation.mynaturastock.service.StockHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1/products/stock-history")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@ConditionalOnProperty(prefix = StockHistoryConfig.EVENTS_PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockHistoryController implements StockHistoryControllerDocs {
+
+    private final StockHistoryService stockHistoryService;
+    private final ProductRequestExecutor requestExecutor;
+
+    @GetMapping
+    public CompletableFuture<List<StockLevelDTO>> stockAt(@RequestParam(required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        Instant stockTime = at == null ? Instant.now() : at;
+        return requestExecutor.submit(() -> stockHistoryService.stockAt(stockTime)
+                .entrySet()
+                .stream()
+                .map(quantity -> new StockLevelDTO(quantity.getKey(), quantity.getValue()))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,22 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.dto.StockLevelDTO;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Api("Rebuilds past product stock")
+public interface StockHistoryControllerDocs {
+
+    @ApiOperation(value = "Returns the quantity of every product at a given time, rebuilt from the stock event log")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Quantity of every product at the given time, empty when it is older than the log"),
+            @ApiResponse(code = 400, message = "Time not in ISO-8601 format.")
+    })
+    CompletableFuture<List<StockLevelDTO>> stockAt(Instant at);
+}
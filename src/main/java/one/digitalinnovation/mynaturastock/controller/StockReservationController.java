@@ -0,0 +1,64 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.config.ReservationProperties;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationRequestDTO;
+import one.digitalinnovation.mynaturastock.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/products/{id}/reservations")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockReservationController implements StockReservationControllerDocs {
+
+    private final StockReservationService stockReservationService;
+    private final ReservationProperties reservationProperties;
+    private final ProductRequestExecutor requestExecutor;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<ReservationDTO> reserve(@PathVariable Long id, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO) {
+        Duration ttl = reservationRequestDTO.getTtlSeconds() == null
+                ? reservationProperties.getDefaultTtl()
+                : Duration.ofSeconds(reservationRequestDTO.getTtlSeconds());
+        Duration boundedTtl = ttl.compareTo(reservationProperties.getMaxTtl()) > 0 ? reservationProperties.getMaxTtl() : ttl;
+        return requestExecutor.submit(() -> stockReservationService.reserve(id, reservationRequestDTO.getQuantity(), boundedTtl));
+    }
+
+    @GetMapping("/{reservationId}")
+    public CompletableFuture<ReservationDTO> findById(@PathVariable Long id, @PathVariable Long reservationId) {
+        return requestExecutor.submit(() -> stockReservationService.findById(id, reservationId));
+    }
+
+    @PostMapping("/{reservationId}/commit")
+    public CompletableFuture<ProductDTO> commit(@PathVariable Long id, @PathVariable Long reservationId) {
+        return requestExecutor.submit(() -> stockReservationService.commit(id, reservationId));
+    }
+
+    @DeleteMapping("/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> release(@PathVariable Long id, @PathVariable Long reservationId) {
+        return requestExecutor.submit(() -> {
+            stockReservationService.release(id, reservationId);
+            return null;
+        });
+    }
+}
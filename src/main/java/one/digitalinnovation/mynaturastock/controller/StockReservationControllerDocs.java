@@ -0,0 +1,47 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationRequestDTO;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.concurrent.CompletableFuture;
+
+@Api("Manages stock reservations")
+public interface StockReservationControllerDocs {
+
+    @ApiOperation(value = "Holds a quantity of a product until it is committed, released or expires")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success stock held"),
+            @ApiResponse(code = 400, message = "Missing required fields, or not enough stock left above the min once the active holds are counted."),
+            @ApiResponse(code = 404, message = "Product with given id not found."),
+            @ApiResponse(code = 503, message = "Too many active reservations.")
+    })
+    CompletableFuture<ReservationDTO> reserve(@PathVariable Long id, ReservationRequestDTO reservationRequestDTO);
+
+    @ApiOperation(value = "Returns an active reservation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation found"),
+            @ApiResponse(code = 404, message = "Reservation not found, or already committed, released or expired.")
+    })
+    CompletableFuture<ReservationDTO> findById(@PathVariable Long id, @PathVariable Long reservationId);
+
+    @ApiOperation(value = "Decrements the held quantity from the product stock and ends the reservation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success product stock decremented"),
+            @ApiResponse(code = 400, message = "The stock was taken by direct decrements in the meantime."),
+            @ApiResponse(code = 404, message = "Reservation not found, or already committed, released or expired.")
+    })
+    CompletableFuture<ProductDTO> commit(@PathVariable Long id, @PathVariable Long reservationId);
+
+    @ApiOperation(value = "Gives the held quantity back and ends the reservation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Success reservation released"),
+            @ApiResponse(code = 404, message = "Reservation not found, or already committed, released or expired.")
+    })
+    CompletableFuture<Void> release(@PathVariable Long id, @PathVariable Long reservationId);
+}
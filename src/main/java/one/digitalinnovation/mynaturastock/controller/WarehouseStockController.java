@@ -0,0 +1,59 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.config.StockEngineConfig;
+import one.digitalinnovation.mynaturastock.dto.NearestDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseStockDTO;
+import one.digitalinnovation.mynaturastock.service.WarehouseStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/products/{id}/warehouses")
+@Profile("!" + ReactiveConfig.REACTIVE_PROFILE)
+@ConditionalOnProperty(prefix = "mynaturastock.stock", name = "mode", havingValue = StockEngineConfig.WAREHOUSE_MODE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WarehouseStockController implements WarehouseStockControllerDocs {
+
+    private final WarehouseStockService warehouseStockService;
+    private final ProductRequestExecutor requestExecutor;
+
+    @GetMapping
+    public CompletableFuture<List<WarehouseStockDTO>> stockOf(@PathVariable Long id) {
+        return requestExecutor.submit(() -> warehouseStockService.stockOf(id));
+    }
+
+    @PatchMapping("/{code}/decrement")
+    public CompletableFuture<ProductDTO> decrementAt(@PathVariable Long id, @PathVariable String code,
+                                                     @RequestBody @Valid QuantityDTO quantityDTO) {
+        return requestExecutor.submit(() -> warehouseStockService.decrementAt(id, code, quantityDTO.getQuantity()));
+    }
+
+    @PatchMapping("/{code}/increment")
+    public CompletableFuture<ProductDTO> incrementAt(@PathVariable Long id, @PathVariable String code,
+                                                     @RequestBody @Valid QuantityDTO quantityDTO) {
+        return requestExecutor.submit(() -> warehouseStockService.incrementAt(id, code, quantityDTO.getQuantity()));
+    }
+
+    @PatchMapping("/nearest/decrement")
+    public CompletableFuture<WarehouseDecrementDTO> decrementNearest(@PathVariable Long id,
+                                                                     @RequestBody @Valid NearestDecrementDTO nearestDecrementDTO) {
+        return requestExecutor.submit(() -> warehouseStockService.decrementNearest(id, nearestDecrementDTO.getLatitude(),
+                nearestDecrementDTO.getLongitude(), nearestDecrementDTO.getQuantity()));
+    }
+}
@@ -0,0 +1,50 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.mynaturastock.dto.NearestDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseStockDTO;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Api("Manages the stock of products per warehouse")
+public interface WarehouseStockControllerDocs {
+
+    @ApiOperation(value = "Returns the stock of a product at each warehouse holding any")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success stock per warehouse found"),
+            @ApiResponse(code = 404, message = "Product with given id not found.")
+    })
+    CompletableFuture<List<WarehouseStockDTO>> stockOf(@PathVariable Long id);
+
+    @ApiOperation(value = "Decrements the stock of a product at a given warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success product stock decremented"),
+            @ApiResponse(code = 400, message = "Missing required fields, or not enough stock at the warehouse above its share of the min."),
+            @ApiResponse(code = 404, message = "Product with given id or warehouse with given code not found.")
+    })
+    CompletableFuture<ProductDTO> decrementAt(@PathVariable Long id, @PathVariable String code, QuantityDTO quantityDTO);
+
+    @ApiOperation(value = "Increments the stock of a product at a given warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success product stock incremented"),
+            @ApiResponse(code = 400, message = "Missing required fields."),
+            @ApiResponse(code = 404, message = "Product with given id or warehouse with given code not found.")
+    })
+    CompletableFuture<ProductDTO> incrementAt(@PathVariable Long id, @PathVariable String code, QuantityDTO quantityDTO);
+
+    @ApiOperation(value = "Decrements the stock of a product at the nearest warehouse holding enough of it")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success product stock decremented"),
+            @ApiResponse(code = 400, message = "Missing required fields, or no warehouse holds enough stock on its own."),
+            @ApiResponse(code = 404, message = "Product with given id not found.")
+    })
+    CompletableFuture<WarehouseDecrementDTO> decrementNearest(@PathVariable Long id, NearestDecrementDTO nearestDecrementDTO);
+}
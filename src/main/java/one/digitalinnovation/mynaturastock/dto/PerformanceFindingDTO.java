@@ -0,0 +1,19 @@
+package one.digitalinnovation.mynaturastock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerformanceFindingDTO {
+
+    private String setting;
+
+    private String value;
+
+    private String advice;
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.mynaturastock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+
+    private long read;
+
+    private long imported;
+
+    private long duplicates;
+
+    private long invalid;
+
+    /**
+     * Why the first rejected lines were not imported, each prefixed with its line number.
+     */
+    private List<String> errors;
+}
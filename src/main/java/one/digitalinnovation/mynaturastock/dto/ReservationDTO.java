@@ -0,0 +1,23 @@
+package one.digitalinnovation.mynaturastock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+    private Long id;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    private Instant expiresAt;
+}
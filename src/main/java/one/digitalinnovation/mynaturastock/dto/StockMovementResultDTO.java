@@ -0,0 +1,24 @@
+package one.digitalinnovation.mynaturastock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResultDTO {
+
+    private Long id;
+
+    private Integer delta;
+
+    private StockMovementStatus status;
+
+    private ProductDTO product;
+
+    private String message;
+}
@@ -0,0 +1,75 @@
+package one.digitalinnovation.mynaturastock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The response to a stock change sent with an idempotency key, kept so that retries of it can be answered after a
+ * restart. The key is stored as the two halves of its 128-bit hash. Records are only ever inserted, never updated.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(IdempotencyRecord.Key.class)
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    @Id
+    @Column(name = "key_high")
+    private long keyHigh;
+
+    @Id
+    @Column(name = "key_low")
+    private long keyLow;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductChangeType operation;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false, length = 1024)
+    private byte[] response;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Override
+    public Key getId() {
+        return new Key(keyHigh, keyLow);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private long keyHigh;
+
+        private long keyLow;
+    }
+}
@@ -1,8 +1,9 @@
 package one.digitalinnovation.mynaturastock.entity;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import one.digitalinnovation.mynaturastock.enums.Category;
 
 import javax.persistence.Column;
@@ -12,15 +13,31 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_product_type", columnList = "type, id"),
+        @Index(name = "idx_product_stock_margin", columnList = "stock_margin")
+})
 public class Product {
 
+    public static final String ID_SEQUENCE = "product_seq";
+
+    /**
+     * How many ids one call to {@value #ID_SEQUENCE} reserves: each value {@code v} it returns stands for the ids
+     * {@code v - ID_ALLOCATION_SIZE + 1} to {@code v}, so inserts can be batched without a round trip per id.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -36,5 +53,25 @@ public class Product {
     @Column(nullable = false)
     private Category type;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * How far the quantity is above the min, computed and indexed by the database so products at or below their min
+     * can be found without scanning the table. It is only read from the database, so it is not refreshed by changes
+     * made to a loaded product.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "stock_margin", insertable = false, updatable = false, columnDefinition = "INT AS (quantity - min)")
+    private Integer stockMargin;
 
+    public Product(Long id, String name, int min, int quantity, Category type, long version) {
+        this.id = id;
+        this.name = name;
+        this.min = min;
+        this.quantity = quantity;
+        this.type = type;
+        this.version = version;
+    }
 }
@@ -0,0 +1,56 @@
+package one.digitalinnovation.mynaturastock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * The stock of a product held at a warehouse, split across one or more counter slots so that concurrent changes to a
+ * hot product do not all wait on the same row. The quantity of the product is the sum of its slots. The min of the
+ * product is split across its slots as well: each slot keeps at least its {@code minQuantity}, so a slot can be
+ * decremented on its own while the whole product never goes below its min.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(WarehouseStock.Key.class)
+@Table(name = "warehouse_stock")
+public class WarehouseStock {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Id
+    private int slot;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "min_quantity", nullable = false)
+    private int minQuantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long productId;
+
+        private Long warehouseId;
+
+        private int slot;
+    }
+}
@@ -0,0 +1,14 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum CatalogueExportFormat {
+
+    CSV("catalogue.csv.gz"),
+    BINARY("catalogue.bin.gz");
+
+    private final String fileName;
+}
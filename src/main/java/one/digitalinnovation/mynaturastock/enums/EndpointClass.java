@@ -0,0 +1,14 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum EndpointClass {
+
+    READ("Requests that only read products: GET and HEAD"),
+    MUTATION("Requests that register, delete or change the stock of products");
+
+    private final String description;
+}
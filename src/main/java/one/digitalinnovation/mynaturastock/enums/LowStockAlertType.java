@@ -0,0 +1,14 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum LowStockAlertType {
+
+    BELOW_MIN("Product stock dropped to or below its minimum"),
+    RECOVERED("Product stock back above its minimum");
+
+    private final String description;
+}
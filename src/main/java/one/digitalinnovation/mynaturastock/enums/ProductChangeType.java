@@ -0,0 +1,16 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ProductChangeType {
+
+    CREATED("Product registered"),
+    INCREMENTED("Product stock incremented"),
+    DECREMENTED("Product stock decremented"),
+    DELETED("Product deleted");
+
+    private final String description;
+}
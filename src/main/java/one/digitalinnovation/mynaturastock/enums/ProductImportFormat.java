@@ -0,0 +1,27 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+
+@Getter
+@AllArgsConstructor
+public enum ProductImportFormat {
+
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    public static ProductImportFormat fromFileName(String fileName) {
+        String lowerCaseFileName = fileName.toLowerCase(Locale.ROOT);
+        for (ProductImportFormat format : values()) {
+            if (lowerCaseFileName.endsWith(format.fileExtension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Cannot tell the import format of %s, expected a .csv or .ndjson file", fileName));
+    }
+}
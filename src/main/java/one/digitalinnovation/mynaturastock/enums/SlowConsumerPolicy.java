@@ -0,0 +1,14 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum SlowConsumerPolicy {
+
+    SNAPSHOT("The subscriber is sent a snapshot of the products it follows and carries on from there"),
+    DROP("The subscription is closed, the client reconnects with Last-Event-ID and gets a snapshot");
+
+    private final String description;
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.mynaturastock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockMovementStatus {
+
+    APPLIED("Stock movement applied"),
+    NOT_FOUND("Product not found"),
+    STOCK_EXCEEDED("Stock movement exceeds the min stock capacity");
+
+    private final String description;
+}
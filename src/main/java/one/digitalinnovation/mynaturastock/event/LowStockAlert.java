@@ -0,0 +1,21 @@
+package one.digitalinnovation.mynaturastock.event;
+
+import lombok.Value;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.LowStockAlertType;
+
+import java.time.Instant;
+
+/**
+ * Raised when a product crosses its minimum stock, one way or the other. The product holds the state right after the
+ * change that crossed it.
+ */
+@Value
+public class LowStockAlert {
+
+    LowStockAlertType type;
+
+    ProductDTO product;
+
+    Instant raisedAt;
+}
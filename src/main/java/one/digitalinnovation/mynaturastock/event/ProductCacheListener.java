@@ -0,0 +1,33 @@
+package one.digitalinnovation.mynaturastock.event;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import static one.digitalinnovation.mynaturastock.config.CacheConfig.PRODUCTS_BY_NAME_CACHE;
+
+/**
+ * Evicts cached products once a change is committed. Entries are evicted rather than overwritten, so concurrent
+ * changes committed out of order can never leave an older stock figure in the cache. Eviction runs before the other
+ * listeners, so none of them can signal a change while the cache still holds the product before it.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductCacheListener {
+
+    private final CacheManager cacheManager;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache productsByName = cacheManager.getCache(PRODUCTS_BY_NAME_CACHE);
+        if (productsByName != null) {
+            productsByName.evict(event.getProduct().getName());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package one.digitalinnovation.mynaturastock.event;
+
+import lombok.Value;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+
+/**
+ * Published whenever a product is created, deleted or has its stock changed. The product holds the state right
+ * after the change (right before it, for a deletion) and the quantity delta is the net effect on the stock.
+ */
+@Value
+public class ProductChangedEvent {
+
+    ProductChangeType type;
+
+    ProductDTO product;
+
+    int quantityDelta;
+}
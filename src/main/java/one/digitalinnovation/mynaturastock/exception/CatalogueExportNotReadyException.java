@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CatalogueExportNotReadyException extends Exception {
+
+    public CatalogueExportNotReadyException() {
+        super("The first catalogue export is still being written, try again later");
+    }
+}
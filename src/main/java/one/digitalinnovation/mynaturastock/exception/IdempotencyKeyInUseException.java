@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInUseException extends Exception {
+
+    public IdempotencyKeyInUseException(String idempotencyKey) {
+        super(String.format("A request with idempotency key %s is still being processed.", idempotencyKey));
+    }
+}
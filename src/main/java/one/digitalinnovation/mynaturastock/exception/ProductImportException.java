@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ProductImportException extends Exception {
+
+    public ProductImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Locale;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends Exception {
+
+    public RateLimitExceededException(EndpointClass endpointClass, long retryAfterSeconds) {
+        super(String.format("Too many %s requests, try again in %d s", endpointClass.name().toLowerCase(Locale.ROOT), retryAfterSeconds));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ReservationLimitExceededException extends Exception {
+
+    public ReservationLimitExceededException(int maxActive) {
+        super(String.format("The limit of %s active reservations has been reached, try again later", maxActive));
+    }
+}
@@ -0,0 +1,16 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends Exception {
+
+    public ServiceOverloadedException() {
+        super("Too many requests are waiting to be processed, try again later");
+    }
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
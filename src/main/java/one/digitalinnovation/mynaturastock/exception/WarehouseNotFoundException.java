@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WarehouseNotFoundException extends Exception {
+
+    public WarehouseNotFoundException(String code) {
+        super(String.format("Warehouse with code %s not found in the system.", code));
+    }
+}
@@ -0,0 +1,94 @@
+package one.digitalinnovation.mynaturastock.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+
+import java.io.IOException;
+
+/**
+ * Encodes products in the CBOR representation of the API as arrays of their fields in a fixed order, id, name, min,
+ * quantity and category ordinal, instead of maps: no field name is written or read, and each field goes straight to
+ * the generator with no intermediate object. Category ordinals are part of the format, so categories may only be
+ * added at the end of {@link Category}. Missing fields are encoded as nulls and left to the validation.
+ */
+public class ProductCborModule extends SimpleModule {
+
+    private static final int FIELDS = 5;
+    private static final Category[] CATEGORIES = Category.values();
+
+    public ProductCborModule() {
+        super(ProductCborModule.class.getSimpleName());
+        addSerializer(ProductDTO.class, new ProductSerializer());
+        addDeserializer(ProductDTO.class, new ProductDeserializer());
+    }
+
+    private static final class ProductSerializer extends StdSerializer<ProductDTO> {
+
+        private ProductSerializer() {
+            super(ProductDTO.class);
+        }
+
+        @Override
+        public void serialize(ProductDTO product, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(FIELDS);
+            if (product.getId() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(product.getId());
+            }
+            generator.writeString(product.getName());
+            writeInteger(generator, product.getMin());
+            writeInteger(generator, product.getQuantity());
+            writeInteger(generator, product.getType() == null ? null : product.getType().ordinal());
+            generator.writeEndArray();
+        }
+
+        private static void writeInteger(JsonGenerator generator, Integer value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+    }
+
+    private static final class ProductDeserializer extends StdDeserializer<ProductDTO> {
+
+        private ProductDeserializer() {
+            super(ProductDTO.class);
+        }
+
+        @Override
+        public ProductDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (ProductDTO) context.handleUnexpectedToken(ProductDTO.class, parser);
+            }
+            ProductDTO product = new ProductDTO();
+            product.setId(parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getLongValue());
+            product.setName(parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getText());
+            product.setMin(readInteger(parser));
+            product.setQuantity(readInteger(parser));
+            Integer ordinal = readInteger(parser);
+            if (ordinal != null && (ordinal < 0 || ordinal >= CATEGORIES.length)) {
+                return (ProductDTO) context.handleWeirdNumberValue(Category.class, ordinal, "not a category ordinal");
+            }
+            product.setType(ordinal == null ? null : CATEGORIES[ordinal]);
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                context.reportWrongTokenException(ProductDTO.class, JsonToken.END_ARRAY, "a product has %d fields", FIELDS);
+            }
+            return product;
+        }
+
+        private static Integer readInteger(JsonParser parser) throws IOException {
+            return parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package one.digitalinnovation.mynaturastock.mapper;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
 import one.digitalinnovation.mynaturastock.entity.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,6 +11,7 @@ public interface ProductMapper {
 
     ProductMapper INSTANCE = Mappers.getMapper(ProductMapper.class);
 
+    @Mapping(target = "version", ignore = true)
     Product toModel(ProductDTO productDTO);
 
     ProductDTO toDTO(Product product);
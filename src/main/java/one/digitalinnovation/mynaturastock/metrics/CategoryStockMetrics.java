@@ -0,0 +1,63 @@
+package one.digitalinnovation.mynaturastock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the total stock of each category as a gauge. The totals are summed by the database once at startup and then
+ * moved by the quantity delta of every committed change, so reading the gauge never scans the products. Units moved
+ * by each kind of change are counted as well.
+ */
+@Component
+public class CategoryStockMetrics {
+
+    public static final String CATEGORY_STOCK_GAUGE = "product.stock.quantity";
+    public static final String STOCK_CHANGES_COUNTER = "product.stock.changes";
+
+    private final Map<Category, AtomicLong> quantityByCategory = new EnumMap<>(Category.class);
+    private final Map<ProductChangeType, Counter> unitsByChangeType = new EnumMap<>(ProductChangeType.class);
+
+    @Autowired
+    public CategoryStockMetrics(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        for (Category category : Category.values()) {
+            AtomicLong quantity = new AtomicLong();
+            quantityByCategory.put(category, quantity);
+            Gauge.builder(CATEGORY_STOCK_GAUGE, quantity, AtomicLong::get)
+                    .description("Total stock of the products of a category")
+                    .tag("category", category.name())
+                    .baseUnit("units")
+                    .register(meterRegistry);
+        }
+        for (ProductChangeType changeType : ProductChangeType.values()) {
+            unitsByChangeType.put(changeType, Counter.builder(STOCK_CHANGES_COUNTER)
+                    .description("Stock units added or removed by product changes")
+                    .tag("type", changeType.name())
+                    .baseUnit("units")
+                    .register(meterRegistry));
+        }
+        productRepository.sumQuantityByType()
+                .forEach(total -> quantityByCategory.get(total.getType()).set(total.getQuantity()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        quantityByCategory.get(event.getProduct().getType()).addAndGet(event.getQuantityDelta());
+        unitsByChangeType.get(event.getType()).increment(Math.abs(event.getQuantityDelta()));
+    }
+
+    public long quantityOf(Category category) {
+        return quantityByCategory.get(category).get();
+    }
+}
@@ -0,0 +1,122 @@
+package one.digitalinnovation.mynaturastock.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.config.RequestExecutionProperties;
+import one.digitalinnovation.mynaturastock.dto.PerformanceFindingDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks at startup for the settings that cap throughput under load and logs a warning for each one found: the
+ * persistence context kept open for the whole request, inserts and updates sent one at a time, ids generated by the
+ * database, which stop Hibernate from batching inserts, Product in the second-level cache, whose region every bulk
+ * stock update evicts, and fewer pooled connections than request threads. The findings are also served by the
+ * {@value #ENDPOINT_ID} actuator endpoint; the {@code performance} profile clears all of them.
+ */
+@Slf4j
+@Component
+@Endpoint(id = PerformanceSelfCheck.ENDPOINT_ID)
+public class PerformanceSelfCheck {
+
+    public static final String ENDPOINT_ID = "performance";
+
+    private static final String ASYNC_MODE = "async";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean openInView;
+    private final DataSource dataSource;
+    private final RequestExecutionProperties requestExecutionProperties;
+
+    @Autowired
+    public PerformanceSelfCheck(EntityManagerFactory entityManagerFactory,
+                                @Value("${spring.jpa.open-in-view:true}") boolean openInView,
+                                DataSource dataSource, RequestExecutionProperties requestExecutionProperties) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.openInView = openInView;
+        this.dataSource = dataSource;
+        this.requestExecutionProperties = requestExecutionProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkAtStartup() {
+        for (PerformanceFindingDTO finding : findings()) {
+            log.warn("{}={}: {}", finding.getSetting(), finding.getValue(), finding.getAdvice());
+        }
+    }
+
+    @ReadOperation
+    public List<PerformanceFindingDTO> findings() {
+        List<PerformanceFindingDTO> findings = new ArrayList<>();
+        if (openInView) {
+            findings.add(new PerformanceFindingDTO("spring.jpa.open-in-view", "true",
+                    "Each web request holds a connection until its response is written; set it to false"));
+        }
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        checkBatching(sessionFactory.getSessionFactoryOptions(), findings);
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            checkEntity(persister, findings);
+        }
+        checkConnectionPool(findings);
+        return findings;
+    }
+
+    private static void checkBatching(SessionFactoryOptions options, List<PerformanceFindingDTO> findings) {
+        if (options.getJdbcBatchSize() < 2) {
+            findings.add(new PerformanceFindingDTO("spring.jpa.properties.hibernate.jdbc.batch_size",
+                    String.valueOf(options.getJdbcBatchSize()),
+                    "Inserts and updates go to the database one statement at a time; set a batch size such as 50"));
+        }
+        if (!options.isOrderInsertsEnabled()) {
+            findings.add(new PerformanceFindingDTO("spring.jpa.properties.hibernate.order_inserts", "false",
+                    "Inserts into different tables interleave and cut the batches short; set it to true"));
+        }
+        if (!options.isOrderUpdatesEnabled()) {
+            findings.add(new PerformanceFindingDTO("spring.jpa.properties.hibernate.order_updates", "false",
+                    "Updates of different tables interleave and cut the batches short; set it to true"));
+        }
+    }
+
+    private static void checkEntity(EntityPersister persister, List<PerformanceFindingDTO> findings) {
+        if (persister.getIdentifierGenerator() instanceof IdentityGenerator) {
+            findings.add(new PerformanceFindingDTO(persister.getEntityName() + " id", "IDENTITY",
+                    "Hibernate cannot batch inserts whose id is only known once inserted; use a pooled sequence as "
+                            + Product.class.getSimpleName() + " does"));
+        }
+        if (persister.canWriteToCache() && Product.class.getName().equals(persister.getEntityName())) {
+            findings.add(new PerformanceFindingDTO(persister.getEntityName() + " second-level cache", "enabled",
+                    "Stock changes are bulk updates, each of which evicts the whole region; cache products by name instead"));
+        }
+    }
+
+    private void checkConnectionPool(List<PerformanceFindingDTO> findings) {
+        DataSource primary = dataSource instanceof ReplicaRoutingDataSource
+                ? ((ReplicaRoutingDataSource) dataSource).getPrimary()
+                : dataSource;
+        if (!(primary instanceof HikariDataSource) || !ASYNC_MODE.equals(requestExecutionProperties.getMode())) {
+            return;
+        }
+        int maximumPoolSize = ((HikariDataSource) primary).getMaximumPoolSize();
+        if (maximumPoolSize < requestExecutionProperties.getPoolSize()) {
+            findings.add(new PerformanceFindingDTO("spring.datasource.hikari.maximum-pool-size", String.valueOf(maximumPoolSize),
+                    String.format("%d request threads share fewer connections and wait for them; raise it to %d",
+                            requestExecutionProperties.getPoolSize(), requestExecutionProperties.getPoolSize())));
+        }
+    }
+}
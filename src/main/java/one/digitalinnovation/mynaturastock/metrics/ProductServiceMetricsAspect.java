@@ -0,0 +1,73 @@
+package one.digitalinnovation.mynaturastock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.service.LoadShedder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public {@link one.digitalinnovation.mynaturastock.service.ProductService} method under
+ * {@value #TIMER_NAME}, tagged with the method, the outcome and the exception thrown, if any. Timers publish
+ * percentiles and a histogram, and are looked up once per method and outcome so the hot path only pays for a map
+ * lookup and the clock reads. The same latencies feed the {@link LoadShedder}, except for {@code streamAll}, which
+ * lasts as long as the client takes to read the catalogue.
+ */
+@Aspect
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductServiceMetricsAspect {
+
+    public static final String TIMER_NAME = "product.service";
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String NO_EXCEPTION = "none";
+
+    private static final String STREAMING_METHOD = "streamAll";
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<LoadShedder> loadShedder;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * one.digitalinnovation.mynaturastock.service.ProductService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String method = joinPoint.getSignature().getName();
+        try {
+            Object result = joinPoint.proceed();
+            record(method, SUCCESS, NO_EXCEPTION, System.nanoTime() - start);
+            return result;
+        } catch (Throwable e) {
+            record(method, ERROR, e.getClass().getSimpleName(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private void record(String method, String outcome, String exception, long nanos) {
+        timer(method, outcome, exception).record(nanos, TimeUnit.NANOSECONDS);
+        LoadShedder shedder = loadShedder.getIfAvailable();
+        if (shedder != null && !STREAMING_METHOD.equals(method)) {
+            shedder.record(nanos);
+        }
+    }
+
+    private Timer timer(String method, String outcome, String exception) {
+        return timers.computeIfAbsent(method + '|' + outcome + '|' + exception, key -> Timer.builder(TIMER_NAME)
+                .description("Time spent in product service operations")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
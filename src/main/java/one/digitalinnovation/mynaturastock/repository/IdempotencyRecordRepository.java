@@ -0,0 +1,27 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + ProductRepository.STREAM_FETCH_SIZE))
+    @Query("select r from IdempotencyRecord r where r.createdAt >= :since order by r.createdAt")
+    Stream<IdempotencyRecord> streamCreatedSince(@Param("since") Instant since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
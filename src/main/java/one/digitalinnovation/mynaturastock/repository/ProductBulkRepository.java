@@ -0,0 +1,19 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+
+import java.util.List;
+
+/**
+ * Inserts products in JDBC batches, bypassing the persistence context, for imports too large to go through it.
+ */
+public interface ProductBulkRepository {
+
+    /**
+     * Inserts the products in one batch, with ids reserved from the product sequence a block at a time. The given
+     * products are not managed; their ids are set.
+     *
+     * @return the given products
+     */
+    List<Product> insertAll(List<Product> products);
+}
@@ -0,0 +1,54 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private static final String NEXT_ID_BLOCKS = "SELECT NEXT VALUE FOR " + Product.ID_SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+
+    private static final String INSERT_PRODUCT = "INSERT INTO product (id, name, min, quantity, type, version) "
+            + "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Product> insertAll(List<Product> products) {
+        assignIds(products);
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, products.size(), (statement, product) -> {
+            statement.setLong(1, product.getId());
+            statement.setString(2, product.getName());
+            statement.setInt(3, product.getMin());
+            statement.setInt(4, product.getQuantity());
+            statement.setString(5, product.getType().name());
+        });
+        return products;
+    }
+
+    /**
+     * Each sequence value {@code v} reserves the ids {@code v - ID_ALLOCATION_SIZE + 1} to {@code v}, as for JPA. The
+     * first value of the sequence is skipped, since JPA reads the block below it as starting at 1.
+     */
+    private void assignIds(List<Product> products) {
+        int assigned = 0;
+        while (assigned < products.size()) {
+            int missingBlocks = (products.size() - assigned + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+            for (long blockEnd : jdbcTemplate.queryForList(NEXT_ID_BLOCKS, Long.class, missingBlocks)) {
+                long blockStart = blockEnd - Product.ID_ALLOCATION_SIZE + 1;
+                if (blockStart < 1) {
+                    continue;
+                }
+                for (long id = blockStart; id <= blockEnd && assigned < products.size(); id++) {
+                    products.get(assigned++).setId(id);
+                }
+            }
+        }
+    }
+}
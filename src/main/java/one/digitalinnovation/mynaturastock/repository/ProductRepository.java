@@ -1,11 +1,47 @@
 package one.digitalinnovation.mynaturastock.repository;
 
 import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository, ProductBulkRepository {
+
+    int STREAM_FETCH_SIZE = 500;
 
     Optional<Product> findByName(String name);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Product> findByTypeOrderByIdAsc(Category type);
+
+    @Query("select p from Product p where p.stockMargin <= 0 order by p.stockMargin, p.id")
+    List<Product> findAtOrBelowMin();
+
+    @Query("select p.type as type, sum(p.quantity) as quantity from Product p group by p.type")
+    List<CategoryQuantity> sumQuantityByType();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select p.name from Product p")
+    Stream<String> streamAllNames();
+
+    interface CategoryQuantity {
+
+        Category getType();
+
+        Long getQuantity();
+    }
 }
@@ -0,0 +1,26 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+
+import java.util.Optional;
+
+/**
+ * Lock-free stock adjustments, each applied as a single conditional UPDATE that also returns the updated row.
+ * Products already loaded in the current persistence context are not refreshed by these operations.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Decrements the stock of a product only when the remaining quantity stays at or above its min.
+     *
+     * @return the updated product, or empty when the product does not exist or the stock would go below its min
+     */
+    Optional<Product> decrementStock(Long id, int quantity);
+
+    /**
+     * Increments the stock of a product.
+     *
+     * @return the updated product, or empty when the product does not exist
+     */
+    Optional<Product> incrementStock(Long id, int quantity);
+}
@@ -0,0 +1,64 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Optional;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String[] PRODUCT_COLUMNS = {"ID", "NAME", "MIN", "QUANTITY", "TYPE", "VERSION"};
+
+    private static final String DECREMENT_STOCK = "UPDATE product SET quantity = quantity - ?, version = version + 1 "
+            + "WHERE id = ? AND quantity - ? >= min";
+
+    private static final String INCREMENT_STOCK = "UPDATE product SET quantity = quantity + ?, version = version + 1 "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Optional<Product> decrementStock(Long id, int quantity) {
+        return updateStock(DECREMENT_STOCK, quantity, id, quantity);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Product> incrementStock(Long id, int quantity) {
+        return updateStock(INCREMENT_STOCK, quantity, id);
+    }
+
+    private Optional<Product> updateStock(String sql, Object... args) {
+        KeyHolder updatedColumns = new GeneratedKeyHolder();
+        int updatedRows = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, PRODUCT_COLUMNS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, updatedColumns);
+        if (updatedRows == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toProduct(updatedColumns.getKeys()));
+    }
+
+    private Product toProduct(Map<String, Object> columns) {
+        return new Product(((Number) columns.get("ID")).longValue(),
+                (String) columns.get("NAME"),
+                ((Number) columns.get("MIN")).intValue(),
+                ((Number) columns.get("QUANTITY")).intValue(),
+                Category.valueOf((String) columns.get("TYPE")),
+                ((Number) columns.get("VERSION")).longValue());
+    }
+}
@@ -0,0 +1,157 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Row;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository} on R2DBC, for the reactive variant of the products API. Stock
+ * changes are the same conditional UPDATEs as {@link ProductStockRepository}; as R2DBC H2 cannot return the updated
+ * row, it is read right after the update and may already include a later change.
+ */
+public class ReactiveProductRepository {
+
+    private static final String PRODUCT_COLUMNS = "id, name, min, quantity, type, version";
+
+    private static final String SELECT_PRODUCT = "SELECT " + PRODUCT_COLUMNS + " FROM product ";
+
+    private static final String INSERT_PRODUCT = "INSERT INTO product (id, name, min, quantity, type, version) "
+            + "VALUES (NEXT VALUE FOR " + Product.ID_SEQUENCE + ", :name, :min, :quantity, :type, 0)";
+
+    private static final String DECREMENT_STOCK = "UPDATE product SET quantity = quantity - :quantity, version = version + 1 "
+            + "WHERE id = :id AND quantity - :quantity >= min";
+
+    private static final String INCREMENT_STOCK = "UPDATE product SET quantity = quantity + :quantity, version = version + 1 "
+            + "WHERE id = :id";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public Mono<Product> findById(Long id) {
+        return databaseClient.execute(SELECT_PRODUCT + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Mono<Product> findByName(String name) {
+        return databaseClient.execute(SELECT_PRODUCT + "WHERE name = :name")
+                .bind("name", name)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Flux<Product> findAll() {
+        return databaseClient.execute(SELECT_PRODUCT + "ORDER BY id")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findByIdGreaterThan(Long id, int limit) {
+        return databaseClient.execute(SELECT_PRODUCT + "WHERE id > :id ORDER BY id LIMIT :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findByType(Category type) {
+        return databaseClient.execute(SELECT_PRODUCT + "WHERE type = :type ORDER BY id")
+                .bind("type", type.name())
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findAtOrBelowMin() {
+        return databaseClient.execute(SELECT_PRODUCT + "WHERE stock_margin <= 0 ORDER BY stock_margin, id")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.execute("SELECT id FROM product WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("id", Long.class))
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * Takes the id straight from the sequence. The value stands for a whole block of ids that no other insert uses,
+     * so it never collides with the ids allocated by JPA.
+     */
+    public Mono<Product> insert(Product product) {
+        return databaseClient.execute(INSERT_PRODUCT)
+                .bind("name", product.getName())
+                .bind("min", product.getMin())
+                .bind("quantity", product.getQuantity())
+                .bind("type", product.getType().name())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> new Product(id, product.getName(), product.getMin(), product.getQuantity(), product.getType(), 0L));
+    }
+
+    /**
+     * @return the number of deleted products, 0 when the product does not exist
+     */
+    public Mono<Integer> deleteById(Long id) {
+        return databaseClient.execute("DELETE FROM product WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Decrements the stock of a product only when the remaining quantity stays at or above its min.
+     *
+     * @return the updated product, or empty when the product does not exist or the stock would go below its min
+     */
+    public Mono<Product> decrementStock(Long id, int quantity) {
+        return updateStock(DECREMENT_STOCK, id, quantity);
+    }
+
+    /**
+     * Increments the stock of a product.
+     *
+     * @return the updated product, or empty when the product does not exist
+     */
+    public Mono<Product> incrementStock(Long id, int quantity) {
+        return updateStock(INCREMENT_STOCK, id, quantity);
+    }
+
+    /**
+     * Closes the connections of the pool.
+     */
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private Mono<Product> updateStock(String sql, Long id, int quantity) {
+        return databaseClient.execute(sql)
+                .bind("id", id)
+                .bind("quantity", quantity)
+                .fetch()
+                .rowsUpdated()
+                .filter(updatedRows -> updatedRows > 0)
+                .flatMap(updatedRows -> findById(id));
+    }
+
+    private static Product toProduct(Row row) {
+        return new Product(row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("min", Integer.class),
+                row.get("quantity", Integer.class),
+                Category.valueOf(row.get("type", String.class)),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Sends the read-only transactions of the services to the replica and everything else to the primary. Only
+ * transactions started by a service method count: the read-only transactions Spring Data opens on its own, such as
+ * the lookups a service makes before changing a product, stay on the primary, where they see the latest writes.
+ * The transaction is only known once it has begun, so the connection is only borrowed at the first statement, as
+ * {@link LazyConnectionDataSourceProxy} does. Closing this data source closes both pools.
+ * <p>
+ * A thread can ask for the primary for its reads too, see {@link #requirePrimary(boolean)}; and it can tell whether
+ * its last connection came from the replica, so results that may lag behind are neither cached nor tagged with a
+ * version they may not match.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private static final String SERVICE_PACKAGE = ProductService.class.getPackageName() + '.';
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Boolean> READ_FROM_REPLICA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private volatile boolean replicaAvailable;
+
+    /**
+     * @param replicaAvailable false for a replica that still has to be filled, which gets no reads until it is made
+     *                         available
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, boolean replicaAvailable) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaAvailable = replicaAvailable;
+        Router router = new Router();
+        router.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    public static void requirePrimary(boolean primaryRequired) {
+        PRIMARY_REQUIRED.set(primaryRequired);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    /**
+     * Whether the last connection borrowed by this thread came from the replica.
+     */
+    public static boolean readFromReplica() {
+        return READ_FROM_REPLICA.get();
+    }
+
+    /**
+     * Carries the choice of the current thread over to the thread running the given task.
+     */
+    public static Runnable propagate(Runnable task) {
+        boolean primaryRequired = isPrimaryRequired();
+        return () -> {
+            boolean previous = isPrimaryRequired();
+            requirePrimary(primaryRequired);
+            try {
+                task.run();
+            } finally {
+                requirePrimary(previous);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        closeIfPossible(replica);
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) {
+        if (dataSource instanceof Closeable) {
+            try {
+                ((Closeable) dataSource).close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static boolean isServiceTransaction(String transactionName) {
+        return transactionName != null && transactionName.startsWith(SERVICE_PACKAGE);
+    }
+
+    private final class Router extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            boolean replica = replicaAvailable
+                    && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && !isPrimaryRequired()
+                    && isServiceTransaction(TransactionSynchronizationManager.getCurrentTransactionName());
+            READ_FROM_REPLICA.set(replica);
+            return replica ? REPLICA : PRIMARY;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps an H2 replica in step with an H2 primary for local runs and tests, where no real replication is available.
+ * The schema is copied once, then every run copies all the rows of the primary, read in one transaction, and replaces
+ * those of the replica in one transaction, so readers of the replica see either the previous copy or the new one. The
+ * replica lags behind the primary by up to the replication interval, as a real one lags by its replication delay, and
+ * gets no reads before its first copy.
+ */
+@Slf4j
+public class ReplicationStub {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final DataSource primary;
+    private final DataSource replica;
+    private List<String> tables;
+
+    public ReplicationStub(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+        this.primary = routingDataSource.getPrimary();
+        this.replica = routingDataSource.getReplica();
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${mynaturastock.replica.replication-interval-ms:1000}")
+    public synchronized void replicate() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection source = primary.getConnection(); Connection target = replica.getConnection()) {
+            if (tables == null) {
+                tables = copySchema(source, target);
+            }
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            try (Statement statement = target.createStatement()) {
+                statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+                try {
+                    for (String table : tables) {
+                        statement.executeUpdate("DELETE FROM " + table);
+                        copyRows(source, target, table);
+                    }
+                    target.commit();
+                } catch (SQLException e) {
+                    target.rollback();
+                    throw e;
+                } finally {
+                    statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                    source.commit();
+                }
+            }
+        }
+        routingDataSource.setReplicaAvailable(true);
+        log.debug("Replicated {} tables in {} ms", tables.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static List<String> copySchema(Connection source, Connection target) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement sourceStatement = source.createStatement(); Statement targetStatement = target.createStatement()) {
+            try (ResultSet script = sourceStatement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+                while (script.next()) {
+                    String sql = script.getString(1);
+                    if (!sql.toUpperCase(Locale.ROOT).startsWith("CREATE USER")) {
+                        targetStatement.execute(sql);
+                    }
+                }
+            }
+            try (ResultSet names = sourceStatement.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                    + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'TABLE'")) {
+                while (names.next()) {
+                    tables.add('"' + names.getString(1) + '"');
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static void copyRows(Connection source, Connection target, String table) throws SQLException {
+        try (Statement select = source.createStatement(); ResultSet rows = select.executeQuery("SELECT * FROM " + table)) {
+            int columns = rows.getMetaData().getColumnCount();
+            StringBuilder insert = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (?");
+            for (int column = 1; column < columns; column++) {
+                insert.append(", ?");
+            }
+            try (PreparedStatement statement = target.prepareStatement(insert.append(')').toString())) {
+                int batched = 0;
+                while (rows.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        statement.setObject(column, rows.getObject(column));
+                    }
+                    statement.addBatch();
+                    if (++batched == BATCH_SIZE) {
+                        statement.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+    Optional<Warehouse> findByCode(String code);
+}
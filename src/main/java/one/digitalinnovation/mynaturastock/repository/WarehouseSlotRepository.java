@@ -0,0 +1,39 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import java.util.Collection;
+
+/**
+ * Lock-free changes to single warehouse stock slots, each applied as one conditional UPDATE, and the bulk statements
+ * that seed the slots and write their sums back to the products.
+ */
+public interface WarehouseSlotRepository {
+
+    /**
+     * Decrements a slot only when it stays at or above its own share of the product min.
+     *
+     * @return whether the slot was decremented
+     */
+    boolean decrementSlot(Long productId, Long warehouseId, int slot, int quantity);
+
+    /**
+     * @return whether the slot exists and was incremented
+     */
+    boolean incrementSlot(Long productId, Long warehouseId, int slot, int quantity);
+
+    /**
+     * Inserts the slots of a product at a warehouse, spreading the quantity and the min evenly across them.
+     */
+    void insertSlots(Long productId, Long warehouseId, int slots, int quantity, int min);
+
+    /**
+     * Gives every product without stock at any warehouse its slots at the given one, holding its whole quantity.
+     *
+     * @return how many products got slots
+     */
+    int insertSlotsForProductsWithoutStock(Long warehouseId, int slots);
+
+    /**
+     * Sets the quantity of the given products to the sum of their slots.
+     */
+    void writeBackQuantities(Collection<Long> productIds);
+}
@@ -0,0 +1,81 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WarehouseSlotRepositoryImpl implements WarehouseSlotRepository {
+
+    private static final String DECREMENT_SLOT = "UPDATE warehouse_stock SET quantity = quantity - ? "
+            + "WHERE product_id = ? AND warehouse_id = ? AND slot = ? AND quantity - ? >= min_quantity";
+
+    private static final String INCREMENT_SLOT = "UPDATE warehouse_stock SET quantity = quantity + ? "
+            + "WHERE product_id = ? AND warehouse_id = ? AND slot = ?";
+
+    private static final String INSERT_SLOT = "INSERT INTO warehouse_stock (product_id, warehouse_id, slot, quantity, min_quantity) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SLOTS_FOR_PRODUCTS_WITHOUT_STOCK = "INSERT INTO warehouse_stock "
+            + "(product_id, warehouse_id, slot, quantity, min_quantity) "
+            + "SELECT p.id, ?, r.x, p.quantity / ? + CASE WHEN r.x < MOD(p.quantity, ?) THEN 1 ELSE 0 END, "
+            + "p.min / ? + CASE WHEN r.x < MOD(p.min, ?) THEN 1 ELSE 0 END "
+            + "FROM product p, SYSTEM_RANGE(0, ?) r "
+            + "WHERE NOT EXISTS (SELECT 1 FROM warehouse_stock s WHERE s.product_id = p.id)";
+
+    private static final String WRITE_BACK_QUANTITY = "UPDATE product SET version = version + 1, quantity = "
+            + "(SELECT COALESCE(SUM(s.quantity), 0) FROM warehouse_stock s WHERE s.product_id = ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public boolean decrementSlot(Long productId, Long warehouseId, int slot, int quantity) {
+        return jdbcTemplate.update(DECREMENT_SLOT, quantity, productId, warehouseId, slot, quantity) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean incrementSlot(Long productId, Long warehouseId, int slot, int quantity) {
+        return jdbcTemplate.update(INCREMENT_SLOT, quantity, productId, warehouseId, slot) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void insertSlots(Long productId, Long warehouseId, int slots, int quantity, int min) {
+        List<Object[]> rows = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(new Object[]{productId, warehouseId, slot, share(quantity, slots, slot), share(min, slots, slot)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SLOT, rows);
+    }
+
+    @Override
+    @Transactional
+    public int insertSlotsForProductsWithoutStock(Long warehouseId, int slots) {
+        return jdbcTemplate.update(INSERT_SLOTS_FOR_PRODUCTS_WITHOUT_STOCK, warehouseId, slots, slots, slots, slots, slots - 1) / slots;
+    }
+
+    @Override
+    @Transactional
+    public void writeBackQuantities(Collection<Long> productIds) {
+        List<Object[]> rows = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            rows.add(new Object[]{productId, productId});
+        }
+        jdbcTemplate.batchUpdate(WRITE_BACK_QUANTITY, rows);
+    }
+
+    /**
+     * The part of {@code total} held by a slot when it is spread evenly, the first slots taking the remainder. Since
+     * a quantity is never below the min, no slot gets a greater share of the min than of the quantity.
+     */
+    private static int share(int total, int slots, int slot) {
+        return total / slots + (slot < total % slots ? 1 : 0);
+    }
+}
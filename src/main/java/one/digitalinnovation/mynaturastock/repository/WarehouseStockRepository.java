@@ -0,0 +1,34 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.WarehouseStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, WarehouseStock.Key>, WarehouseSlotRepository {
+
+    boolean existsByProductId(Long productId);
+
+    List<WarehouseStock> findByProductIdOrderByWarehouseIdAscSlotAsc(Long productId);
+
+    @Query("select coalesce(sum(s.quantity), 0) from WarehouseStock s where s.productId = :productId")
+    int sumQuantityByProductId(@Param("productId") Long productId);
+
+    /**
+     * Locks every slot of a product, for changes that have to span several slots.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WarehouseStock s where s.productId = :productId order by s.warehouseId, s.slot")
+    List<WarehouseStock> lockByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from WarehouseStock s where s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,132 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * A compact binary layout of the catalogue, meant to be gzipped. After a header holding {@link #MAGIC} and
+ * {@link #VERSION}, products come in row groups of up to {@link #ROW_GROUP_SIZE} rows, each laid out column by column:
+ * the row count, then the ids as longs, the mins and the quantities as ints, the category ordinals as bytes and the
+ * names in modified UTF-8. A row count of 0 ends the file. Readers can skip the columns they do not need, and a
+ * column of similar values compresses better than rows of mixed ones. All numbers are big-endian.
+ */
+public final class CatalogueBinaryFormat {
+
+    public static final int MAGIC = 0x4D4E5343;
+    public static final int VERSION = 1;
+    public static final int ROW_GROUP_SIZE = 4096;
+
+    private CatalogueBinaryFormat() {
+    }
+
+    /**
+     * Reads the products of a catalogue written in this format, already decompressed.
+     */
+    public static void read(InputStream inputStream, Consumer<ProductDTO> productConsumer) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a binary catalogue");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary catalogue version " + version);
+        }
+        Category[] categories = Category.values();
+        RowGroup rowGroup = new RowGroup();
+        for (int rows = input.readInt(); rows > 0; rows = input.readInt()) {
+            for (int row = 0; row < rows; row++) {
+                rowGroup.ids[row] = input.readLong();
+            }
+            for (int row = 0; row < rows; row++) {
+                rowGroup.mins[row] = input.readInt();
+            }
+            for (int row = 0; row < rows; row++) {
+                rowGroup.quantities[row] = input.readInt();
+            }
+            for (int row = 0; row < rows; row++) {
+                rowGroup.types[row] = input.readByte();
+            }
+            for (int row = 0; row < rows; row++) {
+                productConsumer.accept(ProductDTO.builder()
+                        .id(rowGroup.ids[row])
+                        .name(input.readUTF())
+                        .min(rowGroup.mins[row])
+                        .quantity(rowGroup.quantities[row])
+                        .type(categories[rowGroup.types[row]])
+                        .build());
+            }
+        }
+    }
+
+    static final class Writer {
+
+        private final DataOutputStream output;
+        private final RowGroup rowGroup = new RowGroup();
+        private int rows;
+
+        Writer(OutputStream outputStream) throws IOException {
+            output = new DataOutputStream(outputStream);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+        }
+
+        void write(ProductDTO product) throws IOException {
+            rowGroup.ids[rows] = product.getId();
+            rowGroup.mins[rows] = product.getMin();
+            rowGroup.quantities[rows] = product.getQuantity();
+            rowGroup.types[rows] = (byte) product.getType().ordinal();
+            rowGroup.names[rows] = product.getName();
+            rows++;
+            if (rows == ROW_GROUP_SIZE) {
+                writeRowGroup();
+            }
+        }
+
+        /**
+         * Writes the last row group and the end of the file, without closing the underlying stream.
+         */
+        void finish() throws IOException {
+            if (rows > 0) {
+                writeRowGroup();
+            }
+            output.writeInt(0);
+            output.flush();
+        }
+
+        private void writeRowGroup() throws IOException {
+            output.writeInt(rows);
+            for (int row = 0; row < rows; row++) {
+                output.writeLong(rowGroup.ids[row]);
+            }
+            for (int row = 0; row < rows; row++) {
+                output.writeInt(rowGroup.mins[row]);
+            }
+            for (int row = 0; row < rows; row++) {
+                output.writeInt(rowGroup.quantities[row]);
+            }
+            for (int row = 0; row < rows; row++) {
+                output.writeByte(rowGroup.types[row]);
+            }
+            for (int row = 0; row < rows; row++) {
+                output.writeUTF(rowGroup.names[row]);
+            }
+            rows = 0;
+        }
+    }
+
+    private static final class RowGroup {
+
+        private final long[] ids = new long[ROW_GROUP_SIZE];
+        private final int[] mins = new int[ROW_GROUP_SIZE];
+        private final int[] quantities = new int[ROW_GROUP_SIZE];
+        private final byte[] types = new byte[ROW_GROUP_SIZE];
+        private final String[] names = new String[ROW_GROUP_SIZE];
+    }
+}
@@ -0,0 +1,203 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.CatalogueExportFormat;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.CatalogueExportNotReadyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the whole catalogue in the background to gzipped files, as CSV and in the {@link CatalogueBinaryFormat},
+ * both written in one pass over the products. The files are served as they are, so downloads cost no database work
+ * and can go straight from the page cache to the socket. An export is skipped while no product changed since the
+ * previous one. Each export is written under a new name and the previous one is kept, so a download that started
+ * before a new export can still read its file; older exports are deleted.
+ */
+@Slf4j
+public class CatalogueExportService {
+
+    private static final String EXPORT_PREFIX = "catalogue-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String CSV_HEADER = "id,name,min,quantity,type\n";
+
+    private final ProductService productService;
+    private final Path directory;
+
+    private final AtomicBoolean changed = new AtomicBoolean(true);
+    private final Map<CatalogueExportFormat, CatalogueExport> previousExports = new EnumMap<>(CatalogueExportFormat.class);
+    private volatile Map<CatalogueExportFormat, CatalogueExport> latestExports = new EnumMap<>(CatalogueExportFormat.class);
+    private long generation;
+
+    public CatalogueExportService(ProductService productService, Path directory) {
+        this.productService = productService;
+        this.directory = directory;
+    }
+
+    /**
+     * Deletes the exports left by a previous run, which may no longer match the database.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, EXPORT_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public CatalogueExport latest(CatalogueExportFormat format) throws CatalogueExportNotReadyException {
+        CatalogueExport export = latestExports.get(format);
+        if (export == null) {
+            throw new CatalogueExportNotReadyException();
+        }
+        return export;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed.set(true);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${mynaturastock.export.interval-ms:300000}")
+    public synchronized void export() throws IOException {
+        if (!changed.getAndSet(false)) {
+            return;
+        }
+        generation++;
+        long start = System.nanoTime();
+        Map<CatalogueExportFormat, CatalogueExport> exports = new EnumMap<>(CatalogueExportFormat.class);
+        try (ExportFile csvFile = new ExportFile(CatalogueExportFormat.CSV);
+             ExportFile binaryFile = new ExportFile(CatalogueExportFormat.BINARY)) {
+            Writer csvWriter = new BufferedWriter(new OutputStreamWriter(csvFile.output, StandardCharsets.UTF_8));
+            CatalogueBinaryFormat.Writer binaryWriter = new CatalogueBinaryFormat.Writer(binaryFile.output);
+            csvWriter.write(CSV_HEADER);
+            productService.streamAll(product -> {
+                try {
+                    writeCsv(csvWriter, product);
+                    binaryWriter.write(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            csvWriter.flush();
+            binaryWriter.finish();
+            exports.put(CatalogueExportFormat.CSV, csvFile.publish());
+            exports.put(CatalogueExportFormat.BINARY, binaryFile.publish());
+        } catch (IOException | RuntimeException e) {
+            changed.set(true);
+            throw e;
+        }
+        Map<CatalogueExportFormat, CatalogueExport> replacedExports = latestExports;
+        latestExports = exports;
+        for (CatalogueExport previousExport : previousExports.values()) {
+            Files.deleteIfExists(previousExport.getPath());
+        }
+        previousExports.clear();
+        previousExports.putAll(replacedExports);
+        log.debug("Exported the catalogue in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void writeCsv(Writer writer, ProductDTO product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getName());
+        writer.write(',');
+        writer.write(String.valueOf(product.getMin()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getQuantity()));
+        writer.write(',');
+        writer.write(product.getType().name());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String field) throws IOException {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * One export file, written under a temporary name and moved into place once complete. Its ETag is the CRC-32 and
+     * the length of the compressed bytes.
+     */
+    private final class ExportFile implements Closeable {
+
+        private final CatalogueExportFormat format;
+        private final Path temporaryPath;
+        private final CheckedOutputStream checkedOutput;
+        private final OutputStream output;
+        private boolean published;
+
+        private ExportFile(CatalogueExportFormat format) throws IOException {
+            this.format = format;
+            this.temporaryPath = directory.resolve(fileName() + TEMPORARY_SUFFIX);
+            this.checkedOutput = new CheckedOutputStream(Files.newOutputStream(temporaryPath), new CRC32());
+            this.output = new BufferedOutputStream(new GZIPOutputStream(checkedOutput, 1 << 16), 1 << 16);
+        }
+
+        private CatalogueExport publish() throws IOException {
+            output.close();
+            Path path = Files.move(temporaryPath, directory.resolve(fileName()), StandardCopyOption.ATOMIC_MOVE);
+            published = true;
+            long size = Files.size(path);
+            String etag = String.format("\"%08x-%x\"", checkedOutput.getChecksum().getValue(), size);
+            return new CatalogueExport(format, path, etag, size, Instant.now());
+        }
+
+        private String fileName() {
+            return String.format("%s%020d-%s", EXPORT_PREFIX, generation, format.getFileName());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!published) {
+                output.close();
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+    }
+
+    @Value
+    public static class CatalogueExport {
+
+        CatalogueExportFormat format;
+
+        Path path;
+
+        String etag;
+
+        long size;
+
+        Instant exportedAt;
+    }
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+
+import java.util.Optional;
+
+/**
+ * Applies each stock change as one atomic conditional UPDATE on the product row.
+ */
+@AllArgsConstructor
+public class DatabaseStockEngine implements StockEngine {
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public Product decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
+        Optional<Product> decrementedProductStock = productRepository.decrementStock(id, quantityToDecrement);
+        if (decrementedProductStock.isPresent()) {
+            return decrementedProductStock.get();
+        }
+        if (!productRepository.existsById(id)) {
+            throw new ProductNotFoundException(id);
+        }
+        throw new ProductStockExceededException(id, quantityToDecrement);
+    }
+
+    @Override
+    public Product increment(Long id, int quantityToIncrement) throws ProductNotFoundException {
+        return productRepository.incrementStock(id, quantityToIncrement)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+    }
+}
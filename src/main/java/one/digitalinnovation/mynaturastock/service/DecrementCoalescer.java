@@ -0,0 +1,222 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the decrements of the same product that arrive within a short window, or until a batch is full, and
+ * writes them with a single decrement of their sum, so a hot product pays for one write per batch instead of one per
+ * request. When the sum does not fit above the min, the decrements are checked in arrival order against the current
+ * stock: those that still fit are written together and the others fail with {@link ProductStockExceededException},
+ * as they would have one by one. Each caller gets the product as it was right after its own decrement. A batch is
+ * published as one {@code DECREMENTED} change with the sum of its decrements. Decrements skip the request executor, so
+ * the coalescer bounds its own backlog: past {@code maxPending} decrements not yet written, new ones fail with
+ * {@link ServiceOverloadedException} instead of queueing.
+ */
+public class DecrementCoalescer implements AutoCloseable {
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final StockHolds stockHolds;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int maxPending;
+    private final ScheduledThreadPoolExecutor flushScheduler;
+
+    private final ConcurrentMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+    private final LongAdder writeCount = new LongAdder();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public DecrementCoalescer(ProductService productService, ProductRepository productRepository, StockEngine stockEngine,
+                              StockHolds stockHolds, Duration window, int maxBatch, int maxPending, int flushThreads) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.stockEngine = stockEngine;
+        this.stockHolds = stockHolds;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.maxPending = maxPending;
+        this.flushScheduler = new ScheduledThreadPoolExecutor(flushThreads, new CustomizableThreadFactory("decrement-flush-"));
+        this.flushScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public CompletableFuture<ProductDTO> decrement(Long productId, int quantityToDecrement) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            return CompletableFuture.failedFuture(new ServiceOverloadedException(
+                    String.format("More than %d decrements are waiting to be written, try again later", maxPending)));
+        }
+        PendingDecrement pending = new PendingDecrement(quantityToDecrement);
+        pending.result.whenComplete((productDTO, e) -> pendingCount.decrementAndGet());
+        Batch batch;
+        do {
+            batch = openBatches.computeIfAbsent(productId, this::openBatch);
+        } while (!batch.add(pending));
+        return pending.result;
+    }
+
+    /**
+     * @return how many decrements were written to the stock engine, one per flushed batch when all fit
+     */
+    public long writeCount() {
+        return writeCount.sum();
+    }
+
+    /**
+     * @return how many decrements were accepted and not written yet
+     */
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+    }
+
+    private Batch openBatch(Long productId) {
+        Batch batch = new Batch(productId);
+        batch.timer = flushScheduler.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void flush(Batch batch) {
+        if (batch.close()) {
+            write(batch.productId, batch.decrements);
+        }
+    }
+
+    private void write(Long productId, List<PendingDecrement> decrements) {
+        if (decrements.isEmpty()) {
+            return;
+        }
+        int total = 0;
+        for (PendingDecrement decrement : decrements) {
+            total += decrement.quantity;
+        }
+        try {
+            writeCount.increment();
+            complete(decrements, total, productService.decrement(productId, total));
+        } catch (ProductStockExceededException e) {
+            writeThoseThatFit(productId, decrements);
+        } catch (ProductNotFoundException | RuntimeException e) {
+            decrements.forEach(decrement -> decrement.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Drops, in arrival order, the decrements that would take the current stock below the min, once the stock held by
+     * reservations is set aside, and writes the rest; a concurrent decrement or hold may take the stock first, in
+     * which case the rest is checked again.
+     */
+    private void writeThoseThatFit(Long productId, List<PendingDecrement> decrements) {
+        Product product;
+        try {
+            product = stockEngine.withCurrentStock(productRepository.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId)));
+        } catch (ProductNotFoundException | RuntimeException e) {
+            decrements.forEach(decrement -> decrement.result.completeExceptionally(e));
+            return;
+        }
+        int available = product.getQuantity() - stockHolds.heldFor(productId) - product.getMin();
+        List<PendingDecrement> fitting = new ArrayList<>(decrements.size());
+        for (PendingDecrement decrement : decrements) {
+            if (decrement.quantity <= available) {
+                available -= decrement.quantity;
+                fitting.add(decrement);
+            } else {
+                decrement.result.completeExceptionally(new ProductStockExceededException(productId, decrement.quantity));
+            }
+        }
+        write(productId, fitting);
+    }
+
+    private static void complete(List<PendingDecrement> decrements, int total, ProductDTO decrementedProduct) {
+        int remaining = total;
+        for (PendingDecrement decrement : decrements) {
+            remaining -= decrement.quantity;
+            ProductDTO productDTO = ProductDTO.builder()
+                    .id(decrementedProduct.getId())
+                    .name(decrementedProduct.getName())
+                    .min(decrementedProduct.getMin())
+                    .quantity(decrementedProduct.getQuantity() + remaining)
+                    .type(decrementedProduct.getType())
+                    .build();
+            decrement.result.complete(productDTO);
+        }
+    }
+
+    private final class Batch {
+
+        private final Long productId;
+        private final List<PendingDecrement> decrements = new ArrayList<>();
+        private boolean closed;
+        private ScheduledFuture<?> timer;
+
+        private Batch(Long productId) {
+            this.productId = productId;
+        }
+
+        /**
+         * @return false when the batch was already closed, so the decrement belongs in the next one
+         */
+        private boolean add(PendingDecrement decrement) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                decrements.add(decrement);
+                if (decrements.size() < maxBatch) {
+                    return true;
+                }
+            }
+            if (close()) {
+                timer.cancel(false);
+                flushScheduler.execute(() -> write(productId, decrements));
+            }
+            return true;
+        }
+
+        /**
+         * @return true for the one caller that closes the batch and must write it
+         */
+        private boolean close() {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+            }
+            openBatches.remove(productId, this);
+            return true;
+        }
+    }
+
+    private static final class PendingDecrement {
+
+        private final int quantity;
+        private final CompletableFuture<ProductDTO> result = new CompletableFuture<>();
+
+        private PendingDecrement(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
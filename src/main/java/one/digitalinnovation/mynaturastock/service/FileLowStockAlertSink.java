@@ -0,0 +1,40 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import one.digitalinnovation.mynaturastock.event.LowStockAlert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends low stock alerts to a local file as newline delimited JSON, one alert per line, flushed as each is written.
+ */
+public class FileLowStockAlertSink implements LowStockAlertSink, AutoCloseable {
+
+    private final ObjectWriter alertWriter;
+    private final BufferedWriter writer;
+
+    public FileLowStockAlertSink(Path file, ObjectWriter alertWriter) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.alertWriter = alertWriter.forType(LowStockAlert.class);
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void deliver(LowStockAlert alert) throws IOException {
+        writer.write(alertWriter.writeValueAsString(alert));
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
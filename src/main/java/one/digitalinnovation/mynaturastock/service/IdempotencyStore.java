@@ -0,0 +1,297 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.IdempotencyRecord;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.exception.IdempotencyKeyInUseException;
+import one.digitalinnovation.mynaturastock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.repository.IdempotencyRecordRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Remembers the responses to stock changes sent with an idempotency key, so that a retried request is answered with
+ * the stored product instead of changing the stock again. Keys are kept for {@code ttl} in a ring of time buckets,
+ * each covering {@code ttl / buckets}: a key is stored in the bucket of the time it was first seen and looked up in
+ * the buckets still inside the ttl, and a whole bucket is dropped at once when the ring comes back to it. When
+ * {@code maxKeys} are held, the oldest buckets are dropped early to make room for a new key; when the current bucket
+ * alone holds them, new keys are refused with {@link ServiceOverloadedException} until the next bucket starts, rather
+ * than stored past the bound or run without a key. Only successful responses are stored; a request that fails frees
+ * its key for a retry.
+ * <p>
+ * A key is held as the 128-bit MD5 hash of its text and the response as the product in its CBOR array form. With
+ * compressed oops one key costs about 157 bytes of heap for a product named in 21 characters, around 150 MB per million
+ * keys, and each further character of the name adds a byte.
+ * <p>
+ * With a {@link IdempotencyRecordRepository}, each stored response is also inserted into the database and the keys
+ * still inside the ttl are loaded back on startup.
+ */
+@Slf4j
+public class IdempotencyStore {
+
+    /**
+     * The heap cost of one stored key is kept under this many bytes for products named in up to 35 characters.
+     */
+    public static final int BYTES_PER_KEY = 176;
+
+    private final ObjectWriter productWriter;
+    private final ObjectReader productReader;
+    private final IdempotencyRecordRepository records;
+    private final TransactionOperations transactionOperations;
+    private final Clock clock;
+    private final Duration ttl;
+    private final long bucketMillis;
+    private final int maxKeys;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * @param cborMapper an object mapper writing CBOR, with products encoded as arrays
+     * @param records    where stored responses are also written, or null to keep them in memory only
+     */
+    public IdempotencyStore(ObjectMapper cborMapper, IdempotencyRecordRepository records,
+                            TransactionOperations transactionOperations, Clock clock, Duration ttl, int buckets, int maxKeys) {
+        this.productWriter = cborMapper.writerFor(ProductDTO.class);
+        this.productReader = cborMapper.readerFor(ProductDTO.class);
+        this.records = records;
+        this.transactionOperations = transactionOperations;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.bucketMillis = Math.max(1, ttl.toMillis() / buckets);
+        this.maxKeys = maxKeys;
+        this.buckets = new AtomicReferenceArray<>(buckets);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (records == null) {
+            return;
+        }
+        Instant since = clock.instant().minus(ttl);
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<IdempotencyRecord> storedRecords = records.streamCreatedSince(since)) {
+                storedRecords.forEach(record -> bucketAt(record.getCreatedAt().toEpochMilli() / bucketMillis).responses
+                        .put(new UUID(record.getKeyHigh(), record.getKeyLow()), new StoredResponse(record.getOperation(),
+                                record.getProductId(), record.getQuantity(), record.getResponse())));
+            }
+        });
+        log.info("Loaded {} idempotency keys", size());
+    }
+
+    /**
+     * Answers a stock change sent with an idempotency key: with the stored product when the same change was already
+     * made with that key, and otherwise by running {@code request} and storing its product.
+     *
+     * @return the product, or a future failed with {@link IdempotencyKeyInUseException} while a request with the key
+     * is still running, with {@link IdempotencyKeyReusedException} when the key was used for a different change, or
+     * with {@link ServiceOverloadedException} when no new key can be held
+     */
+    public CompletableFuture<ProductDTO> execute(String idempotencyKey, ProductChangeType operation, Long productId,
+                                                 int quantity, Supplier<CompletableFuture<ProductDTO>> request) {
+        UUID key = UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        long now = clock.millis();
+        long epoch = now / bucketMillis;
+        StoredResponse pending = new StoredResponse(operation, productId, quantity, null);
+        StoredResponse stored = find(key, epoch);
+        Bucket bucket = null;
+        if (stored == null) {
+            if (!evictOverflow(epoch)) {
+                return CompletableFuture.failedFuture(new ServiceOverloadedException(
+                        String.format("More than %d idempotency keys were sent recently, try again later", maxKeys)));
+            }
+            bucket = bucketAt(epoch);
+            stored = bucket.responses.putIfAbsent(key, pending);
+        }
+        if (stored != null) {
+            if (!stored.isSameChange(operation, productId, quantity)) {
+                return CompletableFuture.failedFuture(new IdempotencyKeyReusedException(idempotencyKey));
+            }
+            if (stored.response == null) {
+                return CompletableFuture.failedFuture(new IdempotencyKeyInUseException(idempotencyKey));
+            }
+            return CompletableFuture.completedFuture(read(stored.response));
+        }
+        Bucket pendingBucket = bucket;
+        CompletableFuture<ProductDTO> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            pendingBucket.responses.remove(key, pending);
+            throw e;
+        }
+        return response.whenComplete((product, failure) -> {
+            if (failure != null) {
+                pendingBucket.responses.remove(key, pending);
+                return;
+            }
+            StoredResponse completed = new StoredResponse(operation, productId, quantity, write(product));
+            pendingBucket.responses.replace(key, pending, completed);
+            if (records != null) {
+                persist(key, completed, now);
+            }
+        });
+    }
+
+    /**
+     * How many keys are held, including those of requests still running.
+     */
+    public long size() {
+        long size = 0;
+        long epoch = clock.millis() / bucketMillis;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch > epoch - buckets.length()) {
+                size += bucket.responses.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Drops the buckets past the ttl, and the database records past it.
+     */
+    @Scheduled(fixedDelayString = "${mynaturastock.idempotency.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long epoch = clock.millis() / bucketMillis;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch <= epoch - buckets.length()) {
+                buckets.compareAndSet(i, bucket, null);
+            }
+        }
+        if (records != null) {
+            int deleted = records.deleteCreatedBefore(clock.instant().minus(ttl));
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private StoredResponse find(UUID key, long epoch) {
+        for (long bucketEpoch = epoch; bucketEpoch > epoch - buckets.length(); bucketEpoch--) {
+            Bucket bucket = buckets.get(index(bucketEpoch));
+            if (bucket != null && bucket.epoch == bucketEpoch) {
+                StoredResponse stored = bucket.responses.get(key);
+                if (stored != null) {
+                    return stored;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The bucket of an epoch, replacing the one the ring held there, which is past the ttl.
+     */
+    private Bucket bucketAt(long epoch) {
+        int index = index(epoch);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            Bucket newBucket = new Bucket(epoch);
+            if (buckets.compareAndSet(index, bucket, newBucket)) {
+                return newBucket;
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest buckets until there is room for one more key, leaving the current one.
+     *
+     * @return whether there is room
+     */
+    private boolean evictOverflow(long epoch) {
+        if (size() < maxKeys) {
+            return true;
+        }
+        for (long bucketEpoch = epoch - buckets.length() + 1; bucketEpoch < epoch && size() >= maxKeys; bucketEpoch++) {
+            int index = index(bucketEpoch);
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && buckets.compareAndSet(index, bucket, null)) {
+                log.warn("Dropped {} idempotency keys before their ttl, {} keys are held",
+                        bucket.responses.size(), maxKeys);
+            }
+        }
+        return size() < maxKeys;
+    }
+
+    private void persist(UUID key, StoredResponse stored, long createdAtMillis) {
+        try {
+            records.save(new IdempotencyRecord(key.getMostSignificantBits(), key.getLeastSignificantBits(),
+                    stored.operation, stored.productId, stored.quantity, stored.response, Instant.ofEpochMilli(createdAtMillis)));
+        } catch (RuntimeException e) {
+            log.warn("Could not store idempotency key {}, it will be lost on restart", key, e);
+        }
+    }
+
+    private int index(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length());
+    }
+
+    private byte[] write(ProductDTO product) {
+        try {
+            return productWriter.writeValueAsBytes(product);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ProductDTO read(byte[] response) {
+        try {
+            return productReader.readValue(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final ConcurrentHashMap<UUID, StoredResponse> responses = new ConcurrentHashMap<>();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * A stored response, or the marker of a request still running when {@code response} is null.
+     */
+    private static final class StoredResponse {
+
+        private final ProductChangeType operation;
+        private final long productId;
+        private final int quantity;
+        private final byte[] response;
+
+        private StoredResponse(ProductChangeType operation, long productId, int quantity, byte[] response) {
+            this.operation = operation;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.response = response;
+        }
+
+        private boolean isSameChange(ProductChangeType operation, Long productId, int quantity) {
+            return this.operation == operation && this.productId == productId && this.quantity == quantity;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the stock of every product in a {@link StockLedger} and applies stock changes in memory, without touching
+ * the database. Each change is appended to a {@link StockWriteAheadLog} before it is acknowledged, and the changed
+ * quantities are written back to the database in batches by {@link #flush()}. On startup the stock is loaded from
+ * the database and the log left by the previous run is replayed on top of it, so no acknowledged change is lost if
+ * the application stops before a flush.
+ */
+@Slf4j
+public class LedgerStockEngine implements StockEngine {
+
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final TransactionOperations transactionOperations;
+    private final Path directory;
+    private final boolean fsync;
+
+    private final StockLedger ledger = new StockLedger();
+    private final Map<Long, Product> productsById = new ConcurrentHashMap<>();
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+    private StockWriteAheadLog writeAheadLog;
+
+    public LedgerStockEngine(ProductRepository productRepository, TransactionOperations transactionOperations,
+                             Path directory, boolean fsync) {
+        this.productRepository = productRepository;
+        this.transactionOperations = transactionOperations;
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(this::register);
+            }
+        });
+        StockWriteAheadLog.replay(directory, ledger::setQuantity);
+        writeAheadLog = new StockWriteAheadLog(directory, fsync);
+        flush();
+    }
+
+    @Override
+    public Product decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
+        int quantity = ledger.decrement(id, quantityToDecrement);
+        log(id);
+        return copyOf(id, quantity);
+    }
+
+    @Override
+    public Product increment(Long id, int quantityToIncrement) throws ProductNotFoundException {
+        int quantity = ledger.increment(id, quantityToIncrement);
+        log(id);
+        return copyOf(id, quantity);
+    }
+
+    @Override
+    public Product withCurrentStock(Product product) {
+        Integer quantity = ledger.quantityOf(product.getId());
+        if (quantity == null || quantity == product.getQuantity()) {
+            return product;
+        }
+        return new Product(product.getId(), product.getName(), product.getMin(), quantity, product.getType(), product.getVersion());
+    }
+
+    @Override
+    public boolean isDatabaseBacked() {
+        return false;
+    }
+
+    /**
+     * Writes the quantities changed since the previous flush to the database, then drops the log segments they cover.
+     */
+    @Scheduled(fixedDelayString = "${mynaturastock.stock.ledger.flush-interval-ms:1000}")
+    public synchronized void flush() throws IOException {
+        List<Path> sealedSegments = writeAheadLog.rotate();
+        long[] dirtyIds = ledger.drainDirty();
+        for (int from = 0; from < dirtyIds.length; from += FLUSH_BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(dirtyIds, from, Math.min(from + FLUSH_BATCH_SIZE, dirtyIds.length));
+            try {
+                transactionOperations.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                log.warn("Could not flush the stock of {} products, retrying on the next flush", batch.length, e);
+                for (int index = from; index < dirtyIds.length; index++) {
+                    ledger.markDirty(dirtyIds[index]);
+                }
+                return;
+            }
+        }
+        writeAheadLog.delete(sealedSegments);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flush();
+        writeAheadLog.close();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProduct().getId();
+        if (event.getType() == ProductChangeType.CREATED) {
+            register(productMapper.toModel(event.getProduct()));
+        } else if (event.getType() == ProductChangeType.DELETED) {
+            ledger.remove(id);
+            productsById.remove(id);
+        }
+    }
+
+    private void register(Product product) {
+        productsById.put(product.getId(), product);
+        ledger.register(product.getId(), product.getMin(), product.getQuantity());
+    }
+
+    private void write(long[] ids) {
+        List<Long> productIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            productIds.add(id);
+        }
+        for (Product product : productRepository.findAllById(productIds)) {
+            Integer quantity = ledger.quantityOf(product.getId());
+            if (quantity != null) {
+                product.setQuantity(quantity);
+            }
+        }
+    }
+
+    private void log(Long id) {
+        try {
+            writeAheadLog.append(id, () -> {
+                Integer quantity = ledger.quantityOf(id);
+                return quantity == null ? 0 : quantity;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Product copyOf(Long id, int quantity) throws ProductNotFoundException {
+        Product product = productsById.get(id);
+        if (product == null) {
+            throw new ProductNotFoundException(id);
+        }
+        return new Product(id, product.getName(), product.getMin(), quantity, product.getType(), product.getVersion());
+    }
+}
@@ -0,0 +1,43 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns requests away while {@link ProductService} answers slower than a latency target. Every call to the service
+ * feeds a moving average of its latency, each call weighing 1/8; once the average goes over the target, a request is
+ * shed with probability {@code 1 - target / average}, the share of the load to drop for latency to come back to the
+ * target if it grows with the load. At most {@code maxShedRatio} of the requests are shed, so the service keeps
+ * getting calls and the average can come down again.
+ */
+public class LoadShedder {
+
+    private static final int SAMPLE_WEIGHT_SHIFT = 3;
+
+    private final long targetNanos;
+    private final double maxShedRatio;
+    private final AtomicLong averageNanos = new AtomicLong();
+
+    public LoadShedder(Duration latencyTarget, double maxShedRatio) {
+        this.targetNanos = latencyTarget.toNanos();
+        this.maxShedRatio = maxShedRatio;
+    }
+
+    public void record(long nanos) {
+        averageNanos.accumulateAndGet(nanos, (average, sample) -> average + ((sample - average) >> SAMPLE_WEIGHT_SHIFT));
+    }
+
+    public boolean shouldShed() {
+        long average = averageNanos.get();
+        if (average <= targetNanos) {
+            return false;
+        }
+        double shedRatio = Math.min(maxShedRatio, 1 - (double) targetNanos / average);
+        return ThreadLocalRandom.current().nextDouble() < shedRatio;
+    }
+
+    public long averageNanos() {
+        return averageNanos.get();
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.event.LowStockAlert;
+
+/**
+ * Where the {@link LowStockTracker} delivers its alerts. Sinks are called on the thread that made the change, so they
+ * should hand slow work off rather than do it inline.
+ */
+public interface LowStockAlertSink {
+
+    void deliver(LowStockAlert alert) throws Exception;
+}
@@ -0,0 +1,115 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.LowStockAlertType;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.LowStockAlert;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the products at or below their minimum stock in memory, lowest margin first, so they can be listed without a
+ * query. The set is loaded once at startup and then updated by every committed change in O(log n), and each change
+ * that moves a product across its minimum raises a {@link LowStockAlert} to every sink. Deleted products leave the set
+ * without an alert.
+ */
+@Slf4j
+public class LowStockTracker {
+
+    private static final Comparator<MarginKey> LOWEST_MARGIN_FIRST = Comparator
+            .comparingInt(MarginKey::getMargin)
+            .thenComparingLong(MarginKey::getId);
+
+    private final List<LowStockAlertSink> sinks;
+    private final Clock clock;
+
+    private final Map<Long, MarginKey> keysById = new ConcurrentHashMap<>();
+    private final NavigableMap<MarginKey, ProductDTO> belowMin = new ConcurrentSkipListMap<>(LOWEST_MARGIN_FIRST);
+
+    public LowStockTracker(ProductService productService, List<LowStockAlertSink> sinks, Clock clock) {
+        this.sinks = sinks;
+        this.clock = clock;
+        for (ProductDTO product : productService.listAtOrBelowMin()) {
+            update(product);
+        }
+    }
+
+    public List<ProductDTO> belowMin() {
+        return new ArrayList<>(belowMin.values());
+    }
+
+    public boolean isBelowMin(Long id) {
+        return keysById.containsKey(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductDTO product = event.getProduct();
+        if (event.getType() == ProductChangeType.DELETED) {
+            keysById.computeIfPresent(product.getId(), (id, key) -> {
+                belowMin.remove(key);
+                return null;
+            });
+            return;
+        }
+        LowStockAlertType crossing = update(product);
+        if (crossing != null) {
+            deliver(new LowStockAlert(crossing, product, clock.instant()));
+        }
+    }
+
+    /**
+     * Moves the product to where its new margin belongs, or out of the set. Changes of the same product are applied one
+     * at a time by the map, whichever thread they come from.
+     *
+     * @return the minimum crossed by the change, {@code null} when it stayed on the same side
+     */
+    private LowStockAlertType update(ProductDTO product) {
+        LowStockAlertType[] crossing = new LowStockAlertType[1];
+        keysById.compute(product.getId(), (id, previousKey) -> {
+            if (previousKey != null) {
+                belowMin.remove(previousKey);
+            }
+            int margin = product.getQuantity() - product.getMin();
+            if (margin > 0) {
+                crossing[0] = previousKey == null ? null : LowStockAlertType.RECOVERED;
+                return null;
+            }
+            MarginKey key = new MarginKey(margin, id);
+            belowMin.put(key, product);
+            crossing[0] = previousKey == null ? LowStockAlertType.BELOW_MIN : null;
+            return key;
+        });
+        return crossing[0];
+    }
+
+    private void deliver(LowStockAlert alert) {
+        for (LowStockAlertSink sink : sinks) {
+            try {
+                sink.deliver(alert);
+            } catch (Exception e) {
+                log.warn("Could not deliver a low stock alert for product {} to {}", alert.getProduct().getId(),
+                        sink.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Value
+    private static class MarginKey {
+
+        int margin;
+
+        long id;
+    }
+}
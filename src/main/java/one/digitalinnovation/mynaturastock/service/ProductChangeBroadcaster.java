@@ -0,0 +1,316 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.SlowConsumerPolicy;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Streams product changes to Server-Sent Events subscribers. A change only goes into a {@link ProductChangeRing}, so
+ * the write path costs the same with no subscriber or ten thousand; a few dispatcher threads, each serving its share
+ * of the subscribers, follow the ring and put the changes each subscriber's filter accepts in its outbox. Each event
+ * carries the number of the change as its id, so a client reconnecting with {@code Last-Event-ID} resumes where it
+ * stopped.
+ * <p>
+ * The dispatchers never write to a socket: a pool of sender threads drains the outboxes, one sender at a time per
+ * subscriber, so a client that stops reading holds up only the sender writing to it, not the subscribers sharing its
+ * dispatcher. Its outbox fills up and it stops following the ring until the outbox drains or the ring laps it.
+ * <p>
+ * A subscriber that falls a full ring behind, or that resumes from a change no longer in the ring, has lost changes. It is then either sent a {@value #SNAPSHOT_EVENT_NAME} of the products it follows, read on
+ * a thread of its own, and carries on from the change before the snapshot, or closed, depending on the
+ * {@link SlowConsumerPolicy}. A client resuming always gets a snapshot.
+ */
+@Slf4j
+public class ProductChangeBroadcaster implements AutoCloseable {
+
+    public static final String CHANGE_EVENT_NAME = "product-changed";
+    public static final String SNAPSHOT_EVENT_NAME = "snapshot";
+
+    private static final int MAX_EVENTS_PER_TURN = 256;
+
+    private final ProductService productService;
+    private final ObjectWriter changeWriter;
+    private final ProductChangeRing ring;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final int outboxCapacity;
+    private final long idleParkNanos;
+    private final List<Map<Long, Subscriber>> partitions = new ArrayList<>();
+    private final List<Thread> dispatchers = new ArrayList<>();
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("product-stream-snapshot-"));
+    private final ExecutorService sendExecutor;
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private volatile boolean running = true;
+
+    public ProductChangeBroadcaster(ProductService productService, ObjectWriter objectWriter, int ringCapacity,
+                                    int dispatchThreads, int sendThreads, int outboxCapacity, Duration idlePark,
+                                    SlowConsumerPolicy slowConsumerPolicy) {
+        this.productService = productService;
+        this.changeWriter = objectWriter.forType(ProductChangedEvent.class);
+        this.ring = new ProductChangeRing(ringCapacity);
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.outboxCapacity = outboxCapacity;
+        this.idleParkNanos = idlePark.toNanos();
+        CustomizableThreadFactory sendThreadFactory = new CustomizableThreadFactory("product-stream-send-");
+        sendThreadFactory.setDaemon(true);
+        this.sendExecutor = Executors.newFixedThreadPool(sendThreads, sendThreadFactory);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-stream-dispatch-");
+        threadFactory.setDaemon(true);
+        for (int i = 0; i < dispatchThreads; i++) {
+            Map<Long, Subscriber> partition = new ConcurrentHashMap<>();
+            partitions.add(partition);
+            Thread dispatcher = threadFactory.newThread(() -> dispatch(partition));
+            dispatchers.add(dispatcher);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Accepts products of the given category and with one of the given ids; a {@code null} category or an empty list
+     * of ids accepts any.
+     */
+    public static Predicate<ProductDTO> filter(Category type, Collection<Long> ids) {
+        Set<Long> acceptedIds = ids == null ? Set.of() : new HashSet<>(ids);
+        return product -> (type == null || type == product.getType())
+                && (acceptedIds.isEmpty() || acceptedIds.contains(product.getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ring.publish(event);
+    }
+
+    /**
+     * Sends the emitter the changes made from now on, or those after {@code lastEventId} when a client resumes.
+     */
+    public SseEmitter subscribe(SseEmitter emitter, Predicate<ProductDTO> filter, Long lastEventId) {
+        long id = subscriberIds.incrementAndGet();
+        Map<Long, Subscriber> partition = partitions.get((int) (id % partitions.size()));
+        Subscriber subscriber = new Subscriber(id, partition, emitter, filter, outboxCapacity);
+        emitter.onCompletion(() -> partition.remove(id));
+        emitter.onTimeout(() -> partition.remove(id));
+        emitter.onError(error -> partition.remove(id));
+        if (lastEventId == null) {
+            subscriber.nextSequence = ring.lastSequence() + 1;
+        } else if (lastEventId < ring.lastSequence() - ring.capacity() + 1 || lastEventId > ring.lastSequence()) {
+            sendSnapshot(subscriber);
+        } else {
+            subscriber.nextSequence = lastEventId + 1;
+        }
+        partition.put(id, subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return partitions.stream().mapToInt(Map::size).sum();
+    }
+
+    public long lastSequence() {
+        return ring.lastSequence();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatchers.forEach(LockSupport::unpark);
+        snapshotExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        partitions.forEach(partition -> partition.values().forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void dispatch(Map<Long, Subscriber> partition) {
+        while (running) {
+            long lastSequence = ring.lastSequence();
+            boolean sent = false;
+            for (Subscriber subscriber : partition.values()) {
+                try {
+                    sent |= queueChanges(subscriber, lastSequence);
+                } catch (IllegalStateException e) {
+                    log.debug("Dropping a product stream subscriber", e);
+                    drop(subscriber, e);
+                } catch (RuntimeException e) {
+                    log.warn("Could not stream product changes to a subscriber", e);
+                }
+            }
+            if (!sent) {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+    }
+
+    /**
+     * Queues for a subscriber the changes it has not seen, up to {@link #MAX_EVENTS_PER_TURN} so the others are not
+     * kept waiting, or until its outbox is full, and has them sent.
+     *
+     * @return whether the subscriber moved along the ring
+     */
+    private boolean queueChanges(Subscriber subscriber, long lastSequence) {
+        if (subscriber.catchingUp || subscriber.nextSequence > lastSequence) {
+            return false;
+        }
+        long firstSequence = subscriber.nextSequence;
+        long turnEnd = Math.min(lastSequence, subscriber.nextSequence + MAX_EVENTS_PER_TURN - 1);
+        while (subscriber.nextSequence <= turnEnd) {
+            ProductChangeRing.Entry entry = ring.get(subscriber.nextSequence);
+            if (entry == null) {
+                break;
+            }
+            if (entry == ProductChangeRing.OVERWRITTEN) {
+                fellBehind(subscriber);
+                break;
+            }
+            if (subscriber.filter.test(entry.change.getProduct()) && !subscriber.outbox.offer(SseEmitter.event()
+                    .id(String.valueOf(entry.sequence))
+                    .name(CHANGE_EVENT_NAME)
+                    .data(json(entry), MediaType.APPLICATION_JSON))) {
+                break;
+            }
+            subscriber.nextSequence++;
+        }
+        send(subscriber);
+        return subscriber.nextSequence != firstSequence;
+    }
+
+    private void fellBehind(Subscriber subscriber) {
+        if (slowConsumerPolicy == SlowConsumerPolicy.DROP) {
+            throw new IllegalStateException("The subscriber fell more than a full ring of changes behind");
+        }
+        subscriber.outbox.clear();
+        sendSnapshot(subscriber);
+    }
+
+    /**
+     * Has a sender drain the outbox of the subscriber, unless one already is.
+     */
+    private void send(Subscriber subscriber) {
+        if (!subscriber.outbox.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (subscriber.failure == null && (event = subscriber.outbox.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping a product stream subscriber", e);
+                    subscriber.partition.remove(subscriber.id);
+                    subscriber.failure = e;
+                }
+            }
+            if (subscriber.failure != null) {
+                subscriber.outbox.clear();
+                subscriber.emitter.completeWithError(subscriber.failure);
+                return;
+            }
+            subscriber.sending.set(false);
+        } while (!subscriber.outbox.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    /**
+     * Closes the subscription from its sender, since closing it here would wait for a send in progress.
+     */
+    private void drop(Subscriber subscriber, Exception cause) {
+        subscriber.partition.remove(subscriber.id);
+        subscriber.failure = cause;
+        if (subscriber.sending.compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Sends the products the subscriber follows, as they are after the latest change numbered before they are read,
+     * and has it carry on from that change. Changes made while the products are read may be sent again after.
+     */
+    private void sendSnapshot(Subscriber subscriber) {
+        subscriber.catchingUp = true;
+        snapshotExecutor.execute(() -> {
+            long lastSequence = ring.lastSequence();
+            List<ProductDTO> products = new ArrayList<>();
+            try {
+                productService.streamAll(product -> {
+                    if (subscriber.filter.test(product)) {
+                        products.add(product);
+                    }
+                });
+                subscriber.outbox.clear();
+                subscriber.outbox.add(SseEmitter.event()
+                        .id(String.valueOf(lastSequence))
+                        .name(SNAPSHOT_EVENT_NAME)
+                        .data(products, MediaType.APPLICATION_JSON));
+                send(subscriber);
+                subscriber.nextSequence = lastSequence + 1;
+                subscriber.catchingUp = false;
+            } catch (RuntimeException e) {
+                log.debug("Could not send a product snapshot to a subscriber", e);
+                drop(subscriber, e);
+            }
+        });
+    }
+
+    private String json(ProductChangeRing.Entry entry) {
+        String json = entry.json;
+        if (json == null) {
+            try {
+                json = changeWriter.writeValueAsString(entry.change);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            entry.json = json;
+        }
+        return json;
+    }
+
+    /**
+     * Only its dispatcher moves {@link #nextSequence} and fills the {@link #outbox}, except while {@link #catchingUp},
+     * when only the snapshot thread does. Only the sender holding {@link #sending} writes to the emitter.
+     */
+    private static final class Subscriber {
+
+        private final long id;
+        private final Map<Long, Subscriber> partition;
+        private final SseEmitter emitter;
+        private final Predicate<ProductDTO> filter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> outbox;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private long nextSequence;
+        private volatile boolean catchingUp;
+        private volatile Exception failure;
+
+        private Subscriber(long id, Map<Long, Subscriber> partition, SseEmitter emitter, Predicate<ProductDTO> filter,
+                           int outboxCapacity) {
+            this.id = id;
+            this.partition = partition;
+            this.emitter = emitter;
+            this.filter = filter;
+            this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        }
+    }
+}
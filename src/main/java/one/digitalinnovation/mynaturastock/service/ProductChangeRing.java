@@ -0,0 +1,74 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed ring of the latest product changes, numbered from 1. Publishing claims the next number with one atomic
+ * increment and writes the slot it maps to, overwriting the change a full ring earlier, so it never waits for readers
+ * and costs the same however many there are. Each slot is written by the one thread that claimed its number, and
+ * readers follow on their own, each from its own position.
+ */
+final class ProductChangeRing {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    ProductChangeRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The ring capacity must be a power of two, not " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    long publish(ProductChangedEvent change) {
+        long sequence = lastSequence.incrementAndGet();
+        slots.set((int) (sequence & mask), new Entry(sequence, change));
+        return sequence;
+    }
+
+    /**
+     * @return the number of the latest change claimed, which may still be in the middle of being written
+     */
+    long lastSequence() {
+        return lastSequence.get();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the change numbered {@code sequence}, {@code null} while it is not written yet, or {@link #OVERWRITTEN}
+     * once a later change took its slot
+     */
+    Entry get(long sequence) {
+        Entry entry = slots.get((int) (sequence & mask));
+        if (entry == null || entry.sequence < sequence) {
+            return null;
+        }
+        return entry.sequence == sequence ? entry : OVERWRITTEN;
+    }
+
+    static final Entry OVERWRITTEN = new Entry(-1, null);
+
+    static final class Entry {
+
+        final long sequence;
+        final ProductChangedEvent change;
+
+        /**
+         * The change as JSON, written by the first dispatcher that sends it and shared by the others.
+         */
+        volatile String json;
+
+        private Entry(long sequence, ProductChangedEvent change) {
+            this.sequence = sequence;
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports the products of a file once the application has started, so a catalogue can be loaded from the command
+ * line without going through the REST API.
+ */
+@Slf4j
+public class ProductImportRunner implements ApplicationRunner {
+
+    private final ProductImportService productImportService;
+    private final Path file;
+
+    public ProductImportRunner(ProductImportService productImportService, Path file) {
+        this.productImportService = productImportService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ProductImportFormat format = ProductImportFormat.fromFileName(file.getFileName().toString());
+        long start = System.nanoTime();
+        ProductImportResultDTO result;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            result = productImportService.importProducts(inputStream, format);
+        }
+        log.info("Imported {} of {} products from {} in {} ms: {} duplicates, {} invalid", result.getImported(),
+                result.getRead(), file, (System.nanoTime() - start) / 1_000_000, result.getDuplicates(), result.getInvalid());
+        result.getErrors().forEach(error -> log.warn("Not imported, {}", error));
+    }
+}
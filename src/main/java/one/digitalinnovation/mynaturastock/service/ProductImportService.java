@@ -0,0 +1,296 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductImportException;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports a catalogue of products from a CSV or NDJSON stream, one product per line, reading it as it arrives so
+ * memory does not grow with the file. The names already registered are loaded once into a set, which also catches
+ * names repeated in the file, so no line costs a query. Lines are validated against the {@link ProductDTO}
+ * constraints and the products inserted in JDBC batches, each batch in its own transaction: an import that fails
+ * midway keeps the batches written before. A batch that hits a name registered meanwhile is retried line by line.
+ * A CSV stream starts with a header naming the {@code name}, {@code min}, {@code quantity} and {@code type} columns,
+ * in any order; quoted fields may not span lines.
+ */
+public class ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final ObjectReader productReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxErrors;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public ProductImportService(ProductRepository productRepository, TransactionOperations transactionOperations,
+                                Validator validator, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                                int batchSize, int maxErrors) {
+        this.productRepository = productRepository;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.productReader = objectMapper.readerFor(ProductDTO.class);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ProductImportResultDTO importProducts(InputStream inputStream, ProductImportFormat format)
+            throws IOException, ProductImportException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        LineParser lineParser = format == ProductImportFormat.CSV ? new CsvLineParser(reader.readLine()) : productReader::readValue;
+        ImportProgress progress = new ImportProgress(registeredNames());
+        List<Product> batch = new ArrayList<>(batchSize);
+        long lineNumber = format == ProductImportFormat.CSV ? 1 : 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.read++;
+            Product product = parse(lineParser, line, lineNumber, progress);
+            if (product != null) {
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    insert(batch, progress);
+                    batch.clear();
+                }
+            }
+        }
+        insert(batch, progress);
+        return ProductImportResultDTO.builder()
+                .read(progress.read)
+                .imported(progress.imported)
+                .duplicates(progress.duplicates)
+                .invalid(progress.invalid)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private Set<String> registeredNames() {
+        Set<String> names = new HashSet<>();
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<String> registeredNames = productRepository.streamAllNames()) {
+                registeredNames.forEach(names::add);
+            }
+        });
+        return names;
+    }
+
+    private Product parse(LineParser lineParser, String line, long lineNumber, ImportProgress progress) {
+        ProductDTO productDTO;
+        try {
+            productDTO = lineParser.parse(line);
+        } catch (JsonProcessingException e) {
+            progress.invalid(lineNumber, e.getOriginalMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            progress.invalid(lineNumber, e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+        if (!violations.isEmpty()) {
+            progress.invalid(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        if (!progress.names.add(productDTO.getName())) {
+            progress.duplicate(lineNumber, productDTO.getName());
+            return null;
+        }
+        return new Product(null, productDTO.getName(), productDTO.getMin(), productDTO.getQuantity(), productDTO.getType(), 0L);
+    }
+
+    private void insert(List<Product> batch, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionOperations.executeWithoutResult(status -> publishCreated(productRepository.insertAll(batch)));
+            progress.imported += batch.size();
+        } catch (DataIntegrityViolationException e) {
+            for (Product product : batch) {
+                try {
+                    transactionOperations.executeWithoutResult(status ->
+                            publishCreated(productRepository.insertAll(Collections.singletonList(product))));
+                    progress.imported++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    progress.duplicate(0, product.getName());
+                }
+            }
+        }
+    }
+
+    private void publishCreated(List<Product> products) {
+        for (Product product : products) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangeType.CREATED, productMapper.toDTO(product),
+                    product.getQuantity()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+
+        ProductDTO parse(String line) throws JsonProcessingException;
+    }
+
+    private static final class CsvLineParser implements LineParser {
+
+        private static final List<String> COLUMNS = List.of("name", "min", "quantity", "type");
+
+        private final int[] columnIndexes = new int[COLUMNS.size()];
+
+        private CsvLineParser(String header) throws ProductImportException {
+            if (header == null) {
+                throw new ProductImportException("The CSV file is empty, expected a header naming the columns " + COLUMNS);
+            }
+            List<String> headerColumns = split(header).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                columnIndexes[i] = headerColumns.indexOf(COLUMNS.get(i));
+                if (columnIndexes[i] < 0) {
+                    throw new ProductImportException(String.format("The CSV header %s has no %s column", headerColumns, COLUMNS.get(i)));
+                }
+            }
+        }
+
+        @Override
+        public ProductDTO parse(String line) {
+            List<String> fields = split(line);
+            return ProductDTO.builder()
+                    .name(field(fields, 0))
+                    .min(parseInteger(field(fields, 1)))
+                    .quantity(parseInteger(field(fields, 2)))
+                    .type(parseCategory(field(fields, 3)))
+                    .build();
+        }
+
+        private String field(List<String> fields, int column) {
+            int index = columnIndexes[column];
+            if (index >= fields.size() || fields.get(index).isBlank()) {
+                return null;
+            }
+            return fields.get(index).trim();
+        }
+
+        private static Integer parseInteger(String field) {
+            if (field == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(field);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("%s is not a whole number", field));
+            }
+        }
+
+        private static Category parseCategory(String field) {
+            if (field == null) {
+                return null;
+            }
+            try {
+                return Category.valueOf(field.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("%s is not a category", field));
+            }
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>(COLUMNS.size());
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("A quoted field is not closed");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private final class ImportProgress {
+
+        private final Set<String> names;
+        private final List<String> errors = new ArrayList<>();
+        private long read;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+
+        private ImportProgress(Set<String> names) {
+            this.names = names;
+        }
+
+        private void invalid(long lineNumber, String reason) {
+            invalid++;
+            error(lineNumber, reason);
+        }
+
+        /**
+         * @param lineNumber 0 when the name was registered by someone else while the import ran
+         */
+        private void duplicate(long lineNumber, String name) {
+            duplicates++;
+            error(lineNumber, String.format("a product named %s is already registered", name));
+        }
+
+        private void error(long lineNumber, String reason) {
+            if (errors.size() < maxErrors) {
+                errors.add(lineNumber == 0 ? reason : String.format("line %d: %s", lineNumber, reason));
+            }
+        }
+    }
+}
@@ -1,68 +1,160 @@
 package one.digitalinnovation.mynaturastock.service;
 
 import lombok.AllArgsConstructor;
+import lombok.Value;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
 import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
 import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
 import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
 import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
 import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
 import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.repository.ReplicaRoutingDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static one.digitalinnovation.mynaturastock.config.CacheConfig.PRODUCTS_BY_NAME_CACHE;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StripedLocks stockLocks;
+    private final StockHolds stockHolds;
+    private final ProductVersionRegistry productVersions;
+    private final CacheManager cacheManager;
     private final ProductMapper productMapper = ProductMapper.INSTANCE;
 
     public ProductDTO createProduct(ProductDTO productDTO) throws ProductAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(productDTO.getName());
         Product product = productMapper.toModel(productDTO);
         Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        return publishChange(ProductChangeType.CREATED, savedProduct, savedProduct.getQuantity());
     }
 
+    /**
+     * Served from the cache while the product version it was cached with is still current. A read racing with a
+     * change can cache the product as it was before the change, after the change evicted it; the change then bumped
+     * the version, so that entry is read again instead of being served under the new version's ETag. A product read
+     * from the replica is not cached, as it may predate a change whose eviction already ran.
+     */
+    @Transactional(readOnly = true)
     public ProductDTO findByName(String name) throws ProductNotFoundException {
-        Product foundProduct = productRepository.findByName(name)
-                .orElseThrow(() -> new ProductNotFoundException(name));
-        return productMapper.toDTO(foundProduct);
+        long version = productVersions.productVersion(name);
+        Cache productsByName = cacheManager.getCache(PRODUCTS_BY_NAME_CACHE);
+        VersionedProduct cachedProduct = productsByName == null ? null : productsByName.get(name, VersionedProduct.class);
+        if (cachedProduct != null && cachedProduct.getVersion() == version) {
+            return cachedProduct.getProduct();
+        }
+        ProductDTO foundProduct = toDTO(productRepository.findByName(name)
+                .orElseThrow(() -> new ProductNotFoundException(name)));
+        if (productsByName != null && !ReplicaRoutingDataSource.readFromReplica()) {
+            productsByName.put(name, new VersionedProduct(version, foundProduct));
+        }
+        return foundProduct;
     }
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> listAll() {
         return productRepository.findAll()
                 .stream()
-                .map(productMapper::toDTO)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDTO> listAfter(Long afterId, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDTO> listByCategory(Category type) {
+        return productRepository.findByTypeOrderByIdAsc(type)
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDTO> listAtOrBelowMin() {
+        return productRepository.findAtOrBelowMin()
+                .stream()
+                .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductDTO> productConsumer) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                productConsumer.accept(toDTO(product));
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    /**
+     * Deletes, decrements and increments of a product run one at a time, each with the publication of its change, so
+     * listeners see the changes of a product in the order they were made and never see one after its deletion. The
+     * lock is taken before any connection is borrowed, so waiting for it never holds one. A decrement leaves the stock
+     * held by reservations in place.
+     */
     public void deleteById(Long id) throws ProductNotFoundException {
-        verifyIfExists(id);
-        productRepository.deleteById(id);
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            Product productToDelete = stockEngine.withCurrentStock(verifyIfExists(id));
+            productRepository.deleteById(id);
+            publishChange(ProductChangeType.DELETED, productToDelete, -productToDelete.getQuantity());
+        } finally {
+            lock.unlock();
+        }
     }
 
     public ProductDTO decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
-        Product productToDecrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToDecrement - productToDecrementStock.getQuantity();
-        if (quantityAfterIncrement <= productToDecrementStock.getMin()) {
-            productToDecrementStock.setQuantity(productToDecrementStock.getQuantity() - quantityToDecrement);
-            Product decrementedProductStock = productRepository.save(productToDecrementStock);
-            return productMapper.toDTO(decrementedProductStock);
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            stockHolds.verifyIfAvailable(id, quantityToDecrement);
+            Product decrementedProductStock = stockEngine.decrement(id, quantityToDecrement);
+            return publishChange(ProductChangeType.DECREMENTED, decrementedProductStock, -quantityToDecrement);
+        } finally {
+            lock.unlock();
         }
-        throw new ProductStockExceededException(id, quantityToDecrement);
     }
 
-    public ProductDTO increment(Long id, int quantityToIncremente) throws ProductNotFoundException {
-        Product productToIncrementStock = verifyIfExists(id);
-        productToIncrementStock.setQuantity(productToIncrementStock.getQuantity() + quantityToIncremente);
-        Product incrementedProductStock = productRepository.save(productToIncrementStock);
-        return productMapper.toDTO(incrementedProductStock);
+    public ProductDTO increment(Long id, int quantityToIncrement) throws ProductNotFoundException {
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            Product incrementedProductStock = stockEngine.increment(id, quantityToIncrement);
+            return publishChange(ProductChangeType.INCREMENTED, incrementedProductStock, quantityToIncrement);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws ProductAlreadyRegisteredException {
@@ -77,5 +169,21 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    private ProductDTO toDTO(Product product) {
+        return productMapper.toDTO(stockEngine.withCurrentStock(product));
+    }
+
+    private ProductDTO publishChange(ProductChangeType changeType, Product product, int quantityDelta) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(changeType, productDTO, quantityDelta));
+        return productDTO;
+    }
 
+    @Value
+    private static class VersionedProduct {
+
+        long version;
+
+        ProductDTO product;
+    }
 }
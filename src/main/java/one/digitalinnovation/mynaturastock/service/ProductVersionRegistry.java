@@ -0,0 +1,53 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the products and of the whole catalogue, kept up to date by the product changes, from which strong
+ * ETags are made without reading the database. The catalogue version counts the changes since startup and a product
+ * version is the catalogue version of its last change, 0 for a product unchanged since startup; the ETags also hold
+ * the startup time, so those of a previous run never match. Products are versioned by name, the key they are read by,
+ * and deleted products keep their version, so a product registered again under the same name gets a new one.
+ * <p>
+ * A version must be read before the state it describes: a change made in between then costs one more full response,
+ * where reading it after could pair a stale product with the newer version. For the same reason versions are bumped
+ * after the product cache is evicted, and cached products carry the version read before them: one cached by a read
+ * that raced with a change is older than the current version and never served.
+ */
+@Component
+public class ProductVersionRegistry {
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong catalogueVersion = new AtomicLong();
+    private final Map<String, Long> productVersions = new ConcurrentHashMap<>();
+
+    public String productETag(String name) {
+        return eTag(productVersion(name));
+    }
+
+    public long productVersion(String name) {
+        return productVersions.getOrDefault(name, 0L);
+    }
+
+    public String catalogueETag() {
+        return eTag(catalogueVersion.get());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productVersions.put(event.getProduct().getName(), catalogueVersion.incrementAndGet());
+    }
+
+    private String eTag(long version) {
+        return "\"" + epoch + "-" + Long.toHexString(version) + "\"";
+    }
+}
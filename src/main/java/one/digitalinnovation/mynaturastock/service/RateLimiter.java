@@ -0,0 +1,160 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per client and {@link EndpointClass}. A bucket is kept as a single number, the time at which it will
+ * be full again, so taking a token is one compare-and-set and needs no lock and no refill timer: a request is let
+ * through while that time is no further ahead than a full bucket lasts, and pushes it one token further. Full
+ * buckets hold no information and are evicted; past {@code maxClients}, new clients share one bucket per endpoint
+ * class until eviction makes room, so spoofed keys cannot grow the heap.
+ * <p>
+ * Client names such as API keys are not authenticated, so a client can send a new one per request to get fresh
+ * buckets. Address limits close that: every request also takes a token from the bucket of its remote address, whatever
+ * name it sends, and once {@code maxClients} is reached a new client is only limited by its address bucket instead of
+ * the shared one, so a client making up names cannot starve the clients that arrive after it.
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Clock clock;
+    private final int maxClients;
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Limit> addressLimits = new EnumMap<>(EndpointClass.class);
+
+    public RateLimiter(Clock clock, int maxClients) {
+        this.clock = clock;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * @param capacity        how many requests a client can send at once after being idle
+     * @param tokensPerSecond how many requests a client can send per second in the long run
+     */
+    public RateLimiter limit(EndpointClass endpointClass, int capacity, double tokensPerSecond) {
+        limits.put(endpointClass, newLimit(endpointClass, capacity, tokensPerSecond));
+        return this;
+    }
+
+    /**
+     * @param capacity        how many requests all the clients behind an address can send at once after being idle
+     * @param tokensPerSecond how many requests all the clients behind an address can send per second in the long run
+     */
+    public RateLimiter limitAddresses(EndpointClass endpointClass, int capacity, double tokensPerSecond) {
+        addressLimits.put(endpointClass, newLimit(endpointClass, capacity, tokensPerSecond));
+        return this;
+    }
+
+    /**
+     * Takes a token from the bucket of the client; endpoint classes without a limit are not limited.
+     *
+     * @return 0 when the request may go on, otherwise how many nanoseconds until the bucket holds a token again
+     */
+    public long tryAcquire(EndpointClass endpointClass, String client) {
+        Limit limit = limits.get(endpointClass);
+        if (limit == null) {
+            return 0;
+        }
+        return tryAcquire(limit, limit.bucketOf(client), clock.millis() * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Takes a token from the bucket of the address the request came from, then from the bucket of the client; past
+     * {@code maxClients}, a new client only takes from its address bucket. Without an address limit for the endpoint
+     * class this is {@link #tryAcquire(EndpointClass, String)}.
+     *
+     * @return 0 when the request may go on, otherwise how many nanoseconds until the bucket that refused it holds a
+     * token again
+     */
+    public long tryAcquire(EndpointClass endpointClass, String client, String address) {
+        Limit addressLimit = addressLimits.get(endpointClass);
+        if (addressLimit == null) {
+            return tryAcquire(endpointClass, client);
+        }
+        long now = clock.millis() * NANOS_PER_MILLI;
+        long waitNanos = tryAcquire(addressLimit, addressLimit.bucketOf(address), now);
+        Limit limit = limits.get(endpointClass);
+        if (waitNanos > 0 || limit == null) {
+            return waitNanos;
+        }
+        AtomicLong bucket = limit.ownBucketOf(client);
+        return bucket == null ? 0 : tryAcquire(limit, bucket, now);
+    }
+
+    public int size() {
+        return limits.values().stream().mapToInt(limit -> limit.buckets.size()).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${mynaturastock.rate-limit.eviction-interval-ms:60000}")
+    public void evictFull() {
+        long now = clock.millis() * NANOS_PER_MILLI;
+        for (Limit limit : limits.values()) {
+            limit.buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+        for (Limit limit : addressLimits.values()) {
+            limit.buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+
+    private static long tryAcquire(Limit limit, AtomicLong bucket, long now) {
+        while (true) {
+            long fullAt = bucket.get();
+            long nextFullAt = Math.max(fullAt, now) + limit.tokenNanos;
+            if (nextFullAt - now > limit.burstNanos) {
+                return nextFullAt - now - limit.burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    private Limit newLimit(EndpointClass endpointClass, int capacity, double tokensPerSecond) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException(String.format("The %s limit needs a capacity and a rate above 0", endpointClass));
+        }
+        long tokenNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        return new Limit(tokenNanos, tokenNanos * capacity);
+    }
+
+    private final class Limit {
+
+        private final long tokenNanos;
+        private final long burstNanos;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflowBucket = new AtomicLong();
+
+        private Limit(long tokenNanos, long burstNanos) {
+            this.tokenNanos = tokenNanos;
+            this.burstNanos = burstNanos;
+        }
+
+        private AtomicLong bucketOf(String client) {
+            AtomicLong bucket = ownBucketOf(client);
+            return bucket != null ? bucket : overflowBucket;
+        }
+
+        /**
+         * @return null past {@code maxClients} when the client has no bucket yet
+         */
+        private AtomicLong ownBucketOf(String client) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxClients) {
+                return null;
+            }
+            return buckets.computeIfAbsent(client, key -> new AtomicLong());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import one.digitalinnovation.mynaturastock.repository.ReactiveProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link ProductService} and {@link StockMovementService}. Stock is always changed in the
+ * database, one conditional UPDATE per change, and stock movements are applied one after the other in the order they
+ * were sent, each in its own statement.
+ */
+@Service
+@Profile(ReactiveConfig.REACTIVE_PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveProductService {
+
+    private final ReactiveProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public Mono<ProductDTO> createProduct(ProductDTO productDTO) {
+        Product product = productMapper.toModel(productDTO);
+        return productRepository.findByName(product.getName())
+                .flatMap(savedProduct -> Mono.<Product>error(new ProductAlreadyRegisteredException(product.getName())))
+                .switchIfEmpty(Mono.defer(() -> productRepository.insert(product)))
+                .map(savedProduct -> publishChange(ProductChangeType.CREATED, savedProduct, savedProduct.getQuantity()));
+    }
+
+    public Mono<ProductDTO> findByName(String name) {
+        return productRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(name)))
+                .map(productMapper::toDTO);
+    }
+
+    public Flux<ProductDTO> listAll() {
+        return productRepository.findAll()
+                .map(productMapper::toDTO);
+    }
+
+    public Flux<ProductDTO> listAfter(Long afterId, int limit) {
+        return productRepository.findByIdGreaterThan(afterId, limit)
+                .map(productMapper::toDTO);
+    }
+
+    public Flux<ProductDTO> listByCategory(Category type) {
+        return productRepository.findByType(type)
+                .map(productMapper::toDTO);
+    }
+
+    public Flux<ProductDTO> listAtOrBelowMin() {
+        return productRepository.findAtOrBelowMin()
+                .map(productMapper::toDTO);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)))
+                .flatMap(productToDelete -> productRepository.deleteById(id)
+                        .filter(deletedRows -> deletedRows > 0)
+                        .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)))
+                        .doOnNext(deletedRows -> publishChange(ProductChangeType.DELETED, productToDelete, -productToDelete.getQuantity())))
+                .then();
+    }
+
+    public Mono<ProductDTO> decrement(Long id, int quantityToDecrement) {
+        return productRepository.decrementStock(id, quantityToDecrement)
+                .switchIfEmpty(Mono.defer(() -> productRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new ProductStockExceededException(id, quantityToDecrement)
+                                : new ProductNotFoundException(id)))))
+                .map(decrementedProduct -> publishChange(ProductChangeType.DECREMENTED, decrementedProduct, -quantityToDecrement));
+    }
+
+    public Mono<ProductDTO> increment(Long id, int quantityToIncrement) {
+        return productRepository.incrementStock(id, quantityToIncrement)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)))
+                .map(incrementedProduct -> publishChange(ProductChangeType.INCREMENTED, incrementedProduct, quantityToIncrement));
+    }
+
+    public Flux<StockMovementResultDTO> applyAll(List<StockMovementDTO> movements) {
+        return Flux.fromIterable(movements)
+                .concatMap(this::apply);
+    }
+
+    private Mono<StockMovementResultDTO> apply(StockMovementDTO movement) {
+        StockMovementResultDTO.StockMovementResultDTOBuilder result = StockMovementResultDTO.builder()
+                .id(movement.getId())
+                .delta(movement.getDelta());
+        Mono<ProductDTO> stockMove = movement.getDelta() < 0
+                ? decrement(movement.getId(), -movement.getDelta())
+                : increment(movement.getId(), movement.getDelta());
+        return stockMove
+                .map(productDTO -> result.status(StockMovementStatus.APPLIED)
+                        .product(productDTO)
+                        .build())
+                .onErrorResume(ProductNotFoundException.class, e -> Mono.just(result.status(StockMovementStatus.NOT_FOUND)
+                        .message(e.getMessage())
+                        .build()))
+                .onErrorResume(ProductStockExceededException.class, e -> Mono.just(result.status(StockMovementStatus.STOCK_EXCEEDED)
+                        .message(e.getMessage())
+                        .build()));
+    }
+
+    private ProductDTO publishChange(ProductChangeType changeType, Product product, int quantityDelta) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(changeType, productDTO, quantityDelta));
+        return productDTO;
+    }
+}
@@ -0,0 +1,44 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which clients changed products lately, so their reads can go to the primary for a while after each change
+ * instead of to a replica that may not have it yet. The window should cover the replication delay; clients that did
+ * not write within it are forgotten.
+ */
+public class ReadYourWritesTracker {
+
+    private final Clock clock;
+    private final long windowMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Clock clock, Duration window) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+    }
+
+    public void recordWrite(String client) {
+        lastWrites.put(client, clock.millis());
+    }
+
+    public boolean wroteRecently(String client) {
+        Long lastWrite = lastWrites.get(client);
+        return lastWrite != null && clock.millis() - lastWrite < windowMillis;
+    }
+
+    public int size() {
+        return lastWrites.size();
+    }
+
+    @Scheduled(fixedDelayString = "${mynaturastock.replica.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long oldestKept = clock.millis() - windowMillis;
+        lastWrites.values().removeIf(lastWrite -> lastWrite <= oldestKept);
+    }
+}
@@ -0,0 +1,70 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.event.LowStockAlert;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes low stock alerts to the clients subscribed through Server-Sent Events. Alerts are sent from a thread of its
+ * own, so a slow client never holds up the change that raised the alert; a client whose connection fails is dropped.
+ */
+@Slf4j
+public class SseLowStockAlertSink implements LowStockAlertSink, AutoCloseable {
+
+    public static final String ALERT_EVENT_NAME = "low-stock";
+
+    private final long timeoutMs;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("low-stock-sse-"));
+
+    public SseLowStockAlertSink(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    @Override
+    public void deliver(LowStockAlert alert) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(ALERT_EVENT_NAME)
+                            .data(alert, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping a low stock alert subscriber", e);
+                    emitters.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
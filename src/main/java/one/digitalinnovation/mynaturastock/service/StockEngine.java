@@ -0,0 +1,30 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+
+/**
+ * Applies stock changes to products. The active implementation is chosen by the {@code mynaturastock.stock.mode}
+ * property: {@code database} (the default), {@code ledger} or {@code warehouse}.
+ */
+public interface StockEngine {
+
+    Product decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException;
+
+    Product increment(Long id, int quantityToIncrement) throws ProductNotFoundException;
+
+    /**
+     * Returns the given product with its current stock, for engines that keep stock outside the database.
+     */
+    default Product withCurrentStock(Product product) {
+        return product;
+    }
+
+    /**
+     * Whether stock lives in the database, so that bulk movements can be applied as one batched transaction.
+     */
+    default boolean isDatabaseBacked() {
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only log of stock movement events, kept on local disk in fixed-size segments that are memory-mapped, so an
+ * append is a few stores into the page cache. Each record holds a product id, the quantity delta, the change type and
+ * the time of the change; records are numbered by a sequence that starts at 0 and timestamps never go backwards along
+ * the sequence. The timestamp is written last and is never 0, so a record left incomplete by a crash reads as the end
+ * of the log. Appended records survive the application stopping; {@link #force()} writes them through to the disk.
+ */
+class StockEventLog implements Closeable {
+
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int TIMESTAMP_OFFSET = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentRecords;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence;
+    private long lastTimestamp;
+    private volatile long nextSequence;
+
+    StockEventLog(Path directory, int segmentRecords) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentRecords = segmentRecords;
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            openSegment(firstSequence(segments.get(segments.size() - 1)));
+            int records = 0;
+            while (records < segmentRecords && segment.getLong(records * RECORD_SIZE + TIMESTAMP_OFFSET) != 0) {
+                lastTimestamp = segment.getLong(records * RECORD_SIZE + TIMESTAMP_OFFSET);
+                records++;
+            }
+            segment.position(records * RECORD_SIZE);
+            nextSequence = segmentFirstSequence + records;
+        }
+    }
+
+    /**
+     * @return the sequence of the appended record
+     */
+    synchronized long append(long productId, int delta, int type, long timestamp) throws IOException {
+        if (!segment.hasRemaining()) {
+            segment.force();
+            channel.close();
+            openSegment(nextSequence);
+        }
+        lastTimestamp = Math.max(Math.max(timestamp, lastTimestamp), 1);
+        int offset = segment.position();
+        segment.putLong(offset, productId)
+                .putInt(offset + Long.BYTES, delta)
+                .putInt(offset + Long.BYTES + Integer.BYTES, type)
+                .putLong(offset + TIMESTAMP_OFFSET, lastTimestamp)
+                .position(offset + RECORD_SIZE);
+        return nextSequence++;
+    }
+
+    /**
+     * The time of the last record, or of a mark when it is later: appends after a mark are never timestamped before it.
+     */
+    synchronized long mark(long timestamp) {
+        lastTimestamp = Math.max(timestamp, lastTimestamp);
+        return lastTimestamp;
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    synchronized void force() {
+        segment.force();
+    }
+
+    /**
+     * Replays the records from a sequence, in order, until the first record timestamped after a given time. Records
+     * appended while replaying are not replayed.
+     */
+    void replay(long fromSequence, long untilTimestamp, StockEventConsumer consumer) throws IOException {
+        long endSequence = nextSequence;
+        for (Path segmentPath : segments(directory)) {
+            long firstSequence = firstSequence(segmentPath);
+            if (firstSequence + segmentRecords <= fromSequence) {
+                continue;
+            }
+            if (firstSequence >= endSequence) {
+                return;
+            }
+            try (FileChannel segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                MappedByteBuffer records = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+                long sequence = Math.max(fromSequence, firstSequence);
+                long lastSequence = Math.min(endSequence, firstSequence + segmentRecords);
+                for (; sequence < lastSequence; sequence++) {
+                    int offset = (int) (sequence - firstSequence) * RECORD_SIZE;
+                    long timestamp = records.getLong(offset + TIMESTAMP_OFFSET);
+                    if (timestamp == 0 || timestamp > untilTimestamp) {
+                        return;
+                    }
+                    consumer.accept(sequence, records.getLong(offset), records.getInt(offset + Long.BYTES),
+                            records.getInt(offset + Long.BYTES + Integer.BYTES), timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the segments that only hold records before a sequence; the segment being appended to is kept.
+     */
+    synchronized void deleteBefore(long sequence) throws IOException {
+        for (Path segmentPath : segments(directory)) {
+            long firstSequence = firstSequence(segmentPath);
+            if (firstSequence + segmentRecords > sequence || firstSequence == segmentFirstSequence) {
+                return;
+            }
+            Files.delete(segmentPath);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment.force();
+        channel.close();
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        segmentFirstSequence = firstSequence;
+        Path segmentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        nextSequence = firstSequence;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long firstSequence(Path segment) {
+        String fileName = segment.getFileName().toString();
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Unexpected stock event log segment " + fileName, e));
+        }
+    }
+
+    @FunctionalInterface
+    interface StockEventConsumer {
+
+        void accept(long sequence, long productId, int delta, int type, long timestamp);
+    }
+}
@@ -0,0 +1,267 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Appends every committed product change to a {@link StockEventLog} and rebuilds the stock of every product at any
+ * point in time from it. Snapshots of the quantity of every product are written periodically, each tagged with the
+ * sequence of the first event it does not include, so a rebuild only replays the events since the latest snapshot
+ * taken at or before the requested time. The log does not know about changes made while the application was down,
+ * so a snapshot of the database is taken on startup as the new baseline. The latest snapshots are all kept; older ones
+ * are thinned to the first of each interval, down to a number of them, and the log segments older than the oldest kept
+ * snapshot are deleted, so the disk used stays bounded and the stock is rebuilt back to the oldest kept snapshot.
+ */
+@Slf4j
+public class StockHistoryService {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final ProductRepository productRepository;
+    private final TransactionOperations transactionOperations;
+    private final Path directory;
+    private final int segmentRecords;
+    private final int retainedSnapshots;
+    private final long thinnedSnapshotIntervalMillis;
+    private final int retainedThinnedSnapshots;
+    private final Clock clock;
+
+    private final Map<Long, Integer> quantities = new HashMap<>();
+    private final List<SnapshotInfo> snapshots = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+    private StockEventLog eventLog;
+    private long lastSnapshotSequence = -1;
+
+    public StockHistoryService(ProductRepository productRepository, TransactionOperations transactionOperations,
+                               Path directory, int segmentRecords, int retainedSnapshots, Duration thinnedSnapshotInterval,
+                               int retainedThinnedSnapshots, Clock clock) {
+        this.productRepository = productRepository;
+        this.transactionOperations = transactionOperations;
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.retainedSnapshots = Math.max(retainedSnapshots, 1);
+        this.thinnedSnapshotIntervalMillis = Math.max(thinnedSnapshotInterval.toMillis(), 1);
+        this.retainedThinnedSnapshots = retainedThinnedSnapshots;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        eventLog = new StockEventLog(directory, segmentRecords);
+        snapshots.addAll(readSnapshotInfos());
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                synchronized (this) {
+                    quantities.clear();
+                    products.forEach(product -> quantities.put(product.getId(), product.getQuantity()));
+                }
+            }
+        });
+        snapshot();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) throws IOException {
+        long productId = event.getProduct().getId();
+        synchronized (this) {
+            eventLog.append(productId, event.getQuantityDelta(), event.getType().ordinal(), clock.millis());
+            apply(quantities, productId, event.getQuantityDelta(), event.getType());
+        }
+    }
+
+    /**
+     * Writes a snapshot when events were appended since the last one, writes the log through to the disk and deletes
+     * the snapshots and segments that are no longer retained.
+     */
+    @Scheduled(fixedDelayString = "${mynaturastock.events.snapshot-interval-ms:60000}")
+    public void snapshot() throws IOException {
+        long sequence;
+        long timestamp;
+        Map<Long, Integer> snapshotQuantities;
+        synchronized (this) {
+            sequence = eventLog.nextSequence();
+            if (sequence == lastSnapshotSequence) {
+                return;
+            }
+            timestamp = eventLog.mark(clock.millis());
+            snapshotQuantities = new HashMap<>(quantities);
+            lastSnapshotSequence = sequence;
+        }
+        eventLog.force();
+        snapshots.add(writeSnapshot(sequence, timestamp, snapshotQuantities));
+        prune();
+    }
+
+    /**
+     * Rebuilds the quantity of every product at a given time.
+     *
+     * @return the quantity by product id, empty when the time is before the oldest snapshot
+     */
+    public SortedMap<Long, Integer> stockAt(Instant at) throws IOException {
+        long untilTimestamp = at.toEpochMilli();
+        SortedMap<Long, Integer> stock = new TreeMap<>();
+        filesLock.readLock().lock();
+        try {
+            SnapshotInfo snapshot = null;
+            for (SnapshotInfo candidate : snapshots) {
+                if (candidate.timestamp <= untilTimestamp && (snapshot == null || candidate.sequence >= snapshot.sequence)) {
+                    snapshot = candidate;
+                }
+            }
+            if (snapshot == null) {
+                return stock;
+            }
+            readSnapshot(snapshot.path, stock);
+            ProductChangeType[] types = ProductChangeType.values();
+            eventLog.replay(snapshot.sequence, untilTimestamp,
+                    (sequence, productId, delta, type, timestamp) -> apply(stock, productId, delta, types[type]));
+        } finally {
+            filesLock.readLock().unlock();
+        }
+        return stock;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        eventLog.close();
+    }
+
+    private static void apply(Map<Long, Integer> stock, long productId, int delta, ProductChangeType type) {
+        switch (type) {
+            case CREATED:
+                stock.put(productId, delta);
+                break;
+            case DELETED:
+                stock.remove(productId);
+                break;
+            default:
+                stock.merge(productId, delta, Integer::sum);
+        }
+    }
+
+    /**
+     * Keeps the latest snapshots and, of the older ones, the first of each thinning interval, then deletes the segments
+     * that only hold events before the oldest kept snapshot. Rebuilds wait while files are deleted.
+     */
+    private void prune() throws IOException {
+        List<SnapshotInfo> olderSnapshots = new ArrayList<>(snapshots);
+        olderSnapshots.subList(Math.max(olderSnapshots.size() - retainedSnapshots, 0), olderSnapshots.size()).clear();
+        List<SnapshotInfo> thinnedSnapshots = new ArrayList<>();
+        List<SnapshotInfo> expiredSnapshots = new ArrayList<>();
+        long lastInterval = Long.MIN_VALUE;
+        for (SnapshotInfo snapshot : olderSnapshots) {
+            long interval = snapshot.timestamp / thinnedSnapshotIntervalMillis;
+            if (interval == lastInterval) {
+                expiredSnapshots.add(snapshot);
+            } else {
+                thinnedSnapshots.add(snapshot);
+                lastInterval = interval;
+            }
+        }
+        expiredSnapshots.addAll(thinnedSnapshots.subList(0, Math.max(thinnedSnapshots.size() - retainedThinnedSnapshots, 0)));
+        if (expiredSnapshots.isEmpty()) {
+            return;
+        }
+        filesLock.writeLock().lock();
+        try {
+            snapshots.removeAll(expiredSnapshots);
+            for (SnapshotInfo snapshot : expiredSnapshots) {
+                Files.deleteIfExists(snapshot.path);
+            }
+            eventLog.deleteBefore(snapshots.get(0).sequence);
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    private SnapshotInfo writeSnapshot(long sequence, long timestamp, Map<Long, Integer> snapshotQuantities) throws IOException {
+        Path snapshotPath = directory.resolve(String.format("%s%020d-%020d%s", SNAPSHOT_PREFIX, sequence, timestamp, SNAPSHOT_SUFFIX));
+        Path temporaryPath = directory.resolve(snapshotPath.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            output.writeLong(sequence);
+            output.writeLong(timestamp);
+            output.writeInt(snapshotQuantities.size());
+            for (Map.Entry<Long, Integer> quantity : snapshotQuantities.entrySet()) {
+                output.writeLong(quantity.getKey());
+                output.writeInt(quantity.getValue());
+            }
+        }
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new SnapshotInfo(sequence, timestamp, snapshotPath);
+    }
+
+    private static void readSnapshot(Path snapshotPath, Map<Long, Integer> stock) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            input.readLong();
+            input.readLong();
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                stock.put(input.readLong(), input.readInt());
+            }
+        }
+    }
+
+    private List<SnapshotInfo> readSnapshotInfos() throws IOException {
+        List<Path> snapshotPaths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            files.forEach(snapshotPaths::add);
+        }
+        Collections.sort(snapshotPaths);
+        List<SnapshotInfo> snapshotInfos = new ArrayList<>(snapshotPaths.size());
+        for (Path snapshotPath : snapshotPaths) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(snapshotPath))) {
+                snapshotInfos.add(new SnapshotInfo(input.readLong(), input.readLong(), snapshotPath));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable stock snapshot {}", snapshotPath, e);
+            }
+        }
+        return snapshotInfos;
+    }
+
+    private static final class SnapshotInfo {
+
+        private final long sequence;
+        private final long timestamp;
+        private final Path path;
+
+        private SnapshotInfo(long sequence, long timestamp, Path path) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The stock held by active reservations, per product. The stock available to a decrement is the quantity minus the
+ * holds, so a decrement never takes the stock a reservation counts on. Holds are taken, and decrements checked, under
+ * the stripe lock of the product, which makes the check and the write that follows it atomic; ending a hold only frees
+ * stock and needs no lock. Products without holds cost no read.
+ */
+public class StockHolds {
+
+    private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final StripedLocks stockLocks;
+
+    private final ConcurrentMap<Long, Integer> heldByProduct = new ConcurrentHashMap<>();
+
+    public StockHolds(ProductRepository productRepository, StockEngine stockEngine, StripedLocks stockLocks) {
+        this.productRepository = productRepository;
+        this.stockEngine = stockEngine;
+        this.stockLocks = stockLocks;
+    }
+
+    public int heldFor(Long id) {
+        return heldByProduct.getOrDefault(id, 0);
+    }
+
+    /**
+     * Checks that decrementing the product leaves its holds in stock; must be called under the stripe lock of the
+     * product, by the thread that then writes the decrement.
+     */
+    public void verifyIfAvailable(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
+        int held = heldFor(id);
+        if (held > 0) {
+            verifyIfAvailable(id, quantityToDecrement, held);
+        }
+    }
+
+    public void hold(Long id, int quantity) throws ProductNotFoundException, ProductStockExceededException {
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            verifyIfAvailable(id, quantity, heldFor(id));
+            heldByProduct.merge(id, quantity, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Long id, int quantity) {
+        heldByProduct.computeIfPresent(id, (productId, held) -> held == quantity ? null : held - quantity);
+    }
+
+    /**
+     * Stops counting the holds of a deleted product.
+     */
+    public void forget(Long id) {
+        heldByProduct.remove(id);
+    }
+
+    private void verifyIfAvailable(Long id, int quantityToDecrement, int held)
+            throws ProductNotFoundException, ProductStockExceededException {
+        Product product = stockEngine.withCurrentStock(productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id)));
+        if ((long) product.getQuantity() - held - quantityToDecrement < product.getMin()) {
+            throw new ProductStockExceededException(id, quantityToDecrement);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free table of stock quantities indexed by product id. The min and the quantity of a product are packed in a
+ * single long, so a decrement is checked against the min and applied with one compare-and-set. Slots are allocated
+ * in fixed-size chunks that are never copied, so growing the table never races with a concurrent update. A parallel
+ * bitset records which products changed since the last {@link #drainDirty()}.
+ */
+class StockLedger {
+
+    static final long MAX_PRODUCT_ID = (1L << 28) - 1;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = (int) ((MAX_PRODUCT_ID + 1) >>> CHUNK_BITS);
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final AtomicReferenceArray<AtomicLongArray> stockChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicReferenceArray<AtomicLongArray> dirtyChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    void register(long id, int min, int quantity) {
+        if (id < 0 || id > MAX_PRODUCT_ID) {
+            throw new IllegalArgumentException(String.format("Product id %s is out of the ledger range", id));
+        }
+        stockChunk(id, true).set(slot(id), pack(min, quantity));
+    }
+
+    void remove(long id) {
+        AtomicLongArray chunk = stockChunk(id, false);
+        if (chunk != null) {
+            chunk.set(slot(id), ABSENT);
+        }
+    }
+
+    boolean contains(long id) {
+        return stockOf(id) != ABSENT;
+    }
+
+    /**
+     * @return the current quantity of the product, or {@code null} when it is not in the ledger
+     */
+    Integer quantityOf(long id) {
+        long stock = stockOf(id);
+        return stock == ABSENT ? null : quantity(stock);
+    }
+
+    void setQuantity(long id, int quantity) {
+        AtomicLongArray chunk = stockChunk(id, false);
+        if (chunk == null) {
+            return;
+        }
+        int slot = slot(id);
+        long stock;
+        do {
+            stock = chunk.get(slot);
+            if (stock == ABSENT) {
+                return;
+            }
+        } while (!chunk.compareAndSet(slot, stock, pack(min(stock), quantity)));
+        markDirty(id);
+    }
+
+    int decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
+        AtomicLongArray chunk = stockChunk(id, false);
+        if (chunk == null) {
+            throw new ProductNotFoundException(id);
+        }
+        int slot = slot(id);
+        long stock;
+        int quantityAfterDecrement;
+        do {
+            stock = chunk.get(slot);
+            if (stock == ABSENT) {
+                throw new ProductNotFoundException(id);
+            }
+            quantityAfterDecrement = quantity(stock) - quantityToDecrement;
+            if (quantityAfterDecrement < min(stock)) {
+                throw new ProductStockExceededException(id, quantityToDecrement);
+            }
+        } while (!chunk.compareAndSet(slot, stock, pack(min(stock), quantityAfterDecrement)));
+        markDirty(id);
+        return quantityAfterDecrement;
+    }
+
+    int increment(Long id, int quantityToIncrement) throws ProductNotFoundException {
+        AtomicLongArray chunk = stockChunk(id, false);
+        if (chunk == null) {
+            throw new ProductNotFoundException(id);
+        }
+        int slot = slot(id);
+        long stock;
+        int quantityAfterIncrement;
+        do {
+            stock = chunk.get(slot);
+            if (stock == ABSENT) {
+                throw new ProductNotFoundException(id);
+            }
+            quantityAfterIncrement = quantity(stock) + quantityToIncrement;
+        } while (!chunk.compareAndSet(slot, stock, pack(min(stock), quantityAfterIncrement)));
+        markDirty(id);
+        return quantityAfterIncrement;
+    }
+
+    void markDirty(long id) {
+        AtomicLongArray dirtyChunk = dirtyChunk(id);
+        int slot = slot(id);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        long bits;
+        do {
+            bits = dirtyChunk.get(word);
+            if ((bits & bit) != 0) {
+                return;
+            }
+        } while (!dirtyChunk.compareAndSet(word, bits, bits | bit));
+    }
+
+    /**
+     * Clears the dirty bitset and returns the ids of every product changed since the previous call.
+     */
+    long[] drainDirty() {
+        long[] ids = new long[64];
+        int count = 0;
+        for (int chunkIndex = 0; chunkIndex < MAX_CHUNKS; chunkIndex++) {
+            AtomicLongArray dirtyChunk = dirtyChunks.get(chunkIndex);
+            if (dirtyChunk == null) {
+                continue;
+            }
+            for (int word = 0; word < dirtyChunk.length(); word++) {
+                long bits = dirtyChunk.get(word) == 0 ? 0 : dirtyChunk.getAndSet(word, 0);
+                while (bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = ((long) chunkIndex << CHUNK_BITS) | ((long) word << 6) | bit;
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private long stockOf(long id) {
+        AtomicLongArray chunk = stockChunk(id, false);
+        return chunk == null ? ABSENT : chunk.get(slot(id));
+    }
+
+    private AtomicLongArray stockChunk(long id, boolean create) {
+        if (id < 0 || id > MAX_PRODUCT_ID) {
+            return null;
+        }
+        int chunkIndex = (int) (id >>> CHUNK_BITS);
+        AtomicLongArray chunk = stockChunks.get(chunkIndex);
+        if (chunk != null || !create) {
+            return chunk;
+        }
+        long[] emptySlots = new long[CHUNK_SIZE];
+        Arrays.fill(emptySlots, ABSENT);
+        stockChunks.compareAndSet(chunkIndex, null, new AtomicLongArray(emptySlots));
+        return stockChunks.get(chunkIndex);
+    }
+
+    private AtomicLongArray dirtyChunk(long id) {
+        int chunkIndex = (int) (id >>> CHUNK_BITS);
+        AtomicLongArray dirtyChunk = dirtyChunks.get(chunkIndex);
+        if (dirtyChunk == null) {
+            dirtyChunks.compareAndSet(chunkIndex, null, new AtomicLongArray(CHUNK_SIZE / Long.SIZE));
+            dirtyChunk = dirtyChunks.get(chunkIndex);
+        }
+        return dirtyChunk;
+    }
+
+    private static int slot(long id) {
+        return (int) (id & CHUNK_MASK);
+    }
+
+    private static long pack(int min, int quantity) {
+        return ((long) min << 32) | (quantity & 0xFFFFFFFFL);
+    }
+
+    private static int min(long stock) {
+        return (int) (stock >> 32);
+    }
+
+    private static int quantity(long stock) {
+        return (int) stock;
+    }
+}
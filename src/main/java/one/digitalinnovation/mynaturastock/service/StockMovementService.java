@@ -0,0 +1,152 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Applies a wave of stock movements in a single transaction. Movements are checked one by one, in the order they
+ * were sent, against the managed products; the dirty products are then flushed on commit as one JDBC batch of
+ * versioned UPDATEs. A movement that fails does not prevent the others from being applied. Change events of the
+ * applied movements are delivered to transactional listeners once the wave is committed. When stock is not kept in
+ * the database, each movement is applied through the {@link StockEngine} instead. Either way a decrement leaves the
+ * stock held by reservations in place: the wave holds the stripe locks of its products, as single changes do, so no
+ * hold is taken between its check and its commit.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockMovementService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StripedLocks stockLocks;
+    private final StockHolds stockHolds;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public List<StockMovementResultDTO> applyAll(List<StockMovementDTO> movements) {
+        if (!stockEngine.isDatabaseBacked()) {
+            return applyAllThroughStockEngine(movements);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        movements.forEach(movement -> ids.add(movement.getId()));
+        List<Lock> locks = stockLocks.forIds(ids);
+        locks.forEach(Lock::lock);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> applyAllInTransaction(ids, movements));
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private List<StockMovementResultDTO> applyAllInTransaction(Set<Long> ids, List<StockMovementDTO> movements) {
+        Map<Long, Product> productsById = findAllById(ids);
+        List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+        for (StockMovementDTO movement : movements) {
+            results.add(apply(movement, () -> move(productsById.get(movement.getId()), movement)));
+        }
+        return results;
+    }
+
+    private List<StockMovementResultDTO> applyAllThroughStockEngine(List<StockMovementDTO> movements) {
+        List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+        for (StockMovementDTO movement : movements) {
+            Lock lock = stockLocks.forId(movement.getId());
+            lock.lock();
+            try {
+                results.add(apply(movement, () -> movement.getDelta() < 0
+                        ? decrementThroughStockEngine(movement.getId(), -movement.getDelta())
+                        : stockEngine.increment(movement.getId(), movement.getDelta())));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return results;
+    }
+
+    private Product decrementThroughStockEngine(Long id, int quantityToDecrement)
+            throws ProductNotFoundException, ProductStockExceededException {
+        stockHolds.verifyIfAvailable(id, quantityToDecrement);
+        return stockEngine.decrement(id, quantityToDecrement);
+    }
+
+    private Map<Long, Product> findAllById(Set<Long> ids) {
+        Map<Long, Product> productsById = new HashMap<>(ids.size() * 2);
+        productRepository.findAllById(ids).forEach(product -> productsById.put(product.getId(), product));
+        return productsById;
+    }
+
+    private StockMovementResultDTO apply(StockMovementDTO movement, StockMove stockMove) {
+        StockMovementResultDTO.StockMovementResultDTOBuilder result = StockMovementResultDTO.builder()
+                .id(movement.getId())
+                .delta(movement.getDelta());
+        try {
+            Product product = stockMove.apply();
+            ProductDTO productDTO = productMapper.toDTO(product);
+            ProductChangeType changeType = movement.getDelta() < 0 ? ProductChangeType.DECREMENTED : ProductChangeType.INCREMENTED;
+            eventPublisher.publishEvent(new ProductChangedEvent(changeType, productDTO, movement.getDelta()));
+            return result.status(StockMovementStatus.APPLIED)
+                    .product(productDTO)
+                    .build();
+        } catch (ProductNotFoundException e) {
+            return result.status(StockMovementStatus.NOT_FOUND)
+                    .message(e.getMessage())
+                    .build();
+        } catch (ProductStockExceededException e) {
+            return result.status(StockMovementStatus.STOCK_EXCEEDED)
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    private Product move(Product product, StockMovementDTO movement) throws ProductNotFoundException, ProductStockExceededException {
+        if (product == null) {
+            throw new ProductNotFoundException(movement.getId());
+        }
+        int quantityAfterMovement = Math.addExact(product.getQuantity(), movement.getDelta());
+        if (movement.getDelta() < 0 && quantityAfterMovement - stockHolds.heldFor(product.getId()) < product.getMin()) {
+            throw new ProductStockExceededException(movement.getId(), -movement.getDelta());
+        }
+        product.setQuantity(quantityAfterMovement);
+        return product;
+    }
+
+    @FunctionalInterface
+    private interface StockMove {
+
+        Product apply() throws ProductNotFoundException, ProductStockExceededException;
+    }
+}
@@ -0,0 +1,177 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.ReservationLimitExceededException;
+import one.digitalinnovation.mynaturastock.exception.ReservationNotFoundException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Holds stock for a while, in memory, so a checkout can count on it before committing the decrement. A hold is taken
+ * only when the quantity minus the active holds of the product stays at or above its min; it then ends exactly once,
+ * by commit, release or expiry. Each hold schedules its own expiry on a single-thread scheduler whose priority queue
+ * also removes it when the hold ends earlier, so expiry never scans the holds. Every other decrement is checked
+ * against the {@link StockHolds}, so committing a hold finds the stock it was counting on.
+ */
+public class StockReservationService implements AutoCloseable {
+
+    private final ProductService productService;
+    private final StockHolds stockHolds;
+    private final StripedLocks stockLocks;
+    private final Clock clock;
+    private final int maxActive;
+    private final ScheduledThreadPoolExecutor expiryScheduler;
+
+    private final AtomicLong lastReservationId = new AtomicLong();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final ConcurrentMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public StockReservationService(ProductService productService, StockHolds stockHolds, StripedLocks stockLocks,
+                                   Clock clock, int maxActive) {
+        this.productService = productService;
+        this.stockHolds = stockHolds;
+        this.stockLocks = stockLocks;
+        this.clock = clock;
+        this.maxActive = maxActive;
+        this.expiryScheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("reservation-expiry-"));
+        this.expiryScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public ReservationDTO reserve(Long productId, int quantity, Duration ttl)
+            throws ProductNotFoundException, ProductStockExceededException, ReservationLimitExceededException {
+        if (activeCount.incrementAndGet() > maxActive) {
+            activeCount.decrementAndGet();
+            throw new ReservationLimitExceededException(maxActive);
+        }
+        try {
+            stockHolds.hold(productId, quantity);
+        } catch (ProductNotFoundException | ProductStockExceededException | RuntimeException e) {
+            activeCount.decrementAndGet();
+            throw e;
+        }
+        Reservation reservation = new Reservation(lastReservationId.incrementAndGet(), productId, quantity,
+                clock.instant().plus(ttl));
+        reservations.put(reservation.id, reservation);
+        reservation.expiry = expiryScheduler.schedule(() -> end(reservation), ttl.toMillis(), TimeUnit.MILLISECONDS);
+        return toDTO(reservation);
+    }
+
+    public ReservationDTO findById(Long productId, Long reservationId) throws ReservationNotFoundException {
+        return toDTO(verifyIfIsActive(productId, reservationId));
+    }
+
+    /**
+     * Turns the hold into a decrement of the product stock. The hold ends under the stripe lock of the product, so no
+     * other decrement takes the stock it frees before this one.
+     */
+    public ProductDTO commit(Long productId, Long reservationId)
+            throws ReservationNotFoundException, ProductNotFoundException, ProductStockExceededException {
+        Reservation reservation = verifyIfIsActive(productId, reservationId);
+        if (!reservation.active.compareAndSet(true, false)) {
+            throw new ReservationNotFoundException(productId, reservationId);
+        }
+        Lock lock = stockLocks.forId(productId);
+        lock.lock();
+        try {
+            forget(reservation);
+            return productService.decrement(productId, reservation.quantity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Long productId, Long reservationId) throws ReservationNotFoundException {
+        if (!end(verifyIfIsActive(productId, reservationId))) {
+            throw new ReservationNotFoundException(productId, reservationId);
+        }
+    }
+
+    public int activeCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * Holds of a deleted product are no longer counted; they end as usual, and committing them fails.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangeType.DELETED) {
+            stockHolds.forget(event.getProduct().getId());
+        }
+    }
+
+    @Override
+    public void close() {
+        expiryScheduler.shutdownNow();
+    }
+
+    private Reservation verifyIfIsActive(Long productId, Long reservationId) throws ReservationNotFoundException {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.productId.equals(productId) || !reservation.active.get()) {
+            throw new ReservationNotFoundException(productId, reservationId);
+        }
+        return reservation;
+    }
+
+    private boolean end(Reservation reservation) {
+        if (!reservation.active.compareAndSet(true, false)) {
+            return false;
+        }
+        forget(reservation);
+        return true;
+    }
+
+    private void forget(Reservation reservation) {
+        reservations.remove(reservation.id);
+        ScheduledFuture<?> expiry = reservation.expiry;
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+        stockHolds.release(reservation.productId, reservation.quantity);
+        activeCount.decrementAndGet();
+    }
+
+    private static ReservationDTO toDTO(Reservation reservation) {
+        return ReservationDTO.builder()
+                .id(reservation.id)
+                .productId(reservation.productId)
+                .quantity(reservation.quantity)
+                .expiresAt(reservation.expiresAt)
+                .build();
+    }
+
+    private static final class Reservation {
+
+        private final Long id;
+        private final Long productId;
+        private final int quantity;
+        private final Instant expiresAt;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+        private volatile ScheduledFuture<?> expiry;
+
+        private Reservation(Long id, Long productId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Append-only log of stock quantities kept on local disk. Every record holds a product id and the quantity it had
+ * after a change, so replaying the log is idempotent and the last record of an id wins. The log is split in
+ * segments: {@link #rotate()} seals the current segment, and sealed segments are deleted once their quantities have
+ * been written to the database. A record torn by a crash at the end of a segment is ignored on replay.
+ */
+class StockWriteAheadLog implements Closeable {
+
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(RECORD_SIZE);
+
+    private long segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+
+    StockWriteAheadLog(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        List<Path> segments = segments(directory);
+        this.segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        openNextSegment();
+    }
+
+    /**
+     * Appends the quantity of the product. The quantity is read while holding the log, so the last record of an id
+     * always carries its latest quantity even when changes to the same product race to be logged.
+     */
+    synchronized void append(long id, IntSupplier quantity) throws IOException {
+        record.clear();
+        record.putLong(id).putInt(quantity.getAsInt()).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return every sealed segment, oldest first
+     */
+    synchronized List<Path> rotate() throws IOException {
+        channel.close();
+        openNextSegment();
+        List<Path> sealedSegments = segments(directory);
+        sealedSegments.remove(segment);
+        return sealedSegments;
+    }
+
+    void delete(List<Path> sealedSegments) throws IOException {
+        for (Path sealedSegment : sealedSegments) {
+            Files.deleteIfExists(sealedSegment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    static void replay(Path directory, StockRecordConsumer consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        for (Path segment : segments(directory)) {
+            try (FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                buffer.clear();
+                while (segmentChannel.read(buffer) > 0 || buffer.position() >= RECORD_SIZE) {
+                    buffer.flip();
+                    while (buffer.remaining() >= RECORD_SIZE) {
+                        consumer.accept(buffer.getLong(), buffer.getInt());
+                    }
+                    buffer.compact();
+                }
+            }
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long segmentNumber(Path segment) {
+        String fileName = segment.getFileName().toString();
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Unexpected write-ahead log segment " + fileName, e));
+        }
+    }
+
+    @FunctionalInterface
+    interface StockRecordConsumer {
+
+        void accept(long id, int quantity);
+    }
+}
@@ -0,0 +1,59 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed table of locks shared by all products, so locking a product allocates nothing and the table never grows.
+ * The stripe count is rounded up to a power of two and a product maps to the stripe given by the low bits of its id:
+ * ids closer to each other than the stripe count never share a lock, and products further apart share one only by
+ * chance, with one chance in the stripe count.
+ */
+public class StripedLocks {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int stripeCount) {
+        if (stripeCount < 1 || stripeCount > 1 << 30) {
+            throw new IllegalArgumentException("The stripe count must be between 1 and 2^30: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public Lock forId(long id) {
+        return stripes[Long.hashCode(id) & mask];
+    }
+
+    /**
+     * The locks of several products, each once and in stripe order, so that threads taking them in the returned order
+     * never deadlock.
+     */
+    public List<Lock> forIds(Collection<Long> ids) {
+        BitSet stripeIndexes = new BitSet(stripes.length);
+        for (Long id : ids) {
+            stripeIndexes.set(Long.hashCode(id) & mask);
+        }
+        List<Lock> locks = new ArrayList<>(stripeIndexes.cardinality());
+        for (int i = stripeIndexes.nextSetBit(0); i >= 0; i = stripeIndexes.nextSetBit(i + 1)) {
+            locks.add(stripes[i]);
+        }
+        return locks;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+}
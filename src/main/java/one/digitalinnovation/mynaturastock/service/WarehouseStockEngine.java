@@ -0,0 +1,300 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.entity.Warehouse;
+import one.digitalinnovation.mynaturastock.entity.WarehouseStock;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import one.digitalinnovation.mynaturastock.repository.WarehouseRepository;
+import one.digitalinnovation.mynaturastock.repository.WarehouseStockRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the stock of every product per warehouse, in {@link WarehouseStock} rows, with each product spread over
+ * {@code slots} counter rows per warehouse. A change picks a slot at random and applies one conditional UPDATE to it,
+ * so concurrent changes to a hot product, from this instance or others sharing the database, rarely wait on the same
+ * row. As each slot holds its own share of the min, no lock or read is needed to keep the product at or above it; a
+ * decrement no single slot can cover locks the slots of the product and takes from several.
+ * <p>
+ * Decrements without a warehouse try the warehouses in the configured order. The product rows are not written on
+ * every change: their quantity is set to the sum of the slots by {@link #flush()}, and until then this instance
+ * overlays the quantities it changed on the products it returns.
+ */
+@Slf4j
+public class WarehouseStockEngine implements StockEngine {
+
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final TransactionOperations transactionOperations;
+    private final List<Warehouse> configuredWarehouses;
+    private final int slots;
+
+    private final Map<Long, Integer> unflushedQuantities = new ConcurrentHashMap<>();
+    private volatile List<Warehouse> warehouses = Collections.emptyList();
+
+    /**
+     * @param configuredWarehouses the warehouses in the order decrements try them, the first one receiving the stock
+     *                             of new products; they are registered by code, ids are ignored
+     * @param slots                how many counter rows hold the stock of a product at each warehouse
+     */
+    public WarehouseStockEngine(ProductRepository productRepository, WarehouseRepository warehouseRepository,
+                                WarehouseStockRepository warehouseStockRepository, TransactionOperations transactionOperations,
+                                List<Warehouse> configuredWarehouses, int slots) {
+        if (configuredWarehouses.isEmpty()) {
+            throw new IllegalArgumentException("At least one warehouse must be configured");
+        }
+        if (slots < 1) {
+            throw new IllegalArgumentException("There must be at least one stock slot per warehouse");
+        }
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.warehouseStockRepository = warehouseStockRepository;
+        this.transactionOperations = transactionOperations;
+        this.configuredWarehouses = configuredWarehouses;
+        this.slots = slots;
+    }
+
+    /**
+     * Registers the configured warehouses and moves the stock of the products that have none at any warehouse, as
+     * when the mode is first switched on, to the first one.
+     */
+    @PostConstruct
+    public void open() {
+        List<Warehouse> registeredWarehouses = new ArrayList<>(configuredWarehouses.size());
+        for (Warehouse configuredWarehouse : configuredWarehouses) {
+            Warehouse warehouse = warehouseRepository.findByCode(configuredWarehouse.getCode())
+                    .orElseGet(Warehouse::new);
+            warehouse.setCode(configuredWarehouse.getCode());
+            warehouse.setName(configuredWarehouse.getName());
+            warehouse.setLatitude(configuredWarehouse.getLatitude());
+            warehouse.setLongitude(configuredWarehouse.getLongitude());
+            registeredWarehouses.add(warehouseRepository.save(warehouse));
+        }
+        warehouses = Collections.unmodifiableList(registeredWarehouses);
+        int seededProducts = warehouseStockRepository.insertSlotsForProductsWithoutStock(defaultWarehouse().getId(), slots);
+        if (seededProducts > 0) {
+            log.info("Moved the stock of {} products to warehouse {}", seededProducts, defaultWarehouse().getCode());
+        }
+    }
+
+    /**
+     * The registered warehouses, in the order decrements without a warehouse try them.
+     */
+    public List<Warehouse> warehouses() {
+        return warehouses;
+    }
+
+    @Override
+    public Product decrement(Long id, int quantityToDecrement) throws ProductNotFoundException, ProductStockExceededException {
+        for (Warehouse warehouse : warehouses) {
+            if (decrementAnySlot(id, warehouse.getId(), quantityToDecrement)) {
+                return withTotal(id);
+            }
+        }
+        if (decrementAcrossSlots(id, null, quantityToDecrement)) {
+            return withTotal(id);
+        }
+        throw stockExceeded(id, quantityToDecrement);
+    }
+
+    /**
+     * Decrements the stock held at one warehouse, leaving the others untouched.
+     */
+    public Product decrementAt(Long id, Warehouse warehouse, int quantityToDecrement)
+            throws ProductNotFoundException, ProductStockExceededException {
+        if (decrementAnySlot(id, warehouse.getId(), quantityToDecrement)
+                || decrementAcrossSlots(id, warehouse.getId(), quantityToDecrement)) {
+            return withTotal(id);
+        }
+        throw stockExceeded(id, quantityToDecrement);
+    }
+
+    @Override
+    public Product increment(Long id, int quantityToIncrement) throws ProductNotFoundException {
+        return incrementAt(id, defaultWarehouse(), quantityToIncrement);
+    }
+
+    /**
+     * Increments the stock held at one warehouse, giving the product its slots there on its first stock.
+     */
+    public Product incrementAt(Long id, Warehouse warehouse, int quantityToIncrement) throws ProductNotFoundException {
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        if (!warehouseStockRepository.incrementSlot(id, warehouse.getId(), slot, quantityToIncrement)) {
+            if (!productRepository.existsById(id)) {
+                throw new ProductNotFoundException(id);
+            }
+            try {
+                warehouseStockRepository.insertSlots(id, warehouse.getId(), slots, 0, 0);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("The slots of product {} at warehouse {} were inserted concurrently", id, warehouse.getCode());
+            }
+            warehouseStockRepository.incrementSlot(id, warehouse.getId(), slot, quantityToIncrement);
+        }
+        return withTotal(id);
+    }
+
+    /**
+     * The stock of a product at each warehouse holding any, in the order of {@link #warehouses()}.
+     */
+    public Map<Warehouse, Integer> stockByWarehouse(Long id) throws ProductNotFoundException {
+        Map<Long, Integer> quantitiesByWarehouseId = new HashMap<>();
+        for (WarehouseStock stock : warehouseStockRepository.findByProductIdOrderByWarehouseIdAscSlotAsc(id)) {
+            quantitiesByWarehouseId.merge(stock.getWarehouseId(), stock.getQuantity(), Integer::sum);
+        }
+        Map<Warehouse, Integer> stockByWarehouse = new LinkedHashMap<>();
+        for (Warehouse warehouse : warehouses) {
+            Integer quantity = quantitiesByWarehouseId.get(warehouse.getId());
+            if (quantity != null) {
+                stockByWarehouse.put(warehouse, quantity);
+            }
+        }
+        if (stockByWarehouse.isEmpty() && !productRepository.existsById(id)) {
+            throw new ProductNotFoundException(id);
+        }
+        return stockByWarehouse;
+    }
+
+    @Override
+    public Product withCurrentStock(Product product) {
+        Integer quantity = unflushedQuantities.get(product.getId());
+        if (quantity == null || quantity == product.getQuantity()) {
+            return product;
+        }
+        return new Product(product.getId(), product.getName(), product.getMin(), quantity, product.getType(), product.getVersion());
+    }
+
+    @Override
+    public boolean isDatabaseBacked() {
+        return false;
+    }
+
+    /**
+     * Sets the quantity of the products changed since the previous flush to the sum of their slots.
+     */
+    @Scheduled(fixedDelayString = "${mynaturastock.stock.warehouses.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Integer> flushedQuantities = new HashMap<>(unflushedQuantities);
+        List<Long> ids = new ArrayList<>(flushedQuantities.keySet());
+        for (int from = 0; from < ids.size(); from += FLUSH_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + FLUSH_BATCH_SIZE, ids.size()));
+            try {
+                warehouseStockRepository.writeBackQuantities(batch);
+            } catch (RuntimeException e) {
+                log.warn("Could not write back the stock of {} products, retrying on the next flush", batch.size(), e);
+                return;
+            }
+            for (Long id : batch) {
+                unflushedQuantities.remove(id, flushedQuantities.get(id));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProduct().getId();
+        if (event.getType() == ProductChangeType.CREATED) {
+            try {
+                warehouseStockRepository.insertSlots(id, defaultWarehouse().getId(), slots,
+                        event.getProduct().getQuantity(), event.getProduct().getMin());
+            } catch (DataIntegrityViolationException e) {
+                log.debug("The slots of product {} were already inserted", id);
+            }
+        } else if (event.getType() == ProductChangeType.DELETED) {
+            warehouseStockRepository.deleteByProductId(id);
+            unflushedQuantities.remove(id);
+        }
+    }
+
+    private boolean decrementAnySlot(Long id, Long warehouseId, int quantityToDecrement) {
+        int firstSlot = ThreadLocalRandom.current().nextInt(slots);
+        for (int i = 0; i < slots; i++) {
+            if (warehouseStockRepository.decrementSlot(id, warehouseId, (firstSlot + i) % slots, quantityToDecrement)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the quantity from several slots, at one warehouse or, when {@code warehouseId} is null, at all of them in
+     * the order of {@link #warehouses()}, with every slot of the product locked.
+     */
+    private boolean decrementAcrossSlots(Long id, Long warehouseId, int quantityToDecrement) {
+        Boolean decremented = transactionOperations.execute(status -> {
+            List<WarehouseStock> stocks = new ArrayList<>(warehouseStockRepository.lockByProductId(id));
+            stocks.removeIf(stock -> warehouseId != null && !warehouseId.equals(stock.getWarehouseId()));
+            stocks.sort(Comparator.comparingInt(stock -> warehousePosition(stock.getWarehouseId())));
+            int available = 0;
+            for (WarehouseStock stock : stocks) {
+                available += stock.getQuantity() - stock.getMinQuantity();
+            }
+            if (available < quantityToDecrement) {
+                return false;
+            }
+            int remaining = quantityToDecrement;
+            for (WarehouseStock stock : stocks) {
+                int taken = Math.min(remaining, stock.getQuantity() - stock.getMinQuantity());
+                if (taken > 0) {
+                    stock.setQuantity(stock.getQuantity() - taken);
+                    remaining -= taken;
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(decremented);
+    }
+
+    private int warehousePosition(Long warehouseId) {
+        for (int position = 0; position < warehouses.size(); position++) {
+            if (warehouses.get(position).getId().equals(warehouseId)) {
+                return position;
+            }
+        }
+        return warehouses.size();
+    }
+
+    private ProductStockExceededException stockExceeded(Long id, int quantityToDecrement) throws ProductNotFoundException {
+        if (!productRepository.existsById(id)) {
+            throw new ProductNotFoundException(id);
+        }
+        return new ProductStockExceededException(id, quantityToDecrement);
+    }
+
+    private Product withTotal(Long id) throws ProductNotFoundException {
+        Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+        int quantity = warehouseStockRepository.sumQuantityByProductId(id);
+        unflushedQuantities.put(id, quantity);
+        return new Product(id, product.getName(), product.getMin(), quantity, product.getType(), product.getVersion());
+    }
+
+    private Warehouse defaultWarehouse() {
+        return warehouses.get(0);
+    }
+}
@@ -0,0 +1,138 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseStockDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.entity.Warehouse;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.WarehouseNotFoundException;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Stock changes at a given warehouse, or at the nearest one able to cover them. Like {@link ProductService}, each
+ * change holds the lock of the product while it is applied and its event published, so the events of a product are
+ * published in the order of its changes, and a decrement leaves the stock held by reservations in place.
+ */
+public class WarehouseStockService {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final WarehouseStockEngine warehouseStockEngine;
+    private final StripedLocks stockLocks;
+    private final StockHolds stockHolds;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public WarehouseStockService(WarehouseStockEngine warehouseStockEngine, StripedLocks stockLocks, StockHolds stockHolds,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.warehouseStockEngine = warehouseStockEngine;
+        this.stockLocks = stockLocks;
+        this.stockHolds = stockHolds;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<WarehouseStockDTO> stockOf(Long id) throws ProductNotFoundException {
+        List<WarehouseStockDTO> stocks = new ArrayList<>();
+        for (Map.Entry<Warehouse, Integer> stock : warehouseStockEngine.stockByWarehouse(id).entrySet()) {
+            stocks.add(WarehouseStockDTO.builder()
+                    .warehouse(stock.getKey().getCode())
+                    .name(stock.getKey().getName())
+                    .quantity(stock.getValue())
+                    .build());
+        }
+        return stocks;
+    }
+
+    public ProductDTO decrementAt(Long id, String warehouseCode, int quantityToDecrement)
+            throws ProductNotFoundException, WarehouseNotFoundException, ProductStockExceededException {
+        Warehouse warehouse = findWarehouse(warehouseCode);
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            stockHolds.verifyIfAvailable(id, quantityToDecrement);
+            Product decrementedProductStock = warehouseStockEngine.decrementAt(id, warehouse, quantityToDecrement);
+            return publishChange(ProductChangeType.DECREMENTED, decrementedProductStock, -quantityToDecrement);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Decrements the stock at the nearest warehouse holding enough of it on its own, so the order ships from one place.
+     */
+    public WarehouseDecrementDTO decrementNearest(Long id, double latitude, double longitude, int quantityToDecrement)
+            throws ProductNotFoundException, ProductStockExceededException {
+        List<Warehouse> warehouses = new ArrayList<>(warehouseStockEngine.warehouses());
+        warehouses.sort(Comparator.comparingDouble(warehouse -> distanceKm(warehouse, latitude, longitude)));
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            stockHolds.verifyIfAvailable(id, quantityToDecrement);
+            for (Warehouse warehouse : warehouses) {
+                try {
+                    Product decrementedProductStock = warehouseStockEngine.decrementAt(id, warehouse, quantityToDecrement);
+                    return WarehouseDecrementDTO.builder()
+                            .warehouse(warehouse.getCode())
+                            .product(publishChange(ProductChangeType.DECREMENTED, decrementedProductStock, -quantityToDecrement))
+                            .build();
+                } catch (ProductStockExceededException e) {
+                    // not enough at this warehouse, try the next nearest
+                }
+            }
+            throw new ProductStockExceededException(id, quantityToDecrement);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProductDTO incrementAt(Long id, String warehouseCode, int quantityToIncrement)
+            throws ProductNotFoundException, WarehouseNotFoundException {
+        Warehouse warehouse = findWarehouse(warehouseCode);
+        Lock lock = stockLocks.forId(id);
+        lock.lock();
+        try {
+            Product incrementedProductStock = warehouseStockEngine.incrementAt(id, warehouse, quantityToIncrement);
+            return publishChange(ProductChangeType.INCREMENTED, incrementedProductStock, quantityToIncrement);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Warehouse findWarehouse(String code) throws WarehouseNotFoundException {
+        for (Warehouse warehouse : warehouseStockEngine.warehouses()) {
+            if (warehouse.getCode().equals(code)) {
+                return warehouse;
+            }
+        }
+        throw new WarehouseNotFoundException(code);
+    }
+
+    private ProductDTO publishChange(ProductChangeType changeType, Product product, int quantityDelta) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(changeType, productDTO, quantityDelta));
+        return productDTO;
+    }
+
+    /**
+     * The great-circle distance between a warehouse and a point, by the haversine formula.
+     */
+    static double distanceKm(Warehouse warehouse, double latitude, double longitude) {
+        double latitudeDelta = Math.toRadians(latitude - warehouse.getLatitude());
+        double longitudeDelta = Math.toRadians(longitude - warehouse.getLongitude());
+        double a = Math.pow(Math.sin(latitudeDelta / 2), 2)
+                + Math.cos(Math.toRadians(warehouse.getLatitude())) * Math.cos(Math.toRadians(latitude))
+                * Math.pow(Math.sin(longitudeDelta / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,102 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.enums.CatalogueExportFormat;
+import one.digitalinnovation.mynaturastock.exception.CatalogueExportNotReadyException;
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService;
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService.CatalogueExport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogueExportControllerTest {
+
+    private static final String EXPORT_API_URL_PATH = "/api/v1/products/export";
+    private static final byte[] EXPORTED_BYTES = {31, -117, 8, 0, 1, 2, 3};
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CatalogueExportService catalogueExportService;
+
+    @InjectMocks
+    private CatalogueExportController catalogueExportController;
+
+    @TempDir
+    Path directory;
+
+    private CatalogueExport export;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(catalogueExportController).build();
+        Path file = Files.write(directory.resolve("catalogue.bin.gz"), EXPORTED_BYTES);
+        export = new CatalogueExport(CatalogueExportFormat.BINARY, file, "\"1234abcd-7\"", EXPORTED_BYTES.length, Instant.now());
+    }
+
+    @Test
+    void whenGETIsCalledThenTheExportFileIsReturnedWithItsETag() throws Exception {
+        // when
+        when(catalogueExportService.latest(CatalogueExportFormat.BINARY)).thenReturn(export);
+
+        // then
+        mockMvc.perform(get(EXPORT_API_URL_PATH).param("format", "BINARY"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, export.getEtag()))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, CatalogueExportController.APPLICATION_GZIP_VALUE))
+                .andExpect(content().bytes(EXPORTED_BYTES));
+    }
+
+    @Test
+    void whenGETIsCalledWithTheLatestETagThenNotModifiedStatusIsReturned() throws Exception {
+        // when
+        when(catalogueExportService.latest(CatalogueExportFormat.BINARY)).thenReturn(export);
+
+        // then
+        mockMvc.perform(get(EXPORT_API_URL_PATH).param("format", "BINARY").header(HttpHeaders.IF_NONE_MATCH, export.getEtag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void whenTheConnectorSupportsSendfileThenTheFileIsHandedOverToIt() throws Exception {
+        // when
+        when(catalogueExportService.latest(CatalogueExportFormat.BINARY)).thenReturn(export);
+
+        // then
+        mockMvc.perform(get(EXPORT_API_URL_PATH).param("format", "BINARY")
+                .requestAttr(CatalogueExportController.SENDFILE_SUPPORTED_ATTRIBUTE, true))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(CatalogueExportController.SENDFILE_FILENAME_ATTRIBUTE,
+                        export.getPath().toAbsolutePath().toString()))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void whenNoExportIsReadyThenServiceUnavailableStatusIsReturned() throws Exception {
+        // when
+        when(catalogueExportService.latest(CatalogueExportFormat.CSV)).thenThrow(new CatalogueExportNotReadyException());
+
+        // then
+        mockMvc.perform(get(EXPORT_API_URL_PATH))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
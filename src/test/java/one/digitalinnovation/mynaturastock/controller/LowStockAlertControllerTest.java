@@ -0,0 +1,76 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.service.LowStockTracker;
+import one.digitalinnovation.mynaturastock.service.SseLowStockAlertSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockAlertControllerTest {
+
+    private static final String LOW_STOCK_API_URL_PATH = "/api/v1/alerts/low-stock";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private LowStockTracker lowStockTracker;
+
+    @Spy
+    private SseLowStockAlertSink sseLowStockAlertSink = new SseLowStockAlertSink(60_000);
+
+    @InjectMocks
+    private LowStockAlertController lowStockAlertController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(lowStockAlertController).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sseLowStockAlertSink.close();
+    }
+
+    @Test
+    void whenGETIsCalledThenTheProductsBelowTheirMinAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        when(lowStockTracker.belowMin()).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        mockMvc.perform(get(LOW_STOCK_API_URL_PATH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenTheStreamIsOpenedThenTheClientIsSubscribed() throws Exception {
+        // then
+        mockMvc.perform(get(LOW_STOCK_API_URL_PATH + "/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        assertThat(sseLowStockAlertSink.subscriberCount(), is(1));
+    }
+}
@@ -1,32 +1,75 @@
 package one.digitalinnovation.mynaturastock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.config.ProductStreamProperties;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
 import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementsDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
 import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.mapper.ProductCborModule;
+import one.digitalinnovation.mynaturastock.service.DecrementCoalescer;
+import one.digitalinnovation.mynaturastock.service.IdempotencyStore;
+import one.digitalinnovation.mynaturastock.service.ProductChangeBroadcaster;
 import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.ProductVersionRegistry;
+import one.digitalinnovation.mynaturastock.service.StockMovementService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static one.digitalinnovation.mynaturastock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,12 +80,41 @@ public class ProductControllerTest {
     private static final long INVALID_PRODUCT_ID = 2L;
     private static final String PRODUCT_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String PRODUCT_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String PRODUCT_API_SUBPATH_STOCK_MOVEMENTS_URL = "/stock-movements";
+    private static final String PRODUCT_API_SUBPATH_BY_CATEGORY_URL = "/by-category";
+    private static final String PRODUCT_API_SUBPATH_BELOW_MIN_URL = "/below-min";
 
     private MockMvc mockMvc;
 
     @Mock
     private ProductService productService;
 
+    @Mock
+    private StockMovementService stockMovementService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @Mock
+    private ObjectProvider<DecrementCoalescer> decrementCoalescer;
+
+    @Spy
+    private ProductVersionRegistry productVersions = new ProductVersionRegistry();
+
+    @Mock
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @Spy
+    private ProductStreamProperties productStreamProperties = new ProductStreamProperties();
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(Jackson2ObjectMapperBuilder.cbor()
+            .modulesToInstall(new ProductCborModule())
+            .build(), null, TransactionOperations.withoutTransaction(), Clock.systemUTC(), Duration.ofHours(1), 4, 100);
+
     @InjectMocks
     private ProductController productController;
 
@@ -63,7 +135,7 @@ public class ProductControllerTest {
         when(productService.createProduct(productDTO)).thenReturn(productDTO);
 
         // then
-        mockMvc.perform(post(PRODUCT_API_URL_PATH)
+        perform(post(PRODUCT_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(productDTO)))
                 .andExpect(status().isCreated())
@@ -78,7 +150,7 @@ public class ProductControllerTest {
         productDTO.setName(null);
 
         // then
-        mockMvc.perform(post(PRODUCT_API_URL_PATH)
+        perform(post(PRODUCT_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(productDTO)))
                 .andExpect(status().isBadRequest());
@@ -93,7 +165,7 @@ public class ProductControllerTest {
         when(productService.findByName(productDTO.getName())).thenReturn(productDTO);
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(productDTO.getName())))
@@ -109,11 +181,71 @@ public class ProductControllerTest {
         when(productService.findByName(productDTO.getName())).thenThrow(ProductNotFoundException.class);
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void whenGETIsCalledWithTheCurrentETagThenNotModifiedStatusIsReturnedWithoutReadingTheProduct() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        String eTag = productVersions.productETag(productDTO.getName());
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        verify(productService, never()).findByName(any());
+    }
+
+    @Test
+    void whenGETIsCalledWithAnETagOlderThanTheLastChangeThenTheProductIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        String oldETag = productVersions.productETag(productDTO.getName());
+        productVersions.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, productDTO, -1));
+
+        // when
+        when(productService.findByName(productDTO.getName())).thenReturn(productDTO);
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, oldETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, productVersions.productETag(productDTO.getName())))
+                .andExpect(jsonPath("$.name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETListIsCalledWithTheCurrentCatalogueETagThenNotModifiedStatusIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productVersions.onProductChanged(new ProductChangedEvent(ProductChangeType.CREATED, productDTO, productDTO.getQuantity()));
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, productVersions.catalogueETag()))
+                .andExpect(status().isNotModified());
+        verify(productService, never()).listAll();
+    }
+
+    @Test
+    void whenTheRequestExecutorIsSaturatedThenServiceUnavailableStatusIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        doReturn(CompletableFuture.failedFuture(new ServiceOverloadedException())).when(requestExecutor).submit(any());
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void whenGETListWithProductsIsCalledThenOkStatusIsReturned() throws Exception {
         // given
@@ -123,7 +255,7 @@ public class ProductControllerTest {
         when(productService.listAll()).thenReturn(Collections.singletonList(productDTO));
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name", is(productDTO.getName())))
@@ -139,11 +271,100 @@ public class ProductControllerTest {
         when(productService.listAll()).thenReturn(Collections.singletonList(productDTO));
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETListIsCalledWithLimitThenAPageAndALinkToTheNextPageAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        when(productService.listAfter(0L, 1)).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "?limit=1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())))
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, is(String.valueOf(productDTO.getId()))))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + productDTO.getId())));
+    }
+
+    @Test
+    void whenGETListIsCalledForTheLastPageThenNoLinkIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        when(productService.listAfter(VALID_PRODUCT_ID, 10)).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "?limit=10&after=" + VALID_PRODUCT_ID)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void whenGETByCategoryIsCalledThenTheProductsOfTheCategoryAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().type(Category.CABELOS).build().toProductDTO();
+
+        //when
+        when(productService.listByCategory(Category.CABELOS)).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + PRODUCT_API_SUBPATH_BY_CATEGORY_URL + "/CABELOS")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())))
+                .andExpect(jsonPath("$[0].type", is(Category.CABELOS.toString())));
+    }
+
+    @Test
+    void whenGETBelowMinIsCalledThenTheProductsAtOrBelowTheirMinAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().max(12).build().toProductDTO();
+
+        //when
+        when(productService.listAtOrBelowMin()).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + PRODUCT_API_SUBPATH_BELOW_MIN_URL)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETListIsCalledAcceptingNdjsonThenProductsAreStreamedOnePerLine() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        doAnswer(invocation -> {
+            Consumer<ProductDTO> productConsumer = invocation.getArgument(0);
+            productConsumer.accept(productDTO);
+            productConsumer.accept(productDTO);
+            return null;
+        }).when(productService).streamAll(any());
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .accept(ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String productLine = asJsonString(productDTO) + "\n";
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(productLine + productLine));
+    }
+
     @Test
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
         // given
@@ -153,7 +374,7 @@ public class ProductControllerTest {
         doNothing().when(productService).deleteById(productDTO.getId());
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + productDTO.getId())
+        perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + productDTO.getId())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
@@ -164,7 +385,7 @@ public class ProductControllerTest {
         doThrow(ProductNotFoundException.class).when(productService).deleteById(INVALID_PRODUCT_ID);
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID)
+        perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
@@ -180,11 +401,126 @@ public class ProductControllerTest {
 
         when(productService.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(productDTO);
 
-        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+        perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(productDTO.getName())))
                 .andExpect(jsonPath("$.type", is(productDTO.getType().toString())))
                 .andExpect(jsonPath("$.quantity", is(productDTO.getQuantity())));
     }
+
+    @Test
+    void whenPATCHIsRetriedWithTheSameIdempotencyKeyThenTheStockIsDecrementedOnce() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productDTO.setQuantity(productDTO.getQuantity() - quantityDTO.getQuantity());
+
+        // when
+        when(productService.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(productDTO);
+
+        // then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                    .header(ProductController.IDEMPOTENCY_KEY_HEADER, "order-42")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(quantityDTO)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quantity", is(productDTO.getQuantity())));
+        }
+        verify(productService, times(1)).decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementWithCoalescingThenTheOutcomeOfTheBatchedDecrementIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        DecrementCoalescer coalescer = mock(DecrementCoalescer.class);
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productDTO.setQuantity(productDTO.getQuantity() - quantityDTO.getQuantity());
+
+        // when
+        when(decrementCoalescer.getIfAvailable()).thenReturn(coalescer);
+        when(coalescer.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(CompletableFuture.completedFuture(productDTO));
+        when(coalescer.decrement(INVALID_PRODUCT_ID, quantityDTO.getQuantity()))
+                .thenReturn(CompletableFuture.failedFuture(new ProductStockExceededException(INVALID_PRODUCT_ID, quantityDTO.getQuantity())));
+
+        // then
+        perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(productDTO.getQuantity())));
+        perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void whenPOSTStockMovementsIsCalledThenTheOutcomeOfEachMovementIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        StockMovementDTO validMovement = StockMovementDTO.builder().id(VALID_PRODUCT_ID).delta(-2).build();
+        StockMovementDTO invalidMovement = StockMovementDTO.builder().id(INVALID_PRODUCT_ID).delta(5).build();
+        StockMovementsDTO stockMovementsDTO = StockMovementsDTO.builder()
+                .movements(Arrays.asList(validMovement, invalidMovement))
+                .build();
+
+        // when
+        when(stockMovementService.applyAll(stockMovementsDTO.getMovements())).thenReturn(Arrays.asList(
+                StockMovementResultDTO.builder().id(VALID_PRODUCT_ID).delta(-2).status(StockMovementStatus.APPLIED).product(productDTO).build(),
+                StockMovementResultDTO.builder().id(INVALID_PRODUCT_ID).delta(5).status(StockMovementStatus.NOT_FOUND).build()));
+
+        // then
+        perform(post(PRODUCT_API_URL_PATH + PRODUCT_API_SUBPATH_STOCK_MOVEMENTS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(stockMovementsDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(StockMovementStatus.APPLIED.toString())))
+                .andExpect(jsonPath("$[0].product.name", is(productDTO.getName())))
+                .andExpect(jsonPath("$[1].status", is(StockMovementStatus.NOT_FOUND.toString())));
+    }
+
+    @Test
+    void whenPOSTStockMovementsIsCalledWithoutMovementsThenAnErrorIsReturned() throws Exception {
+        // given
+        StockMovementsDTO stockMovementsDTO = StockMovementsDTO.builder()
+                .movements(Collections.emptyList())
+                .build();
+
+        // then
+        perform(post(PRODUCT_API_URL_PATH + PRODUCT_API_SUBPATH_STOCK_MOVEMENTS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(stockMovementsDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTStockMovementsIsCalledWithAZeroOrOutOfRangeDeltaThenAnErrorIsReturned() throws Exception {
+        for (int delta : new int[]{0, 101, -101, Integer.MIN_VALUE}) {
+            // given
+            StockMovementsDTO stockMovementsDTO = StockMovementsDTO.builder()
+                    .movements(Collections.singletonList(StockMovementDTO.builder().id(VALID_PRODUCT_ID).delta(delta).build()))
+                    .build();
+
+            // then
+            perform(post(PRODUCT_API_URL_PATH + PRODUCT_API_SUBPATH_STOCK_MOVEMENTS_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(stockMovementsDTO)))
+                    .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(stockMovementService);
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
 }
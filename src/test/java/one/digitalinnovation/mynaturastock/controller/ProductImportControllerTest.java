@@ -0,0 +1,88 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import one.digitalinnovation.mynaturastock.service.ProductImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportControllerTest {
+
+    private static final String PRODUCT_IMPORT_API_URL_PATH = "/api/v1/products/import";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductImportService productImportService;
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @InjectMocks
+    private ProductImportController productImportController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productImportController).build();
+    }
+
+    @Test
+    void whenACsvFileIsPostedThenTheImportResultIsReturned() throws Exception {
+        // given
+        ProductImportResultDTO result = ProductImportResultDTO.builder()
+                .read(2)
+                .imported(1)
+                .invalid(1)
+                .errors(Collections.singletonList("line 3: quantity must be less than or equal to 100"))
+                .build();
+
+        // when
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportFormat.CSV))).thenReturn(result);
+
+        // then
+        perform(post(PRODUCT_IMPORT_API_URL_PATH)
+                .contentType(ProductImportController.TEXT_CSV_VALUE)
+                .content("name,min,quantity,type\nLuna,2,8,PERFUMARIA\nLuna Radiante,2,800,PERFUMARIA\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0]", is(result.getErrors().get(0))));
+    }
+
+    @Test
+    void whenAnUnsupportedContentTypeIsPostedThenUnsupportedMediaTypeStatusIsReturned() throws Exception {
+        perform(post(PRODUCT_IMPORT_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<products/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
+}
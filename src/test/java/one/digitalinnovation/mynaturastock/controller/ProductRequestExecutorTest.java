@@ -0,0 +1,51 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProductRequestExecutorTest {
+
+    @Test
+    void whenBlockingThenTheCallRunsOnTheCallingThread() throws Exception {
+        ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+        CompletableFuture<Thread> result = requestExecutor.submit(Thread::currentThread);
+
+        assertThat(result.isDone(), is(true));
+        assertThat(result.get(), is(equalTo(Thread.currentThread())));
+    }
+
+    @Test
+    void whenThePoolAndItsQueueAreFullThenTheCallIsRejectedAsOverloaded() throws Exception {
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        ProductRequestExecutor requestExecutor = new ProductRequestExecutor(threadPool);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Boolean> running = requestExecutor.submit(() -> release.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = requestExecutor.submit(() -> true);
+
+            CompletableFuture<Boolean> rejected = requestExecutor.submit(() -> true);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+            assertThat(exception.getCause(), is(instanceOf(ServiceOverloadedException.class)));
+            release.countDown();
+            assertThat(running.get(), is(true));
+            assertThat(queued.get(), is(true));
+        } finally {
+            requestExecutor.close();
+        }
+    }
+}
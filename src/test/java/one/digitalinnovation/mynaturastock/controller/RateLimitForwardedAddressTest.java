@@ -0,0 +1,56 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "mynaturastock.rate-limit.reads.capacity=100",
+        "mynaturastock.rate-limit.address-reads.capacity=3",
+        "mynaturastock.rate-limit.address-reads.per-second=0.001"
+})
+public class RateLimitForwardedAddressTest {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final String BY_CATEGORY_URL_PATH = "/api/v1/products/by-category/ROSTO";
+    private static final int ADDRESS_READ_CAPACITY = 3;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void whenClientsReachTheServiceThroughAProxyThenEachForwardedAddressHasItsOwnBucket() {
+        // given
+        for (int i = 0; i < ADDRESS_READ_CAPACITY; i++) {
+            assertThat(get("integration-a", "203.0.113.1").getStatusCode(), is(equalTo(HttpStatus.OK)));
+        }
+
+        // when
+        ResponseEntity<String> sameAddress = get("integration-b", "203.0.113.1");
+        ResponseEntity<String> otherAddress = get("integration-b", "203.0.113.2");
+
+        // then
+        assertThat(sameAddress.getStatusCode(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS)));
+        assertThat(sameAddress.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), is(notNullValue()));
+        assertThat(otherAddress.getStatusCode(), is(equalTo(HttpStatus.OK)));
+    }
+
+    private ResponseEntity<String> get(String apiKey, String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(API_KEY_HEADER, apiKey);
+        headers.set(FORWARDED_FOR_HEADER, forwardedFor);
+        return restTemplate.exchange(BY_CATEGORY_URL_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,120 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import one.digitalinnovation.mynaturastock.service.LoadShedder;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.mockito.Mockito.lenient;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitInterceptorTest {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final String BY_CATEGORY_URL_PATH = "/api/v1/products/by-category/ROSTO";
+    private static final Duration LATENCY_TARGET = Duration.ofMillis(100);
+    private static final int READ_CAPACITY = 2;
+    private static final int ADDRESS_READ_CAPACITY = 5;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @InjectMocks
+    private ProductController productController;
+
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    void setUp() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        lenient().when(productService.listByCategory(Category.ROSTO)).thenReturn(Collections.singletonList(productDTO));
+        RateLimiter rateLimiter = new RateLimiter(Clock.systemUTC(), 100)
+                .limit(EndpointClass.READ, READ_CAPACITY, 0.001)
+                .limitAddresses(EndpointClass.READ, ADDRESS_READ_CAPACITY, 0.001);
+        loadShedder = new LoadShedder(LATENCY_TARGET, 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .addMappedInterceptors(new String[]{"/api/v1/products/**"},
+                        new RateLimitInterceptor(rateLimiter, loadShedder, API_KEY_HEADER))
+                .build();
+    }
+
+    @Test
+    void whenAClientSpendsItsReadsThenTooManyRequestsIsReturnedToItAlone() throws Exception {
+        // given
+        for (int i = 0; i < READ_CAPACITY; i++) {
+            perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "integration-a")).andExpect(status().isOk());
+        }
+
+        // then
+        perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "integration-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "integration-b"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenAClientSendsANewKeyPerRequestThenTooManyRequestsIsReturnedToItsAddressAlone() throws Exception {
+        // given
+        for (int i = 0; i < ADDRESS_READ_CAPACITY; i++) {
+            perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "spoofed-" + i)).andExpect(status().isOk());
+        }
+
+        // then
+        perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "spoofed-" + ADDRESS_READ_CAPACITY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "integration-b").with(request -> {
+            request.setRemoteAddr("10.0.0.2");
+            return request;
+        })).andExpect(status().isOk());
+    }
+
+    @Test
+    void whenTheServiceIsOverItsLatencyTargetThenServiceUnavailableIsReturned() throws Exception {
+        // when
+        for (int i = 0; i < 100; i++) {
+            loadShedder.record(LATENCY_TARGET.toNanos() * 1_000_000);
+        }
+
+        // then
+        perform(get(BY_CATEGORY_URL_PATH).header(API_KEY_HEADER, "integration-a"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
+}
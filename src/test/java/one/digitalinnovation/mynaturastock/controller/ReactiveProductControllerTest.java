@@ -0,0 +1,157 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.config.ReactiveConfig;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementsDTO;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@ActiveProfiles(ReactiveConfig.REACTIVE_PROFILE)
+public class ReactiveProductControllerTest {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+    private static final long INVALID_PRODUCT_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        product = webTestClient.post()
+                .uri(PRODUCT_API_URL_PATH)
+                .bodyValue(ProductDTOBuilder.builder().id(null).name("Reativo").build().toProductDTO())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webTestClient.delete()
+                .uri(PRODUCT_API_URL_PATH + "/" + product.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void whenGETIsCalledWithValidNameThenOkStatusIsReturned() {
+        webTestClient.get()
+                .uri(PRODUCT_API_URL_PATH + "/" + product.getName())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(product.getId().intValue())
+                .jsonPath("$.quantity").isEqualTo(product.getQuantity());
+    }
+
+    @Test
+    void whenPOSTIsCalledWithAnAlreadyRegisteredNameThenBadRequestStatusIsReturned() {
+        webTestClient.post()
+                .uri(PRODUCT_API_URL_PATH)
+                .bodyValue(product)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementBelowMinThenStockIsKeptAndBadRequestStatusIsReturned() {
+        // given
+        int quantityAboveMin = product.getQuantity() - product.getMin();
+
+        // when
+        webTestClient.patch()
+                .uri(PRODUCT_API_URL_PATH + "/" + product.getId() + "/decrement")
+                .bodyValue(new QuantityDTO(quantityAboveMin))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quantity").isEqualTo(product.getMin());
+        webTestClient.patch()
+                .uri(PRODUCT_API_URL_PATH + "/" + product.getId() + "/decrement")
+                .bodyValue(new QuantityDTO(1))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        // then
+        webTestClient.get()
+                .uri(PRODUCT_API_URL_PATH + "/below-min")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[?(@.id == %s)].quantity", product.getId()).isEqualTo(product.getMin());
+    }
+
+    @Test
+    void whenPATCHIsCalledWithInvalidIdThenNotFoundStatusIsReturned() {
+        webTestClient.patch()
+                .uri(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID + "/increment")
+                .bodyValue(new QuantityDTO(1))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void whenStockMovementsArePostedThenEachOneIsAppliedInOrder() {
+        // given
+        StockMovementsDTO stockMovements = new StockMovementsDTO(Arrays.asList(
+                new StockMovementDTO(product.getId(), 5),
+                new StockMovementDTO(INVALID_PRODUCT_ID, 1),
+                new StockMovementDTO(product.getId(), -100)));
+
+        // when
+        webTestClient.post()
+                .uri(PRODUCT_API_URL_PATH + "/stock-movements")
+                .bodyValue(stockMovements)
+                .exchange()
+                // then
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo(StockMovementStatus.APPLIED.name())
+                .jsonPath("$[0].product.quantity").isEqualTo(product.getQuantity() + 5)
+                .jsonPath("$[1].status").isEqualTo(StockMovementStatus.NOT_FOUND.name())
+                .jsonPath("$[2].status").isEqualTo(StockMovementStatus.STOCK_EXCEEDED.name());
+    }
+
+    @Test
+    void whenProductsAreStreamedAsNdjsonThenEachProductIsReadAsItArrives() {
+        // when
+        Flux<ProductDTO> products = webTestClient.get()
+                .uri(PRODUCT_API_URL_PATH)
+                .accept(MediaType.parseMediaType(ProductController.APPLICATION_NDJSON_VALUE))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ProductDTO.class)
+                .getResponseBody();
+
+        // then
+        List<ProductDTO> streamedProducts = products
+                .filter(productDTO -> productDTO.getId().equals(product.getId()))
+                .collectList()
+                .block();
+        assertThat(streamedProducts, contains(product));
+    }
+}
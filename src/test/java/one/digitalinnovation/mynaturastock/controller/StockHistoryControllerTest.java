@@ -0,0 +1,78 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.service.StockHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.TreeMap;
+
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryControllerTest {
+
+    private static final String STOCK_HISTORY_API_URL_PATH = "/api/v1/products/stock-history";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private StockHistoryService stockHistoryService;
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @InjectMocks
+    private StockHistoryController stockHistoryController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(stockHistoryController).build();
+    }
+
+    @Test
+    void whenGETIsCalledWithATimeThenTheStockAtThatTimeIsReturned() throws Exception {
+        // given
+        Instant at = Instant.parse("2026-01-02T10:15:30Z");
+        TreeMap<Long, Integer> stock = new TreeMap<>();
+        stock.put(1L, 9);
+        stock.put(2L, 5);
+
+        // when
+        when(stockHistoryService.stockAt(at)).thenReturn(stock);
+
+        // then
+        perform(get(STOCK_HISTORY_API_URL_PATH).param("at", at.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId", is(1)))
+                .andExpect(jsonPath("$[0].quantity", is(9)))
+                .andExpect(jsonPath("$[1].productId", is(2)));
+    }
+
+    @Test
+    void whenGETIsCalledWithAMalformedTimeThenBadRequestStatusIsReturned() throws Exception {
+        perform(get(STOCK_HISTORY_API_URL_PATH).param("at", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
+}
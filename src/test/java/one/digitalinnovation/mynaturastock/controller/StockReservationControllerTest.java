@@ -0,0 +1,118 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.config.ReservationProperties;
+import one.digitalinnovation.mynaturastock.dto.ReservationDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationRequestDTO;
+import one.digitalinnovation.mynaturastock.exception.ReservationLimitExceededException;
+import one.digitalinnovation.mynaturastock.exception.ReservationNotFoundException;
+import one.digitalinnovation.mynaturastock.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static one.digitalinnovation.mynaturastock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class StockReservationControllerTest {
+
+    private static final String RESERVATIONS_API_URL_PATH = "/api/v1/products/1/reservations";
+    private static final long PRODUCT_ID = 1L;
+    private static final long RESERVATION_ID = 7L;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Spy
+    private ReservationProperties reservationProperties = new ReservationProperties();
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @InjectMocks
+    private StockReservationController stockReservationController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(stockReservationController).build();
+    }
+
+    @Test
+    void whenPOSTIsCalledWithATtlAboveTheMaxThenTheStockIsHeldForTheMaxTtl() throws Exception {
+        // given
+        ReservationRequestDTO reservationRequestDTO = new ReservationRequestDTO(3, Duration.ofDays(1).getSeconds());
+        ReservationDTO reservationDTO = ReservationDTO.builder().id(RESERVATION_ID).productId(PRODUCT_ID).quantity(3).build();
+
+        // when
+        when(stockReservationService.reserve(PRODUCT_ID, 3, reservationProperties.getMaxTtl())).thenReturn(reservationDTO);
+
+        // then
+        perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is((int) RESERVATION_ID)))
+                .andExpect(jsonPath("$.quantity", is(3)));
+    }
+
+    @Test
+    void whenPOSTIsCalledWithANonPositiveQuantityThenBadRequestStatusIsReturned() throws Exception {
+        perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new ReservationRequestDTO(0, null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenTooManyReservationsAreActiveThenServiceUnavailableStatusIsReturned() throws Exception {
+        // given
+        ReservationLimitExceededException limitExceeded = new ReservationLimitExceededException(reservationProperties.getMaxActive());
+
+        // when
+        when(stockReservationService.reserve(PRODUCT_ID, 3, reservationProperties.getDefaultTtl())).thenThrow(limitExceeded);
+
+        // then
+        perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new ReservationRequestDTO(3, null))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void whenDELETEIsCalledWithAnEndedReservationThenNotFoundStatusIsReturned() throws Exception {
+        // when
+        doThrow(new ReservationNotFoundException(PRODUCT_ID, RESERVATION_ID))
+                .when(stockReservationService).release(PRODUCT_ID, RESERVATION_ID);
+
+        // then
+        perform(delete(RESERVATIONS_API_URL_PATH + "/" + RESERVATION_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
+}
@@ -0,0 +1,90 @@
+package one.digitalinnovation.mynaturastock.controller;
+
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.dto.NearestDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.QuantityDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseDecrementDTO;
+import one.digitalinnovation.mynaturastock.exception.WarehouseNotFoundException;
+import one.digitalinnovation.mynaturastock.service.WarehouseStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static one.digitalinnovation.mynaturastock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class WarehouseStockControllerTest {
+
+    private static final String WAREHOUSES_API_URL_PATH = "/api/v1/products/1/warehouses";
+    private static final long PRODUCT_ID = 1L;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private WarehouseStockService warehouseStockService;
+
+    @Spy
+    private ProductRequestExecutor requestExecutor = ProductRequestExecutor.blocking();
+
+    @InjectMocks
+    private WarehouseStockController warehouseStockController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(warehouseStockController).build();
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementNearAPointThenTheWarehouseUsedIsReturned() throws Exception {
+        // given
+        NearestDecrementDTO nearestDecrementDTO = new NearestDecrementDTO(3, -8.05, -34.9);
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        when(warehouseStockService.decrementNearest(PRODUCT_ID, -8.05, -34.9, 3))
+                .thenReturn(new WarehouseDecrementDTO("CD02", productDTO));
+
+        // then
+        perform(patch(WAREHOUSES_API_URL_PATH + "/nearest/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(nearestDecrementDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.warehouse", is("CD02")))
+                .andExpect(jsonPath("$.product.name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementAtAnUnknownWarehouseThenNotFoundStatusIsReturned() throws Exception {
+        // when
+        when(warehouseStockService.decrementAt(PRODUCT_ID, "CD99", 3)).thenThrow(new WarehouseNotFoundException("CD99"));
+
+        // then
+        perform(patch(WAREHOUSES_API_URL_PATH + "/CD99/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new QuantityDTO(3))))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
+}
@@ -0,0 +1,88 @@
+package one.digitalinnovation.mynaturastock.event;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import one.digitalinnovation.mynaturastock.service.ProductVersionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static one.digitalinnovation.mynaturastock.config.CacheConfig.PRODUCTS_BY_NAME_CACHE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+@SpringBootTest
+public class ProductCacheListenerTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductVersionRegistry productVersions;
+
+    private ProductDTO product;
+
+    private Cache productsByName;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTO.builder()
+                .name("Ekos Castanha")
+                .min(2)
+                .quantity(20)
+                .type(Category.BANHO)
+                .build());
+        productsByName = cacheManager.getCache(PRODUCTS_BY_NAME_CACHE);
+    }
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        productService.deleteById(product.getId());
+    }
+
+    @Test
+    void whenProductIsFoundByNameThenItIsServedFromTheCache() throws Exception {
+        ProductDTO foundProduct = productService.findByName(product.getName());
+
+        assertThat(productsByName.get(product.getName()), is(notNullValue()));
+        assertThat(productService.findByName(product.getName()), is(sameInstance(foundProduct)));
+    }
+
+    @Test
+    void whenTheCachedProductPredatesTheCurrentVersionThenItIsReadAgain() throws Exception {
+        ProductDTO foundProduct = productService.findByName(product.getName());
+
+        // a change whose eviction ran before the product was cached
+        productVersions.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, foundProduct, 0));
+
+        ProductDTO foundAgain = productService.findByName(product.getName());
+        assertThat(foundAgain, is(not(sameInstance(foundProduct))));
+        assertThat(productService.findByName(product.getName()), is(sameInstance(foundAgain)));
+    }
+
+    @Test
+    void whenStockChangesThenTheCachedProductIsEvicted() throws Exception {
+        productService.findByName(product.getName());
+        assertThat(productsByName.get(product.getName()), is(notNullValue()));
+
+        productService.decrement(product.getId(), 5);
+
+        assertThat(productsByName.get(product.getName()), is(nullValue()));
+        assertThat(productService.findByName(product.getName()).getQuantity(), is(equalTo(15)));
+    }
+}
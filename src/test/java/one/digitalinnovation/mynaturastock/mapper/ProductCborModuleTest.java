@@ -0,0 +1,66 @@
+package one.digitalinnovation.mynaturastock.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProductCborModuleTest {
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor()
+            .modulesToInstall(new ProductCborModule())
+            .build();
+
+    @Test
+    void whenProductsAreWrittenThenTheyAreReadBackUnchanged() throws Exception {
+        // given
+        List<ProductDTO> products = Arrays.asList(
+                ProductDTOBuilder.builder().build().toProductDTO(),
+                new ProductDTO(null, "Ekos Maracujá", 0, 100, Category.ROSTO));
+
+        // when
+        byte[] cbor = cborMapper.writeValueAsBytes(products);
+
+        // then
+        assertThat(cborMapper.readValue(cbor, new TypeReference<List<ProductDTO>>() {
+        }), is(equalTo(products)));
+        byte[] json = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(products);
+        assertThat(cbor.length, is(lessThan(json.length / 2)));
+    }
+
+    @Test
+    void whenAProductIsWrittenThenItIsAnArrayWithTheCategoryOrdinal() throws Exception {
+        // given
+        ProductDTO product = new ProductDTO(7L, "Kaiak", 5, 10, Category.BANHO);
+
+        // when
+        JsonNode encoded = new ObjectMapper(new CBORFactory()).readTree(cborMapper.writeValueAsBytes(product));
+
+        // then
+        assertThat(encoded.toString(), is(equalTo("[7,\"Kaiak\",5,10," + Category.BANHO.ordinal() + "]")));
+    }
+
+    @Test
+    void whenTheCategoryOrdinalIsUnknownThenReadingFails() throws Exception {
+        // given
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Arrays.asList(7, "Kaiak", 5, 10, Category.values().length));
+
+        // then
+        assertThrows(InvalidFormatException.class, () -> cborMapper.readValue(cbor, ProductDTO.class));
+    }
+}
@@ -0,0 +1,57 @@
+package one.digitalinnovation.mynaturastock.metrics;
+
+import one.digitalinnovation.mynaturastock.config.RequestExecutionProperties;
+import one.digitalinnovation.mynaturastock.dto.PerformanceFindingDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class PerformanceSelfCheckTest {
+
+    @Autowired
+    private PerformanceSelfCheck performanceSelfCheck;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void whenTheDefaultSettingsAreCheckedThenNothingIsFound() {
+        // when
+        List<PerformanceFindingDTO> findings = performanceSelfCheck.findings();
+
+        // then
+        assertThat(findings, is(empty()));
+    }
+
+    @Test
+    void whenOpenInViewIsOnAndRequestThreadsOutnumberConnectionsThenBothAreFound() {
+        // given
+        RequestExecutionProperties requestExecutionProperties = new RequestExecutionProperties();
+        requestExecutionProperties.setMode("async");
+        requestExecutionProperties.setPoolSize(64);
+        PerformanceSelfCheck selfCheck = new PerformanceSelfCheck(entityManagerFactory, true, dataSource,
+                requestExecutionProperties);
+
+        // when
+        List<String> settings = selfCheck.findings().stream()
+                .map(PerformanceFindingDTO::getSetting)
+                .collect(Collectors.toList());
+
+        // then
+        assertThat(settings, containsInAnyOrder("spring.jpa.open-in-view", "spring.datasource.hikari.maximum-pool-size"));
+    }
+}
@@ -0,0 +1,82 @@
+package one.digitalinnovation.mynaturastock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class ProductMetricsTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CategoryStockMetrics categoryStockMetrics;
+
+    private ProductDTO product;
+
+    private long initialCategoryQuantity;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        initialCategoryQuantity = categoryStockMetrics.quantityOf(Category.ROSTO);
+        product = productService.createProduct(ProductDTO.builder()
+                .name("Una Batom")
+                .min(5)
+                .quantity(30)
+                .type(Category.ROSTO)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        productService.deleteById(product.getId());
+    }
+
+    @Test
+    void whenAStockOperationFailsThenItIsTimedWithTheExceptionThrown() {
+        long failedDecrementsBefore = failedDecrements();
+
+        assertThrows(ProductStockExceededException.class, () -> productService.decrement(product.getId(), 26));
+
+        assertThat(failedDecrements(), is(equalTo(failedDecrementsBefore + 1)));
+    }
+
+    @Test
+    void whenStockChangesThenTheCategoryGaugeFollowsWithoutRescanning() throws Exception {
+        productService.decrement(product.getId(), 10);
+        productService.increment(product.getId(), 4);
+
+        double gaugeValue = meterRegistry.get(CategoryStockMetrics.CATEGORY_STOCK_GAUGE)
+                .tag("category", Category.ROSTO.name())
+                .gauge()
+                .value();
+        assertThat((long) gaugeValue, is(equalTo(initialCategoryQuantity + 30 - 10 + 4)));
+    }
+
+    private long failedDecrements() {
+        Timer timer = meterRegistry.find(ProductServiceMetricsAspect.TIMER_NAME)
+                .tags("method", "decrement",
+                        "outcome", ProductServiceMetricsAspect.ERROR,
+                        "exception", ProductStockExceededException.class.getSimpleName())
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,53 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+@DataJpaTest
+public class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void whenProductsOfACategoryAreQueriedThenOnlyThatCategoryIsReturnedInIdOrder() {
+        // given
+        Product shampoo = productRepository.save(new Product(null, "Shampoo", 2, 10, Category.CABELOS, 0L));
+        productRepository.save(new Product(null, "Sabonete", 2, 10, Category.BANHO, 0L));
+        Product conditioner = productRepository.save(new Product(null, "Condicionador", 2, 10, Category.CABELOS, 0L));
+
+        // when
+        List<Product> foundProducts = productRepository.findByTypeOrderByIdAsc(Category.CABELOS);
+
+        // then
+        assertThat(namesOf(foundProducts), contains(shampoo.getName(), conditioner.getName()));
+    }
+
+    @Test
+    void whenStockDropsToTheMinThenTheProductIsFoundAtOrBelowMin() {
+        // given
+        Product perfume = productRepository.save(new Product(null, "Perfume", 5, 10, Category.PERFUMARIA, 0L));
+        Product soap = productRepository.save(new Product(null, "Sabonete", 5, 5, Category.BANHO, 0L));
+        productRepository.save(new Product(null, "Protetor", 1, 10, Category.PELE, 0L));
+        productRepository.flush();
+
+        // when
+        productRepository.decrementStock(perfume.getId(), 5);
+
+        // then
+        assertThat(namesOf(productRepository.findAtOrBelowMin()), contains(perfume.getName(), soap.getName()));
+    }
+
+    private static List<String> namesOf(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package one.digitalinnovation.mynaturastock.repository;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.mynaturastock.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "mynaturastock.replica.enabled=true",
+        "mynaturastock.replica.url=jdbc:h2:mem:replica-routing-test;DB_CLOSE_DELAY=-1",
+        "mynaturastock.replica.username=sa",
+        "mynaturastock.replica.password=",
+        "mynaturastock.replica.local-replication=true",
+        "mynaturastock.replica.replication-interval-ms=3600000"
+})
+public class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReplicationStub replicationStub;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTO.builder()
+                .name("Ekos Replicado")
+                .min(2)
+                .quantity(10)
+                .type(Category.PERFUMARIA)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ReplicaRoutingDataSource.requirePrimary(false);
+        productService.deleteById(product.getId());
+        replicationStub.replicate();
+    }
+
+    @Test
+    void whenAProductIsCreatedThenReadOnlyServiceMethodsSeeItOnceReplicated() throws Exception {
+        // when
+        List<String> namesBeforeReplication = namesOf(productService.listByCategory(Category.PERFUMARIA));
+        replicationStub.replicate();
+
+        // then
+        assertThat(namesBeforeReplication, not(hasItem(product.getName())));
+        assertThat(namesOf(productService.listByCategory(Category.PERFUMARIA)), hasItem(product.getName()));
+    }
+
+    @Test
+    void whenThePrimaryIsRequiredThenReadOnlyServiceMethodsSeeTheLatestWrites() {
+        // when
+        ReplicaRoutingDataSource.requirePrimary(true);
+
+        // then
+        assertThat(namesOf(productService.listByCategory(Category.PERFUMARIA)), hasItem(product.getName()));
+        assertThat(ReplicaRoutingDataSource.readFromReplica(), is(false));
+    }
+
+    @Test
+    void whenAProductIsRegisteredAgainBeforeReplicationThenTheCheckStillSeesTheFirstOne() {
+        // then
+        assertThrows(ProductAlreadyRegisteredException.class, () -> productService.createProduct(ProductDTO.builder()
+                .name(product.getName())
+                .min(2)
+                .quantity(10)
+                .type(Category.PERFUMARIA)
+                .build()));
+    }
+
+    private static List<String> namesOf(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,112 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.CatalogueExportFormat;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.exception.CatalogueExportNotReadyException;
+import one.digitalinnovation.mynaturastock.service.CatalogueExportService.CatalogueExport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogueExportServiceTest {
+
+    private static final List<ProductDTO> PRODUCTS = Arrays.asList(
+            new ProductDTO(1L, "Ekos Castanha", 5, 20, Category.BANHO),
+            new ProductDTO(2L, "Kaiak, \"Aventura\"", 10, 30, Category.PERFUMARIA));
+
+    @Mock
+    private ProductService productService;
+
+    @TempDir
+    Path directory;
+
+    private CatalogueExportService catalogueExportService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<ProductDTO> productConsumer = invocation.getArgument(0);
+            PRODUCTS.forEach(productConsumer);
+            return null;
+        }).when(productService).streamAll(any());
+        catalogueExportService = new CatalogueExportService(productService, directory);
+        catalogueExportService.open();
+    }
+
+    @Test
+    void whenTheCatalogueIsExportedThenBothFormatsHoldEveryProduct() throws Exception {
+        // given
+        assertThrows(CatalogueExportNotReadyException.class, () -> catalogueExportService.latest(CatalogueExportFormat.CSV));
+
+        // when
+        catalogueExportService.export();
+
+        // then
+        CatalogueExport csvExport = catalogueExportService.latest(CatalogueExportFormat.CSV);
+        try (InputStream csv = new GZIPInputStream(Files.newInputStream(csvExport.getPath()))) {
+            assertThat(new String(csv.readAllBytes(), StandardCharsets.UTF_8), is(equalTo("id,name,min,quantity,type\n"
+                    + "1,Ekos Castanha,5,20,BANHO\n"
+                    + "2,\"Kaiak, \"\"Aventura\"\"\",10,30,PERFUMARIA\n")));
+        }
+        List<ProductDTO> binaryProducts = new ArrayList<>();
+        CatalogueExport binaryExport = catalogueExportService.latest(CatalogueExportFormat.BINARY);
+        try (InputStream binary = new GZIPInputStream(Files.newInputStream(binaryExport.getPath()))) {
+            CatalogueBinaryFormat.read(binary, binaryProducts::add);
+        }
+        assertThat(binaryProducts, is(equalTo(PRODUCTS)));
+        assertThat(csvExport.getSize(), is(equalTo(Files.size(csvExport.getPath()))));
+    }
+
+    @Test
+    void whenNoProductChangedThenNoNewExportIsWrittenAndOlderExportsAreDeleted() throws Exception {
+        // given
+        catalogueExportService.export();
+        CatalogueExport firstExport = catalogueExportService.latest(CatalogueExportFormat.CSV);
+
+        // when
+        catalogueExportService.export();
+        CatalogueExport unchangedExport = catalogueExportService.latest(CatalogueExportFormat.CSV);
+        catalogueExportService.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, PRODUCTS.get(0), 1));
+        catalogueExportService.export();
+        CatalogueExport secondExport = catalogueExportService.latest(CatalogueExportFormat.CSV);
+        catalogueExportService.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, PRODUCTS.get(0), 1));
+        catalogueExportService.export();
+
+        // then
+        assertThat(unchangedExport, is(equalTo(firstExport)));
+        assertThat(secondExport.getPath(), is(not(equalTo(firstExport.getPath()))));
+        assertThat(secondExport.getEtag(), is(equalTo(firstExport.getEtag())));
+        assertFalse(Files.exists(firstExport.getPath()));
+        assertThat(Files.exists(secondExport.getPath()), is(true));
+        verify(productService, times(3)).streamAll(any());
+    }
+}
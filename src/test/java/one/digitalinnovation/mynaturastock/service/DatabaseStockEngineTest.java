@@ -0,0 +1,47 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DatabaseStockEngineTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private DatabaseStockEngine databaseStockEngine;
+
+    @Test
+    void whenDecrementIsRejectedForAnExistingProductThenThrowStockExceeded() {
+        int quantityToDecrement = 20;
+
+        when(productRepository.decrementStock(PRODUCT_ID, quantityToDecrement)).thenReturn(Optional.empty());
+        when(productRepository.existsById(PRODUCT_ID)).thenReturn(true);
+
+        assertThrows(ProductStockExceededException.class, () -> databaseStockEngine.decrement(PRODUCT_ID, quantityToDecrement));
+    }
+
+    @Test
+    void whenDecrementIsRejectedForAMissingProductThenThrowNotFound() {
+        int quantityToDecrement = 10;
+
+        when(productRepository.decrementStock(PRODUCT_ID, quantityToDecrement)).thenReturn(Optional.empty());
+        when(productRepository.existsById(PRODUCT_ID)).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> databaseStockEngine.decrement(PRODUCT_ID, quantityToDecrement));
+    }
+}
@@ -0,0 +1,150 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DecrementCoalescerTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int MIN_QUANTITY = 2;
+    private static final int INITIAL_QUANTITY = 12;
+    private static final int MAX_BATCH = 3;
+    private static final int MAX_PENDING = 10;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private StockHolds stockHolds;
+
+    private DecrementCoalescer decrementCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        decrementCoalescer = new DecrementCoalescer(productService, productRepository, stockEngine, stockHolds,
+                Duration.ofMinutes(1), MAX_BATCH, MAX_PENDING, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        decrementCoalescer.close();
+    }
+
+    @Test
+    void whenABatchIsFullThenItsDecrementsAreWrittenOnceAndEachCallerGetsItsOwnStock() throws Exception {
+        // given
+        when(productService.decrement(PRODUCT_ID, 6)).thenReturn(product(INITIAL_QUANTITY - 6));
+
+        // when
+        CompletableFuture<ProductDTO> first = decrementCoalescer.decrement(PRODUCT_ID, 1);
+        CompletableFuture<ProductDTO> second = decrementCoalescer.decrement(PRODUCT_ID, 2);
+        CompletableFuture<ProductDTO> third = decrementCoalescer.decrement(PRODUCT_ID, 3);
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 1)));
+        assertThat(second.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 3)));
+        assertThat(third.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 6)));
+        verify(productService, times(1)).decrement(any(), anyInt());
+        assertThat(decrementCoalescer.writeCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenTheBatchExceedsTheStockThenTheDecrementsThatFitInOrderAreWrittenAndTheOthersFail() throws Exception {
+        // given
+        Product product = new Product(PRODUCT_ID, "Homem", MIN_QUANTITY, INITIAL_QUANTITY, Category.PERFUMARIA, 0L);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        when(stockEngine.withCurrentStock(product)).thenReturn(product);
+        when(productService.decrement(PRODUCT_ID, 15)).thenThrow(new ProductStockExceededException(PRODUCT_ID, 15));
+        when(productService.decrement(PRODUCT_ID, 9)).thenReturn(product(INITIAL_QUANTITY - 9));
+
+        // when
+        CompletableFuture<ProductDTO> first = decrementCoalescer.decrement(PRODUCT_ID, 6);
+        CompletableFuture<ProductDTO> second = decrementCoalescer.decrement(PRODUCT_ID, 6);
+        CompletableFuture<ProductDTO> third = decrementCoalescer.decrement(PRODUCT_ID, 3);
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 6)));
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertThat(rejected.getCause(), is(instanceOf(ProductStockExceededException.class)));
+        assertThat(third.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 9)));
+    }
+
+    @Test
+    void whenTheWindowEndsThenAPartialBatchIsWritten() throws Exception {
+        // given
+        decrementCoalescer.close();
+        decrementCoalescer = new DecrementCoalescer(productService, productRepository, stockEngine, stockHolds,
+                Duration.ofMillis(10), MAX_BATCH, MAX_PENDING, 1);
+        when(productService.decrement(PRODUCT_ID, 4)).thenReturn(product(INITIAL_QUANTITY - 4));
+
+        // when
+        CompletableFuture<ProductDTO> decremented = decrementCoalescer.decrement(PRODUCT_ID, 4);
+
+        // then
+        assertThat(decremented.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(INITIAL_QUANTITY - 4)));
+    }
+
+    @Test
+    void whenMaxPendingDecrementsAreWaitingThenNewOnesAreRefusedWithoutQueueing() throws Exception {
+        // given
+        decrementCoalescer.close();
+        decrementCoalescer = new DecrementCoalescer(productService, productRepository, stockEngine, stockHolds,
+                Duration.ofMinutes(1), MAX_BATCH, 2, 1);
+        decrementCoalescer.decrement(PRODUCT_ID, 1);
+        decrementCoalescer.decrement(PRODUCT_ID + 1, 1);
+
+        // when
+        CompletableFuture<ProductDTO> refused = decrementCoalescer.decrement(PRODUCT_ID, 1);
+
+        // then
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> refused.get(5, TimeUnit.SECONDS));
+        assertThat(rejected.getCause(), is(instanceOf(ServiceOverloadedException.class)));
+        assertThat(decrementCoalescer.pendingCount(), is(equalTo(2)));
+        verify(productService, never()).decrement(any(), anyInt());
+    }
+
+    private static ProductDTO product(int quantity) {
+        return ProductDTO.builder()
+                .id(PRODUCT_ID)
+                .name("Homem")
+                .min(MIN_QUANTITY)
+                .quantity(quantity)
+                .type(Category.PERFUMARIA)
+                .build();
+    }
+}
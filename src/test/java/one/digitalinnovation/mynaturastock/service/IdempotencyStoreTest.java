@@ -0,0 +1,212 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.IdempotencyRecord;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.exception.IdempotencyKeyInUseException;
+import one.digitalinnovation.mynaturastock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.mynaturastock.exception.ServiceOverloadedException;
+import one.digitalinnovation.mynaturastock.mapper.ProductCborModule;
+import one.digitalinnovation.mynaturastock.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final int BUCKETS = 4;
+    private static final long PRODUCT_ID = 1L;
+    private static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor()
+            .modulesToInstall(new ProductCborModule())
+            .build();
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private IdempotencyRecordRepository records;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        setTime(0);
+    }
+
+    @Test
+    void whenAKeyIsReplayedThenTheStoredProductIsReturnedWithoutRunningTheRequestAgain() throws Exception {
+        // given
+        IdempotencyStore idempotencyStore = newIdempotencyStore(null, 100);
+        ProductDTO decrementedProduct = decrement(idempotencyStore, "retry-1", 3).get();
+
+        // when
+        ProductDTO replayedProduct = decrement(idempotencyStore, "retry-1", 3).get();
+
+        // then
+        assertThat(replayedProduct, is(equalTo(decrementedProduct)));
+        assertThat(requests.get(), is(equalTo(1)));
+        assertThat(failureOf(decrement(idempotencyStore, "retry-1", 4)), is(instanceOf(IdempotencyKeyReusedException.class)));
+    }
+
+    @Test
+    void whenAKeyIsStillRunningOrItsRequestFailedThenItIsNotReplayed() throws Exception {
+        // given
+        IdempotencyStore idempotencyStore = newIdempotencyStore(null, 100);
+        CompletableFuture<ProductDTO> running = new CompletableFuture<>();
+
+        // when
+        idempotencyStore.execute("slow", ProductChangeType.INCREMENTED, PRODUCT_ID, 1, () -> running);
+        CompletableFuture<ProductDTO> concurrentRetry = idempotencyStore.execute("slow", ProductChangeType.INCREMENTED,
+                PRODUCT_ID, 1, () -> running);
+        running.completeExceptionally(new IllegalStateException("timeout"));
+
+        // then
+        assertThat(failureOf(concurrentRetry), is(instanceOf(IdempotencyKeyInUseException.class)));
+        assertThat(failureOf(idempotencyStore.execute("slow", ProductChangeType.INCREMENTED, PRODUCT_ID, 1, () -> running)),
+                is(instanceOf(IllegalStateException.class)));
+        assertThat(idempotencyStore.size(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenKeysOutliveTheTtlOrExceedTheMaxThenTheOldestBucketsAreDropped() throws Exception {
+        // given
+        IdempotencyStore idempotencyStore = newIdempotencyStore(null, 3);
+        decrement(idempotencyStore, "first", 1).get();
+        setTime(TTL.toMillis() / BUCKETS);
+        decrement(idempotencyStore, "second", 1).get();
+        decrement(idempotencyStore, "third", 1).get();
+
+        // when
+        setTime(2 * TTL.toMillis() / BUCKETS);
+        decrement(idempotencyStore, "fourth", 1).get();
+        setTime(TTL.toMillis() + TTL.toMillis() / BUCKETS);
+        idempotencyStore.evictExpired();
+
+        // then
+        assertThat(idempotencyStore.size(), is(equalTo(1L)));
+        decrement(idempotencyStore, "first", 1).get();
+        decrement(idempotencyStore, "fourth", 1).get();
+        assertThat(requests.get(), is(equalTo(5)));
+    }
+
+    @Test
+    void whenTheCurrentBucketHoldsTheMaxThenNewKeysAreRefusedUntilTheNextBucket() throws Exception {
+        // given
+        IdempotencyStore idempotencyStore = newIdempotencyStore(null, 3);
+        for (int i = 0; i < 3; i++) {
+            decrement(idempotencyStore, "key-" + i, 1).get();
+        }
+
+        // when
+        CompletableFuture<ProductDTO> overflowing = decrement(idempotencyStore, "key-3", 1);
+
+        // then
+        assertThat(failureOf(overflowing), is(instanceOf(ServiceOverloadedException.class)));
+        assertThat(idempotencyStore.size(), is(equalTo(3L)));
+        assertThat(requests.get(), is(equalTo(3)));
+        decrement(idempotencyStore, "key-0", 1).get();
+        setTime(TTL.toMillis() / BUCKETS);
+        decrement(idempotencyStore, "key-3", 1).get();
+        assertThat(idempotencyStore.size(), is(equalTo(1L)));
+        assertThat(requests.get(), is(equalTo(4)));
+    }
+
+    @Test
+    void whenTheStoreIsBackedByTheDatabaseThenKeysAreRecognisedAfterARestart() throws Exception {
+        // given
+        ArgumentCaptor<IdempotencyRecord> savedRecord = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(records.save(savedRecord.capture())).then(invocation -> invocation.getArgument(0));
+        ProductDTO decrementedProduct = decrement(newIdempotencyStore(records, 100), "before-restart", 2).get();
+        when(records.streamCreatedSince(any(Instant.class))).then(invocation -> Stream.of(savedRecord.getValue()));
+
+        // when
+        IdempotencyStore restartedStore = newIdempotencyStore(records, 100);
+        restartedStore.load();
+
+        // then
+        assertThat(decrement(restartedStore, "before-restart", 2).get(), is(equalTo(decrementedProduct)));
+        assertThat(requests.get(), is(equalTo(1)));
+        verify(records).streamCreatedSince(Instant.ofEpochMilli(0).minus(TTL));
+    }
+
+    @Test
+    void whenKeysAreHeldThenEachCostsLessHeapThanTheDocumentedBound() throws Exception {
+        // given
+        int keys = 100_000;
+        IdempotencyStore idempotencyStore = new IdempotencyStore(CBOR_MAPPER, null, TransactionOperations.withoutTransaction(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC), TTL, BUCKETS, keys);
+        CompletableFuture<ProductDTO> response = CompletableFuture.completedFuture(product(PRODUCT_ID, 50));
+        long emptySize = GraphLayout.parseInstance(idempotencyStore).totalSize();
+
+        // when
+        for (int i = 0; i < keys; i++) {
+            idempotencyStore.execute(UUID.randomUUID().toString(), ProductChangeType.DECREMENTED, PRODUCT_ID, 1,
+                    () -> response);
+        }
+
+        // then
+        long bytesPerKey = (GraphLayout.parseInstance(idempotencyStore).totalSize() - emptySize) / keys;
+        System.out.printf("%d bytes per key, %d MB per million keys%n", bytesPerKey, bytesPerKey * 1_000_000 / (1 << 20));
+        assertThat(idempotencyStore.size(), is(equalTo((long) keys)));
+        assertThat(bytesPerKey, is(lessThan((long) IdempotencyStore.BYTES_PER_KEY)));
+    }
+
+    private IdempotencyStore newIdempotencyStore(IdempotencyRecordRepository records, int maxKeys) {
+        return new IdempotencyStore(CBOR_MAPPER, records, TransactionOperations.withoutTransaction(), clock, TTL, BUCKETS, maxKeys);
+    }
+
+    private CompletableFuture<ProductDTO> decrement(IdempotencyStore idempotencyStore, String key, int quantity) {
+        return idempotencyStore.execute(key, ProductChangeType.DECREMENTED, PRODUCT_ID, quantity,
+                () -> CompletableFuture.completedFuture(product(PRODUCT_ID, 100 - requests.incrementAndGet())));
+    }
+
+    private void setTime(long millis) {
+        lenient().when(clock.millis()).thenReturn(millis);
+        lenient().when(clock.instant()).thenReturn(Instant.ofEpochMilli(millis));
+    }
+
+    private static Throwable failureOf(CompletableFuture<ProductDTO> future) {
+        return assertThrows(ExecutionException.class, future::get).getCause();
+    }
+
+    private static ProductDTO product(Long id, int quantity) {
+        return ProductDTO.builder()
+                .id(id)
+                .name("Chronos Firmeza Noite")
+                .min(5)
+                .quantity(quantity)
+                .type(Category.PELE)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerStockEngineTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int MIN_QUANTITY = 2;
+    private static final int INITIAL_QUANTITY = 12;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @TempDir
+    Path ledgerDirectory;
+
+    private Product persistedProduct;
+
+    @BeforeEach
+    void setUp() {
+        persistedProduct = new Product(PRODUCT_ID, "Homem", MIN_QUANTITY, INITIAL_QUANTITY, Category.PERFUMARIA, 0L);
+        lenient().when(productRepository.streamAll()).then(invocation -> Stream.of(persistedProduct));
+        lenient().when(productRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(persistedProduct));
+    }
+
+    @Test
+    void whenStockIsDecrementedThenTheDatabaseIsOnlyWrittenOnFlush() throws Exception {
+        // given
+        LedgerStockEngine ledgerStockEngine = newLedgerStockEngine();
+
+        // when
+        Product decrementedProduct = ledgerStockEngine.decrement(PRODUCT_ID, 3);
+
+        // then
+        assertThat(decrementedProduct.getQuantity(), is(equalTo(INITIAL_QUANTITY - 3)));
+        assertThat(persistedProduct.getQuantity(), is(equalTo(INITIAL_QUANTITY)));
+        verify(productRepository, never()).findAllById(anyIterable());
+
+        ledgerStockEngine.flush();
+
+        assertThat(persistedProduct.getQuantity(), is(equalTo(INITIAL_QUANTITY - 3)));
+        assertThat(walSegments(), hasSize(1));
+        assertThrows(ProductStockExceededException.class, () -> ledgerStockEngine.decrement(PRODUCT_ID, 8));
+        assertThrows(ProductNotFoundException.class, () -> ledgerStockEngine.decrement(PRODUCT_ID + 1, 1));
+    }
+
+    @Test
+    void whenTheApplicationStopsBeforeAFlushThenTheStockIsRecoveredFromTheWriteAheadLog() throws Exception {
+        // given
+        LedgerStockEngine crashedStockEngine = newLedgerStockEngine();
+        crashedStockEngine.decrement(PRODUCT_ID, 3);
+        crashedStockEngine.increment(PRODUCT_ID, 5);
+        crashedStockEngine.decrement(PRODUCT_ID, 4);
+        Path liveSegment = walSegments().get(0);
+        Files.write(liveSegment, new byte[]{1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        // when
+        LedgerStockEngine recoveredStockEngine = newLedgerStockEngine();
+
+        // then
+        int expectedQuantity = INITIAL_QUANTITY - 3 + 5 - 4;
+        assertThat(persistedProduct.getQuantity(), is(equalTo(expectedQuantity)));
+        assertThat(recoveredStockEngine.withCurrentStock(persistedProduct).getQuantity(), is(equalTo(expectedQuantity)));
+        assertThat(walSegments(), hasSize(1));
+    }
+
+    @Test
+    void whenDecrementsRaceThenMinIsRespectedAndNoDecrementIsLost() throws Exception {
+        // given
+        LedgerStockEngine ledgerStockEngine = newLedgerStockEngine();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger applied = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    ledgerStockEngine.decrement(PRODUCT_ID, 1);
+                    applied.incrementAndGet();
+                } catch (ProductStockExceededException ignored) {
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(applied.get(), is(equalTo(INITIAL_QUANTITY - MIN_QUANTITY)));
+        assertThat(ledgerStockEngine.withCurrentStock(persistedProduct).getQuantity(), is(equalTo(MIN_QUANTITY)));
+    }
+
+    private LedgerStockEngine newLedgerStockEngine() throws Exception {
+        LedgerStockEngine ledgerStockEngine = new LedgerStockEngine(productRepository,
+                TransactionOperations.withoutTransaction(), ledgerDirectory, false);
+        ledgerStockEngine.recover();
+        return ledgerStockEngine;
+    }
+
+    private List<Path> walSegments() throws Exception {
+        try (Stream<Path> files = Files.list(ledgerDirectory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.LowStockAlertType;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.LowStockAlert;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockTrackerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private ProductService productService;
+
+    private final List<LowStockAlert> alerts = new ArrayList<>();
+
+    private LowStockTracker lowStockTracker;
+
+    @BeforeEach
+    void setUp() {
+        when(productService.listAtOrBelowMin()).thenReturn(Collections.singletonList(product(1L, 10, 8)));
+        LowStockAlertSink failingSink = alert -> {
+            throw new IllegalStateException("sink down");
+        };
+        lowStockTracker = new LowStockTracker(productService, Arrays.asList(failingSink, alerts::add), CLOCK);
+    }
+
+    @Test
+    void whenAProductDropsToItsMinThenItIsTrackedLowestMarginFirstAndAnAlertIsRaised() {
+        // given
+        ProductDTO decremented = product(2L, 10, 10);
+
+        // when
+        lowStockTracker.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, product(2L, 10, 15), -1));
+        lowStockTracker.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, decremented, -5));
+        lowStockTracker.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, product(1L, 10, 5), -3));
+
+        // then
+        assertThat(lowStockTracker.belowMin(), contains(product(1L, 10, 5), decremented));
+        assertThat(alerts, contains(new LowStockAlert(LowStockAlertType.BELOW_MIN, decremented, CLOCK.instant())));
+    }
+
+    @Test
+    void whenAProductRecoversThenItLeavesTheSetAndARecoveryAlertIsRaised() {
+        // given
+        ProductDTO incremented = product(1L, 10, 11);
+
+        // when
+        lowStockTracker.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, incremented, 3));
+
+        // then
+        assertThat(lowStockTracker.belowMin(), is(empty()));
+        assertThat(alerts, contains(new LowStockAlert(LowStockAlertType.RECOVERED, incremented, CLOCK.instant())));
+    }
+
+    @Test
+    void whenAProductBelowItsMinIsDeletedThenItLeavesTheSetWithoutAlert() {
+        // when
+        lowStockTracker.onProductChanged(new ProductChangedEvent(ProductChangeType.DELETED, product(1L, 10, 8), -8));
+
+        // then
+        assertThat(lowStockTracker.isBelowMin(1L), is(false));
+        assertThat(alerts, is(empty()));
+    }
+
+    private static ProductDTO product(Long id, int min, int quantity) {
+        return new ProductDTO(id, "Product " + id, min, quantity, Category.PELE);
+    }
+}
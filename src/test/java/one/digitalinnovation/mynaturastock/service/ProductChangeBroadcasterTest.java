@@ -0,0 +1,222 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.enums.SlowConsumerPolicy;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductChangeBroadcasterTest {
+
+    private static final ProductDTO PERFUME = new ProductDTO(1L, "Kaiak", 5, 20, Category.PERFUMARIA);
+    private static final ProductDTO SOAP = new ProductDTO(2L, "Ekos", 5, 20, Category.BANHO);
+    private static final int OUTBOX_CAPACITY = 2;
+
+    @Mock
+    private ProductService productService;
+
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @AfterEach
+    void tearDown() {
+        productChangeBroadcaster.close();
+    }
+
+    @Test
+    void whenProductsChangeThenSubscribersGetTheChangesTheirFilterAccepts() throws Exception {
+        // given
+        productChangeBroadcaster = broadcaster(16);
+        RecordingEmitter perfumes = new RecordingEmitter();
+        RecordingEmitter soapById = new RecordingEmitter();
+        productChangeBroadcaster.subscribe(perfumes, ProductChangeBroadcaster.filter(Category.PERFUMARIA, null), null);
+        productChangeBroadcaster.subscribe(soapById, ProductChangeBroadcaster.filter(null, List.of(SOAP.getId())), null);
+
+        // when
+        productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, SOAP, -1));
+        productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, PERFUME, 2));
+
+        // then
+        String perfumeEvent = perfumes.next();
+        assertThat(perfumeEvent, containsString("id:2\nevent:" + ProductChangeBroadcaster.CHANGE_EVENT_NAME));
+        assertThat(perfumeEvent, containsString("\"type\":\"INCREMENTED\""));
+        assertThat(perfumeEvent, containsString("\"quantityDelta\":2"));
+        assertThat(soapById.next(), containsString("\"name\":\"Ekos\""));
+        assertThat(perfumes.poll(), is(nullValue()));
+    }
+
+    @Test
+    void whenAClientResumesThenItGetsTheChangesAfterItsLastEventOrASnapshotWhenTheyAreGone() throws Exception {
+        // given
+        productChangeBroadcaster = broadcaster(4);
+        streamProducts(PERFUME, SOAP);
+        for (int i = 0; i < 6; i++) {
+            productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, SOAP, 1));
+        }
+        RecordingEmitter resumed = new RecordingEmitter();
+        RecordingEmitter tooLate = new RecordingEmitter();
+
+        // when
+        productChangeBroadcaster.subscribe(resumed, ProductChangeBroadcaster.filter(null, null), 5L);
+        productChangeBroadcaster.subscribe(tooLate, ProductChangeBroadcaster.filter(Category.BANHO, null), 1L);
+        String snapshot = tooLate.next();
+        productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.DECREMENTED, SOAP, -1));
+
+        // then
+        assertThat(resumed.next(), containsString("id:6\n"));
+        assertThat(resumed.next(), containsString("id:7\n"));
+        assertThat(snapshot, containsString("id:6\nevent:" + ProductChangeBroadcaster.SNAPSHOT_EVENT_NAME));
+        assertThat(snapshot, containsString("\"name\":\"Ekos\""));
+        assertThat(snapshot.contains("Kaiak"), is(false));
+        assertThat(tooLate.next(), containsString("id:7\n"));
+    }
+
+    @Test
+    void whenASubscriberFallsAFullRingBehindThenItCatchesUpFromASnapshot() throws Exception {
+        // given
+        productChangeBroadcaster = broadcaster(4);
+        streamProducts(SOAP);
+        CountDownLatch released = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(released);
+        productChangeBroadcaster.subscribe(slow, ProductChangeBroadcaster.filter(null, null), null);
+
+        // when
+        productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, SOAP, 1));
+        assertThat(slow.next(), containsString("id:1\n"));
+        for (int i = 0; i < 10; i++) {
+            productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, SOAP, 1));
+        }
+        released.countDown();
+
+        // then
+        String event;
+        do {
+            event = slow.next();
+        } while (!event.contains("event:" + ProductChangeBroadcaster.SNAPSHOT_EVENT_NAME));
+        productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, SOAP, 1));
+        do {
+            event = slow.next();
+        } while (!event.contains("id:12\n"));
+        assertThat(productChangeBroadcaster.subscriberCount(), is(1));
+    }
+
+    @Test
+    void whenASubscriberStopsReadingThenTheOthersOfItsDispatcherKeepGettingChanges() throws Exception {
+        // given
+        productChangeBroadcaster = new ProductChangeBroadcaster(productService, new ObjectMapper().writer(), 16, 1, 2,
+                OUTBOX_CAPACITY, Duration.ofMillis(1), SlowConsumerPolicy.DROP);
+        CountDownLatch released = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(released);
+        RecordingEmitter reading = new RecordingEmitter();
+        productChangeBroadcaster.subscribe(stuck, ProductChangeBroadcaster.filter(null, null), null);
+        productChangeBroadcaster.subscribe(reading, ProductChangeBroadcaster.filter(null, null), null);
+
+        // when
+        for (int i = 1; i <= 20; i++) {
+            productChangeBroadcaster.onProductChanged(new ProductChangedEvent(ProductChangeType.INCREMENTED, SOAP, 1));
+
+            // then
+            assertThat(reading.next(), containsString("id:" + i + "\n"));
+        }
+        released.countDown();
+        assertThat(stuck.completedWithError.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(productChangeBroadcaster.subscriberCount(), is(1));
+    }
+
+    private ProductChangeBroadcaster broadcaster(int ringCapacity) {
+        return new ProductChangeBroadcaster(productService, new ObjectMapper().writer(), ringCapacity, 2, 2,
+                OUTBOX_CAPACITY, Duration.ofMillis(1), SlowConsumerPolicy.SNAPSHOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamProducts(ProductDTO... products) {
+        doAnswer(invocation -> {
+            Consumer<ProductDTO> productConsumer = invocation.getArgument(0);
+            for (ProductDTO product : products) {
+                productConsumer.accept(product);
+            }
+            return null;
+        }).when(productService).streamAll(any());
+    }
+
+    /**
+     * Records the events sent to it as text; when given a latch, the first event sent holds the sender until it is
+     * released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completedWithError = new CountDownLatch(1);
+        private final CountDownLatch released;
+
+        private RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        private RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            events.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(this::asText)
+                    .collect(Collectors.joining()));
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError.countDown();
+        }
+
+        private String asText(Object data) {
+            try {
+                return data instanceof String ? (String) data : new ObjectMapper().writeValueAsString(data);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat("no event was sent", event != null, is(true));
+            return event;
+        }
+
+        private String poll() throws InterruptedException {
+            return events.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+}
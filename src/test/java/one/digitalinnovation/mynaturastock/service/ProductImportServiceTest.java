@@ -0,0 +1,111 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ProductImportResultDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductImportFormat;
+import one.digitalinnovation.mynaturastock.exception.ProductImportException;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "mynaturastock.import.batch-size=2")
+public class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    private final List<String> importedNames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        productService.createProduct(ProductDTO.builder()
+                .name("Ekos Registrado")
+                .min(1)
+                .quantity(10)
+                .type(Category.BANHO)
+                .build());
+        importedNames.add("Ekos Registrado");
+    }
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        for (String name : importedNames) {
+            productService.deleteById(productService.findByName(name).getId());
+        }
+    }
+
+    @Test
+    void whenACsvFileIsImportedThenValidNewProductsAreInsertedAndTheOthersAreReported() throws Exception {
+        // given
+        String csv = "type,name,quantity,min\n"
+                + "BANHO,Ekos Castanha,20,5\n"
+                + "perfumaria,\"Kaiak, Aventura\",30,10\n"
+                + "BANHO,Ekos Registrado,20,5\n"
+                + "BANHO,Ekos Castanha,20,5\n"
+                + "\n"
+                + "BANHO,Tododia,101,5\n"
+                + "SAPATOS,Chronos,10,1\n"
+                + "BANHO,Ekos Maracuja,10,1\n";
+
+        // when
+        ProductImportResultDTO result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+        importedNames.addAll(List.of("Ekos Castanha", "Kaiak, Aventura", "Ekos Maracuja"));
+
+        // then
+        assertThat(result.getRead(), is(equalTo(7L)));
+        assertThat(result.getImported(), is(equalTo(3L)));
+        assertThat(result.getDuplicates(), is(equalTo(2L)));
+        assertThat(result.getInvalid(), is(equalTo(2L)));
+        assertThat(result.getErrors(), contains(
+                startsWith("line 4: "), startsWith("line 5: "), startsWith("line 7: quantity"), startsWith("line 8: SAPATOS")));
+        ProductDTO product = productService.findByName("Kaiak, Aventura");
+        assertThat(product.getQuantity(), is(equalTo(30)));
+        assertThat(product.getType(), is(equalTo(Category.PERFUMARIA)));
+    }
+
+    @Test
+    void whenAnNdjsonStreamIsImportedThenEachLineIsAProduct() throws Exception {
+        // given
+        String ndjson = "{\"name\":\"Luna\",\"min\":2,\"quantity\":8,\"type\":\"PERFUMARIA\"}\n"
+                + "{\"name\":\"Luna Radiante\",\"min\":2,\n";
+
+        // when
+        ProductImportResultDTO result = productImportService.importProducts(stream(ndjson), ProductImportFormat.NDJSON);
+        importedNames.add("Luna");
+
+        // then
+        assertThat(result.getImported(), is(equalTo(1L)));
+        assertThat(result.getInvalid(), is(equalTo(1L)));
+        assertThat(productService.findByName("Luna").getMin(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenTheCsvHeaderMissesAColumnThenTheImportIsRefused() {
+        assertThrows(ProductImportException.class,
+                () -> productImportService.importProducts(stream("name,min,quantity\nLuna,2,8\n"), ProductImportFormat.CSV));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int DECREMENTS = 4000;
+    private static final int INITIAL_QUANTITY = 3000;
+    private static final int MIN_QUANTITY = 1000;
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTO.builder()
+                .name("Kaiak Concurrency")
+                .min(MIN_QUANTITY)
+                .quantity(INITIAL_QUANTITY)
+                .type(Category.PERFUMARIA)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        productService.deleteById(product.getId());
+    }
+
+    @Test
+    void whenThousandsOfParallelDecrementsAreCalledThenNoUpdateIsLostAndMinIsRespected() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < DECREMENTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    productService.decrement(product.getId(), 1);
+                    applied.incrementAndGet();
+                } catch (ProductStockExceededException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        ProductDTO decrementedProduct = productService.findByName(product.getName());
+
+        assertThat(decrementedProduct.getQuantity(), equalTo(MIN_QUANTITY));
+        assertThat(applied.get(), equalTo(INITIAL_QUANTITY - MIN_QUANTITY));
+        assertThat(rejected.get(), equalTo(DECREMENTS - (INITIAL_QUANTITY - MIN_QUANTITY)));
+    }
+}
@@ -3,20 +3,31 @@ package one.digitalinnovation.mynaturastock.service;
 import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
 import one.digitalinnovation.mynaturastock.dto.ProductDTO;
 import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
 import one.digitalinnovation.mynaturastock.exception.ProductAlreadyRegisteredException;
 import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
 import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
 import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
 import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -26,9 +37,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,11 +56,34 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private StripedLocks stockLocks = new StripedLocks(16);
+
+    @Mock
+    private StockHolds stockHolds;
+
+    @Mock
+    private ProductVersionRegistry productVersions;
+
+    @Mock
+    private CacheManager cacheManager;
+
     private ProductMapper productMapper = ProductMapper.INSTANCE;
 
     @InjectMocks
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockEngine.withCurrentStock(any(Product.class))).then(returnsFirstArg());
+    }
+
     @Test
     void whenProductInformedThenItShouldBeCreated() throws ProductAlreadyRegisteredException {
         // given
@@ -60,6 +100,7 @@ public class ProductServiceTest {
         assertThat(createdProductDTO.getId(), is(equalTo(expectedProductDTO.getId())));
         assertThat(createdProductDTO.getName(), is(equalTo(expectedProductDTO.getName())));
         assertThat(createdProductDTO.getQuantity(), is(equalTo(expectedProductDTO.getQuantity())));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(ProductChangeType.CREATED, createdProductDTO, expectedProductDTO.getQuantity()));
     }
 
     @Test
@@ -129,6 +170,52 @@ public class ProductServiceTest {
         assertThat(foundListProductsDTO, is(empty()));
     }
 
+    @Test
+    void whenListAfterIsCalledThenReturnTheNextPageOfProducts() {
+        // given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
+
+        //when
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(expectedFoundProduct));
+
+        //then
+        List<ProductDTO> foundListProductsDTO = productService.listAfter(0L, 10);
+
+        assertThat(foundListProductsDTO.get(0), is(equalTo(expectedFoundProductDTO)));
+    }
+
+    @Test
+    void whenListByCategoryIsCalledThenReturnTheProductsOfTheCategory() {
+        // given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().type(Category.CABELOS).build().toProductDTO();
+        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
+
+        //when
+        when(productRepository.findByTypeOrderByIdAsc(Category.CABELOS)).thenReturn(Collections.singletonList(expectedFoundProduct));
+
+        //then
+        List<ProductDTO> foundListProductsDTO = productService.listByCategory(Category.CABELOS);
+
+        assertThat(foundListProductsDTO, contains(expectedFoundProductDTO));
+    }
+
+    @Test
+    void whenListAtOrBelowMinIsCalledThenReturnTheProductsToRestock() {
+        // given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().max(12).build().toProductDTO();
+        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
+
+        //when
+        when(productRepository.findAtOrBelowMin()).thenReturn(Collections.singletonList(expectedFoundProduct));
+
+        //then
+        List<ProductDTO> foundListProductsDTO = productService.listAtOrBelowMin();
+
+        assertThat(foundListProductsDTO, contains(expectedFoundProductDTO));
+    }
+
     @Test
     void whenExclusionIsCalledWithValidIdThenAProductShouldBeDeleted() throws ProductNotFoundException {
         // given
@@ -152,48 +239,115 @@ public class ProductServiceTest {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
-        //when
-        when(productRepository.findById(expectedProductDTO.getId())).thenReturn(Optional.of(expectedProduct));
-        when(productRepository.save(expectedProduct)).thenReturn(expectedProduct);
-
         int quantityToDecrement = 3;
-        int expectedQuantityAfterDecrement = expectedProductDTO.getQuantity() + quantityToDecrement;
+        int expectedQuantityAfterDecrement = expectedProductDTO.getQuantity() - quantityToDecrement;
+        expectedProduct.setQuantity(expectedQuantityAfterDecrement);
+
+        //when
+        when(stockEngine.decrement(expectedProductDTO.getId(), quantityToDecrement)).thenReturn(expectedProduct);
 
         // then
         ProductDTO decrementedProductDTO = productService.decrement(expectedProductDTO.getId(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(decrementedProductDTO.getQuantity()));
-        assertThat(expectedQuantityAfterDecrement, lessThan(expectedProductDTO.getMin()));
+        assertThat(expectedQuantityAfterDecrement, greaterThanOrEqualTo(expectedProductDTO.getMin()));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(ProductChangeType.DECREMENTED, decrementedProductDTO, -quantityToDecrement));
     }
 
     @Test
-    void whenDecrementIsGreatherThanMinThenThrowException() {
+    void whenDecrementIsGreatherThanMinThenThrowException() throws ProductNotFoundException, ProductStockExceededException {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
-        when(productRepository.findById(expectedProductDTO.getId())).thenReturn(Optional.of(expectedProduct));
-
         int quantityToDecrement = 20;
+        when(stockEngine.decrement(expectedProductDTO.getId(), quantityToDecrement))
+                .thenThrow(new ProductStockExceededException(expectedProduct.getId(), quantityToDecrement));
+
         assertThrows(ProductStockExceededException.class, () -> productService.decrement(expectedProductDTO.getId(), quantityToDecrement));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void whenDecrementAfterSubtractIsGreatherThanMinThenThrowException() {
+    void whenDecrementWouldTakeStockHeldByReservationsThenThrowException() throws ProductNotFoundException, ProductStockExceededException {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
-        Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
-        when(productRepository.findById(expectedProductDTO.getId())).thenReturn(Optional.of(expectedProduct));
+        int quantityToDecrement = 5;
+        doThrow(new ProductStockExceededException(expectedProductDTO.getId(), quantityToDecrement))
+                .when(stockHolds).verifyIfAvailable(expectedProductDTO.getId(), quantityToDecrement);
+
+        assertThrows(ProductStockExceededException.class, () -> productService.decrement(expectedProductDTO.getId(), quantityToDecrement));
+        verify(stockEngine, never()).decrement(expectedProductDTO.getId(), quantityToDecrement);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void whenDecrementFailsThenTheProductLockIsReleased() throws Exception {
+        // given
+        int quantityToDecrement = 10;
+        when(stockEngine.decrement(INVALID_BEER_ID, quantityToDecrement)).thenThrow(new ProductNotFoundException(INVALID_BEER_ID));
+
+        // when
+        assertThrows(ProductNotFoundException.class, () -> productService.decrement(INVALID_BEER_ID, quantityToDecrement));
+
+        // then
+        Lock lock = stockLocks.forId(INVALID_BEER_ID);
+        boolean lockedFromAnotherThread = CompletableFuture.supplyAsync(() -> {
+            boolean locked = lock.tryLock();
+            if (locked) {
+                lock.unlock();
+            }
+            return locked;
+        }).get(5, TimeUnit.SECONDS);
+        assertTrue(lockedFromAnotherThread);
+    }
+
+    @Test
+    void whenDecrementAfterSubtractIsGreatherThanMinThenThrowException() throws ProductNotFoundException, ProductStockExceededException {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
         int quantityToDecrement = 15;
+        when(stockEngine.decrement(expectedProductDTO.getId(), quantityToDecrement))
+                .thenThrow(new ProductStockExceededException(expectedProduct.getId(), quantityToDecrement));
+
         assertThrows(ProductStockExceededException.class, () -> productService.decrement(expectedProductDTO.getId(), quantityToDecrement));
     }
 
     @Test
-    void whenDecrementIsCalledWithInvalidIdThenThrowException() {
+    void whenDecrementIsCalledWithInvalidIdThenThrowException() throws ProductNotFoundException, ProductStockExceededException {
         int quantityToDecrement = 10;
 
-        when(productRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(stockEngine.decrement(INVALID_BEER_ID, quantityToDecrement)).thenThrow(new ProductNotFoundException(INVALID_BEER_ID));
 
         assertThrows(ProductNotFoundException.class, () -> productService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
+
+    @Test
+    void whenIncrementIsCalledThenIncrementProductStock() throws ProductNotFoundException {
+        //given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedProduct = productMapper.toModel(expectedProductDTO);
+
+        int quantityToIncrement = 10;
+        int expectedQuantityAfterIncrement = expectedProductDTO.getQuantity() + quantityToIncrement;
+        expectedProduct.setQuantity(expectedQuantityAfterIncrement);
+
+        //when
+        when(stockEngine.increment(expectedProductDTO.getId(), quantityToIncrement)).thenReturn(expectedProduct);
+
+        //then
+        ProductDTO incrementedProductDTO = productService.increment(expectedProductDTO.getId(), quantityToIncrement);
+
+        assertThat(expectedQuantityAfterIncrement, equalTo(incrementedProductDTO.getQuantity()));
+    }
+
+    @Test
+    void whenIncrementIsCalledWithInvalidIdThenThrowException() throws ProductNotFoundException {
+        int quantityToIncrement = 10;
+
+        when(stockEngine.increment(INVALID_BEER_ID, quantityToIncrement)).thenThrow(new ProductNotFoundException(INVALID_BEER_ID));
+
+        assertThrows(ProductNotFoundException.class, () -> productService.increment(INVALID_BEER_ID, quantityToIncrement));
+    }
 }
@@ -0,0 +1,115 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.enums.EndpointClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimiterTest {
+
+    private static final int CAPACITY = 3;
+    private static final int ADDRESS_CAPACITY = 6;
+    private static final double TOKENS_PER_SECOND = 10;
+    private static final long TOKEN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Mock
+    private Clock clock;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = 1_000_000;
+        when(clock.millis()).thenAnswer(invocation -> now);
+    }
+
+    @Test
+    void whenAClientSpendsItsBurstThenItWaitsForTheNextToken() {
+        // given
+        RateLimiter rateLimiter = newRateLimiter(100);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a"), is(equalTo(0L)));
+        }
+
+        // when
+        long waitNanos = rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a");
+        now += 40;
+
+        // then
+        assertThat(waitNanos, is(equalTo(TOKEN_NANOS)));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a"), is(equalTo(TOKEN_NANOS - TimeUnit.MILLISECONDS.toNanos(40))));
+        now += 60;
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a"), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenAClientIsLimitedThenOtherClientsAndItsReadsAreNot() {
+        // given
+        RateLimiter rateLimiter = newRateLimiter(100);
+
+        // when
+        for (int i = 0; i < CAPACITY; i++) {
+            rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a");
+        }
+
+        // then
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a") > 0, is(true));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-b"), is(equalTo(0L)));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.READ, "integration-a"), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenMaxClientsIsReachedThenNewClientsShareABucketUntilFullBucketsAreEvicted() {
+        // given
+        RateLimiter rateLimiter = newRateLimiter(1);
+        rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-a");
+
+        // when
+        for (int i = 0; i < CAPACITY; i++) {
+            rateLimiter.tryAcquire(EndpointClass.MUTATION, "spoofed-" + i);
+        }
+
+        // then
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "spoofed-" + CAPACITY) > 0, is(true));
+        assertThat(rateLimiter.size(), is(equalTo(1)));
+        now += 100;
+        rateLimiter.evictFull();
+        assertThat(rateLimiter.size(), is(equalTo(0)));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-b"), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenAClientSendsANewKeyPerRequestThenItsAddressLimitsItAndNotTheClientsAfterIt() {
+        // given
+        RateLimiter rateLimiter = newRateLimiter(1).limitAddresses(EndpointClass.MUTATION, ADDRESS_CAPACITY, TOKENS_PER_SECOND);
+
+        // when
+        for (int i = 0; i < ADDRESS_CAPACITY; i++) {
+            assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "spoofed-" + i, "10.0.0.1"), is(equalTo(0L)));
+        }
+
+        // then
+        assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "spoofed-" + ADDRESS_CAPACITY, "10.0.0.1") > 0, is(true));
+        assertThat(rateLimiter.size(), is(equalTo(1)));
+        for (int i = 0; i <= CAPACITY; i++) {
+            assertThat(rateLimiter.tryAcquire(EndpointClass.MUTATION, "integration-b", "10.0.0.2"), is(equalTo(0L)));
+        }
+    }
+
+    private RateLimiter newRateLimiter(int maxClients) {
+        return new RateLimiter(clock, maxClients)
+                .limit(EndpointClass.READ, CAPACITY, TOKENS_PER_SECOND)
+                .limit(EndpointClass.MUTATION, CAPACITY, TOKENS_PER_SECOND);
+    }
+}
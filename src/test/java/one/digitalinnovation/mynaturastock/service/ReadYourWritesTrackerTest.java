@@ -0,0 +1,64 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadYourWritesTrackerTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    @Mock
+    private Clock clock;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = 1_000_000;
+        when(clock.millis()).thenAnswer(invocation -> now);
+    }
+
+    @Test
+    void whenAClientWritesThenItsReadsNeedThePrimaryUntilTheWindowEnds() {
+        // given
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(clock, WINDOW);
+
+        // when
+        tracker.recordWrite("integration-a");
+
+        // then
+        assertThat(tracker.wroteRecently("integration-a"), is(true));
+        assertThat(tracker.wroteRecently("integration-b"), is(false));
+        now += WINDOW.toMillis();
+        assertThat(tracker.wroteRecently("integration-a"), is(false));
+    }
+
+    @Test
+    void whenTheWindowOfAClientEndsThenItIsEvicted() {
+        // given
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(clock, WINDOW);
+        tracker.recordWrite("integration-a");
+        now += 1000;
+        tracker.recordWrite("integration-b");
+
+        // when
+        now += WINDOW.toMillis() - 1000;
+        tracker.evictExpired();
+
+        // then
+        assertThat(tracker.size(), is(equalTo(1)));
+        assertThat(tracker.wroteRecently("integration-b"), is(true));
+    }
+}
@@ -0,0 +1,158 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.enums.ProductChangeType;
+import one.digitalinnovation.mynaturastock.event.ProductChangedEvent;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryServiceTest {
+
+    private static final long SHAMPOO_ID = 1L;
+    private static final long SOAP_ID = 2L;
+    private static final int SEGMENT_RECORDS = 2;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private Clock clock;
+
+    @TempDir
+    Path eventsDirectory;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productRepository.streamAll())
+                .then(invocation -> Stream.of(new Product(SHAMPOO_ID, "Shampoo", 2, 12, Category.CABELOS, 0L)));
+    }
+
+    @Test
+    void whenStockIsRebuiltAtAPastTimeThenOnlyTheEventsUpToThatTimeAreApplied() throws Exception {
+        // given
+        StockHistoryService stockHistoryService = openAt(1_000);
+        appendAt(stockHistoryService, 2_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -3);
+        appendAt(stockHistoryService, 3_000, ProductChangeType.CREATED, SOAP_ID, 5);
+        appendAt(stockHistoryService, 4_000, ProductChangeType.INCREMENTED, SHAMPOO_ID, 4);
+        appendAt(stockHistoryService, 5_000, ProductChangeType.DELETED, SOAP_ID, -5);
+
+        // then
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(500)), is(anEmptyMap()));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(2_500)), is(equalTo(stock(SHAMPOO_ID, 9))));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(3_500)), is(equalTo(stock(SHAMPOO_ID, 9, SOAP_ID, 5))));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(4_000)), is(equalTo(stock(SHAMPOO_ID, 13, SOAP_ID, 5))));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(9_000)), is(equalTo(stock(SHAMPOO_ID, 13))));
+    }
+
+    @Test
+    void whenTheApplicationRestartsThenPastStockIsStillRebuiltFromTheSnapshotsAndTheLog() throws Exception {
+        // given
+        StockHistoryService stoppedHistoryService = openAt(1_000);
+        appendAt(stoppedHistoryService, 2_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -3);
+        when(clock.millis()).thenReturn(2_500L);
+        stoppedHistoryService.snapshot();
+        appendAt(stoppedHistoryService, 3_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -1);
+        appendAt(stoppedHistoryService, 4_000, ProductChangeType.CREATED, SOAP_ID, 5);
+        stoppedHistoryService.close();
+
+        // when
+        StockHistoryService restartedHistoryService = openAt(10_000);
+        appendAt(restartedHistoryService, 11_000, ProductChangeType.INCREMENTED, SHAMPOO_ID, 1);
+
+        // then
+        assertThat(restartedHistoryService.stockAt(Instant.ofEpochMilli(2_000)), is(equalTo(stock(SHAMPOO_ID, 9))));
+        assertThat(restartedHistoryService.stockAt(Instant.ofEpochMilli(3_000)), is(equalTo(stock(SHAMPOO_ID, 8))));
+        assertThat(restartedHistoryService.stockAt(Instant.ofEpochMilli(10_000)), is(equalTo(stock(SHAMPOO_ID, 12))));
+        assertThat(restartedHistoryService.stockAt(Instant.ofEpochMilli(11_000)), is(equalTo(stock(SHAMPOO_ID, 13))));
+    }
+
+    @Test
+    void whenSnapshotsAreNoLongerRetainedThenTheyAndTheSegmentsBeforeTheOldestKeptOneAreDeleted() throws Exception {
+        // given
+        StockHistoryService stockHistoryService = openAt(1_000, 2, Duration.ofSeconds(1), 1);
+
+        // when
+        snapshotAt(stockHistoryService, 2_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -3);
+        snapshotAt(stockHistoryService, 3_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -1);
+        snapshotAt(stockHistoryService, 3_500, ProductChangeType.INCREMENTED, SHAMPOO_ID, 4);
+        snapshotAt(stockHistoryService, 4_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -2);
+        snapshotAt(stockHistoryService, 5_000, ProductChangeType.DECREMENTED, SHAMPOO_ID, -1);
+
+        // then
+        assertThat(files("snapshot-*.bin"), is(equalTo(3L)));
+        assertThat(files("events-*.log"), is(equalTo(2L)));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(2_500)), is(anEmptyMap()));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(3_200)), is(equalTo(stock(SHAMPOO_ID, 8))));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(3_700)), is(equalTo(stock(SHAMPOO_ID, 12))));
+        assertThat(stockHistoryService.stockAt(Instant.ofEpochMilli(9_000)), is(equalTo(stock(SHAMPOO_ID, 9))));
+    }
+
+    private StockHistoryService openAt(long millis) throws Exception {
+        return openAt(millis, 60, Duration.ofHours(1), 168);
+    }
+
+    private StockHistoryService openAt(long millis, int retainedSnapshots, Duration thinnedSnapshotInterval,
+                                       int retainedThinnedSnapshots) throws Exception {
+        when(clock.millis()).thenReturn(millis);
+        StockHistoryService stockHistoryService = new StockHistoryService(productRepository,
+                TransactionOperations.withoutTransaction(), eventsDirectory, SEGMENT_RECORDS, retainedSnapshots,
+                thinnedSnapshotInterval, retainedThinnedSnapshots, clock);
+        stockHistoryService.open();
+        return stockHistoryService;
+    }
+
+    private void appendAt(StockHistoryService stockHistoryService, long millis, ProductChangeType type, long id, int delta) throws Exception {
+        when(clock.millis()).thenReturn(millis);
+        stockHistoryService.onProductChanged(new ProductChangedEvent(type, ProductDTO.builder().id(id).build(), delta));
+    }
+
+    private void snapshotAt(StockHistoryService stockHistoryService, long millis, ProductChangeType type, long id, int delta) throws Exception {
+        appendAt(stockHistoryService, millis, type, id, delta);
+        when(clock.millis()).thenReturn(millis + 100);
+        stockHistoryService.snapshot();
+    }
+
+    private long files(String glob) throws Exception {
+        long count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(eventsDirectory, glob)) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Map<Long, Integer> stock(Object... idsAndQuantities) {
+        Map<Long, Integer> stock = new TreeMap<>();
+        for (int i = 0; i < idsAndQuantities.length; i += 2) {
+            stock.put((Long) idsAndQuantities[i], (Integer) idsAndQuantities[i + 1]);
+        }
+        return stock;
+    }
+}
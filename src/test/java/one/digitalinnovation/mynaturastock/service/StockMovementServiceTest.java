@@ -0,0 +1,136 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.builder.ProductDTOBuilder;
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementDTO;
+import one.digitalinnovation.mynaturastock.dto.StockMovementResultDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.StockMovementStatus;
+import one.digitalinnovation.mynaturastock.mapper.ProductMapper;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockMovementServiceTest {
+
+    private static final long INVALID_PRODUCT_ID = 2L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private StripedLocks stockLocks = new StripedLocks(16);
+
+    @Mock
+    private StockHolds stockHolds;
+
+    private ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    @InjectMocks
+    private StockMovementService stockMovementService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockEngine.isDatabaseBacked()).thenReturn(true);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void whenMovementsAreInformedThenEachOneIsAppliedInOrder() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+        List<StockMovementDTO> movements = Arrays.asList(
+                StockMovementDTO.builder().id(productDTO.getId()).delta(-5).build(),
+                StockMovementDTO.builder().id(productDTO.getId()).delta(3).build());
+
+        // when
+        when(productRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(product));
+
+        // then
+        List<StockMovementResultDTO> results = stockMovementService.applyAll(movements);
+
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+        assertThat(results.get(0).getProduct().getQuantity(), is(equalTo(productDTO.getQuantity() - 5)));
+        assertThat(results.get(1).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+        assertThat(results.get(1).getProduct().getQuantity(), is(equalTo(productDTO.getQuantity() - 2)));
+        assertThat(product.getQuantity(), is(equalTo(productDTO.getQuantity() - 2)));
+    }
+
+    @Test
+    void whenSomeMovementsFailThenTheOthersAreStillApplied() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+        List<StockMovementDTO> movements = Arrays.asList(
+                StockMovementDTO.builder().id(productDTO.getId()).delta(-20).build(),
+                StockMovementDTO.builder().id(INVALID_PRODUCT_ID).delta(1).build(),
+                StockMovementDTO.builder().id(productDTO.getId()).delta(-10).build());
+
+        // when
+        when(productRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(product));
+
+        // then
+        List<StockMovementResultDTO> results = stockMovementService.applyAll(movements);
+
+        assertThat(results.get(0).getStatus(), is(equalTo(StockMovementStatus.STOCK_EXCEEDED)));
+        assertThat(results.get(0).getMessage(), is(notNullValue()));
+        assertThat(results.get(0).getProduct(), is(nullValue()));
+        assertThat(results.get(1).getStatus(), is(equalTo(StockMovementStatus.NOT_FOUND)));
+        assertThat(results.get(2).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+        assertThat(product.getQuantity(), is(equalTo(productDTO.getQuantity() - 10)));
+    }
+
+    @Test
+    void whenConcurrentUpdatesKeepConflictingThenTheWaveIsRetriedAndFinallyFails() {
+        // given
+        List<StockMovementDTO> movements = Collections.singletonList(StockMovementDTO.builder().id(1L).delta(1).build());
+
+        // when
+        doThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L)).when(transactionTemplate).execute(any());
+
+        // then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> stockMovementService.applyAll(movements));
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+}
@@ -0,0 +1,132 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.ReservationDTO;
+import one.digitalinnovation.mynaturastock.entity.Product;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.exception.ReservationLimitExceededException;
+import one.digitalinnovation.mynaturastock.exception.ReservationNotFoundException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockReservationServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int MIN_QUANTITY = 2;
+    private static final int INITIAL_QUANTITY = 12;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    private StockHolds stockHolds;
+
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product(PRODUCT_ID, "Homem", MIN_QUANTITY, INITIAL_QUANTITY, Category.PERFUMARIA, 0L);
+        lenient().when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        lenient().when(stockEngine.withCurrentStock(any())).then(invocation -> invocation.getArgument(0));
+        StripedLocks stockLocks = new StripedLocks(16);
+        stockHolds = new StockHolds(productRepository, stockEngine, stockLocks);
+        stockReservationService = new StockReservationService(productService, stockHolds, stockLocks, Clock.systemUTC(), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockReservationService.close();
+    }
+
+    @Test
+    void whenHoldsExceedTheStockAboveMinThenTheReservationIsRefused() throws Exception {
+        // given
+        stockReservationService.reserve(PRODUCT_ID, 6, TTL);
+
+        // then
+        assertThrows(ProductStockExceededException.class, () -> stockReservationService.reserve(PRODUCT_ID, 5, TTL));
+        stockReservationService.reserve(PRODUCT_ID, 4, TTL);
+        assertThat(stockReservationService.activeCount(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenADecrementWouldTakeHeldStockThenItIsRefused() throws Exception {
+        // given
+        stockReservationService.reserve(PRODUCT_ID, 6, TTL);
+
+        // then
+        assertThrows(ProductStockExceededException.class, () -> stockHolds.verifyIfAvailable(PRODUCT_ID, 5));
+        stockHolds.verifyIfAvailable(PRODUCT_ID, 4);
+    }
+
+    @Test
+    void whenAReservationIsCommittedThenTheStockIsDecrementedAndTheHoldIsFreed() throws Exception {
+        // given
+        ReservationDTO reservation = stockReservationService.reserve(PRODUCT_ID, 10, TTL);
+        ProductDTO decrementedProduct = ProductDTO.builder().id(PRODUCT_ID).quantity(INITIAL_QUANTITY - 10).build();
+        when(productService.decrement(PRODUCT_ID, 10)).thenReturn(decrementedProduct);
+
+        // when
+        ProductDTO committedProduct = stockReservationService.commit(PRODUCT_ID, reservation.getId());
+
+        // then
+        assertThat(committedProduct, is(equalTo(decrementedProduct)));
+        assertThat(stockReservationService.activeCount(), is(equalTo(0)));
+        assertThrows(ReservationNotFoundException.class, () -> stockReservationService.commit(PRODUCT_ID, reservation.getId()));
+        assertThrows(ReservationNotFoundException.class, () -> stockReservationService.release(PRODUCT_ID, reservation.getId()));
+    }
+
+    @Test
+    void whenAReservationExpiresThenItsQuantityIsAvailableAgain() throws Exception {
+        // given
+        ReservationDTO reservation = stockReservationService.reserve(PRODUCT_ID, 10, Duration.ofMillis(50));
+
+        // when
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (stockReservationService.activeCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertThrows(ReservationNotFoundException.class, () -> stockReservationService.findById(PRODUCT_ID, reservation.getId()));
+        stockReservationService.reserve(PRODUCT_ID, 10, TTL);
+    }
+
+    @Test
+    void whenTheLimitOfActiveReservationsIsReachedThenNewReservationsAreRefusedUntilOneEnds() throws Exception {
+        // given
+        ReservationDTO firstReservation = stockReservationService.reserve(PRODUCT_ID, 1, TTL);
+        stockReservationService.reserve(PRODUCT_ID, 1, TTL);
+        stockReservationService.reserve(PRODUCT_ID, 1, TTL);
+
+        // then
+        assertThrows(ReservationLimitExceededException.class, () -> stockReservationService.reserve(PRODUCT_ID, 1, TTL));
+        stockReservationService.release(PRODUCT_ID, firstReservation.getId());
+        stockReservationService.reserve(PRODUCT_ID, 1, TTL);
+    }
+}
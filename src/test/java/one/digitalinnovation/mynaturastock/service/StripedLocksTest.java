@@ -0,0 +1,41 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StripedLocksTest {
+
+    @Test
+    void whenTheStripeCountIsNotAPowerOfTwoThenItIsRoundedUp() {
+        assertThat(new StripedLocks(1).stripeCount(), is(equalTo(1)));
+        assertThat(new StripedLocks(1000).stripeCount(), is(equalTo(1024)));
+        assertThat(new StripedLocks(1024).stripeCount(), is(equalTo(1024)));
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(0));
+    }
+
+    @Test
+    void whenIdsAreCloserThanTheStripeCountThenTheyNeverShareALock() {
+        // given
+        StripedLocks stripedLocks = new StripedLocks(64);
+        Set<Lock> locks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // when
+        for (long id = 1000; id < 1064; id++) {
+            locks.add(stripedLocks.forId(id));
+        }
+
+        // then
+        assertThat(locks.size(), is(equalTo(64)));
+        assertThat(stripedLocks.forId(1000), is(sameInstance(stripedLocks.forId(1000))));
+    }
+}
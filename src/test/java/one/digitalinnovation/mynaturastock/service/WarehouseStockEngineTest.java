@@ -0,0 +1,157 @@
+package one.digitalinnovation.mynaturastock.service;
+
+import one.digitalinnovation.mynaturastock.dto.ProductDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseDecrementDTO;
+import one.digitalinnovation.mynaturastock.dto.WarehouseStockDTO;
+import one.digitalinnovation.mynaturastock.enums.Category;
+import one.digitalinnovation.mynaturastock.exception.ProductNotFoundException;
+import one.digitalinnovation.mynaturastock.exception.ProductStockExceededException;
+import one.digitalinnovation.mynaturastock.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "mynaturastock.stock.mode=warehouse",
+        "mynaturastock.stock.warehouses.slots=4",
+        "mynaturastock.stock.warehouses.flush-interval-ms=3600000",
+        "mynaturastock.stock.warehouses.locations[0].code=CD01",
+        "mynaturastock.stock.warehouses.locations[0].name=Cajamar",
+        "mynaturastock.stock.warehouses.locations[0].latitude=-23.356",
+        "mynaturastock.stock.warehouses.locations[0].longitude=-46.877",
+        "mynaturastock.stock.warehouses.locations[1].code=CD02",
+        "mynaturastock.stock.warehouses.locations[1].name=Recife",
+        "mynaturastock.stock.warehouses.locations[1].latitude=-8.05",
+        "mynaturastock.stock.warehouses.locations[1].longitude=-34.9"
+})
+public class WarehouseStockEngineTest {
+
+    private static final int MIN_QUANTITY = 4;
+    private static final int INITIAL_QUANTITY = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private WarehouseStockEngine warehouseStockEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTO.builder()
+                .name("Essencial Armazéns")
+                .min(MIN_QUANTITY)
+                .quantity(INITIAL_QUANTITY)
+                .type(Category.PERFUMARIA)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        productService.deleteById(product.getId());
+    }
+
+    @Test
+    void whenStockIsDecrementedAtAWarehouseThenTheOtherWarehousesAreNotTouched() throws Exception {
+        // given
+        warehouseStockService.incrementAt(product.getId(), "CD02", 10);
+
+        // when
+        ProductDTO decrementedProduct = warehouseStockService.decrementAt(product.getId(), "CD02", 10);
+
+        // then
+        assertThat(decrementedProduct.getQuantity(), is(equalTo(INITIAL_QUANTITY)));
+        assertThat(quantitiesOf(warehouseStockService.stockOf(product.getId())), contains(INITIAL_QUANTITY, 0));
+        assertThrows(ProductStockExceededException.class, () -> warehouseStockService.decrementAt(product.getId(), "CD02", 1));
+    }
+
+    @Test
+    void whenADecrementExceedsEverySlotThenItIsTakenAcrossWarehousesDownToTheMin() throws Exception {
+        // given
+        warehouseStockService.incrementAt(product.getId(), "CD02", 6);
+
+        // when
+        ProductDTO decrementedProduct = productService.decrement(product.getId(), INITIAL_QUANTITY + 6 - MIN_QUANTITY - 1);
+
+        // then
+        assertThat(decrementedProduct.getQuantity(), is(equalTo(MIN_QUANTITY + 1)));
+        assertThrows(ProductStockExceededException.class, () -> productService.decrement(product.getId(), 2));
+        assertThat(productRepository.findById(product.getId()).get().getQuantity(), is(equalTo(INITIAL_QUANTITY)));
+
+        warehouseStockEngine.flush();
+
+        assertThat(productRepository.findById(product.getId()).get().getQuantity(), is(equalTo(MIN_QUANTITY + 1)));
+        assertThat(productService.findByName(product.getName()).getQuantity(), is(equalTo(MIN_QUANTITY + 1)));
+    }
+
+    @Test
+    void whenStockIsDecrementedNearAPointThenTheNearestWarehouseHoldingEnoughIsUsed() throws Exception {
+        // given
+        warehouseStockService.incrementAt(product.getId(), "CD02", 6);
+
+        // when
+        WarehouseDecrementDTO fromRecife = warehouseStockService.decrementNearest(product.getId(), -8.1, -34.9, 5);
+        WarehouseDecrementDTO fromCajamar = warehouseStockService.decrementNearest(product.getId(), -8.1, -34.9, 5);
+
+        // then
+        assertThat(fromRecife.getWarehouse(), is(equalTo("CD02")));
+        assertThat(fromCajamar.getWarehouse(), is(equalTo("CD01")));
+        assertThat(fromCajamar.getProduct().getQuantity(), is(equalTo(INITIAL_QUANTITY + 6 - 10)));
+    }
+
+    @Test
+    void whenSlotsAreDecrementedConcurrentlyWithoutLocksThenTheMinIsRespected() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger applied = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < INITIAL_QUANTITY * 2; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    warehouseStockEngine.decrement(product.getId(), 1);
+                    applied.incrementAndGet();
+                } catch (ProductStockExceededException e) {
+                    // expected once the stock reaches the min
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(applied.get(), is(equalTo(INITIAL_QUANTITY - MIN_QUANTITY)));
+        assertThat(quantitiesOf(warehouseStockService.stockOf(product.getId())), contains(MIN_QUANTITY));
+    }
+
+    private static List<Integer> quantitiesOf(List<WarehouseStockDTO> stocks) {
+        return stocks.stream().map(WarehouseStockDTO::getQuantity).collect(Collectors.toList());
+    }
+}